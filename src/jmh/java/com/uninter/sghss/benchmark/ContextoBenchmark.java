@@ -0,0 +1,44 @@
+package com.uninter.sghss.benchmark;
+
+import com.uninter.sghss.SghssApplication;
+import com.uninter.sghss.model.Usuario;
+import com.uninter.sghss.service.AuthService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sobe a aplicação completa (H2 em memória, porta aleatória) para os benchmarks que dependem do Spring.
+ * Cada contexto usa um banco próprio e desliga o log de SQL, que dominaria as medições.
+ */
+final class ContextoBenchmark {
+
+    static final String USERNAME = "benchmark";
+    static final String PASSWORD = "benchmark123";
+
+    private ContextoBenchmark() {}
+
+    static ConfigurableApplicationContext iniciar(Map<String, ?> propriedades) {
+        Map<String, Object> props = new HashMap<>();
+        props.put("server.port", 0);
+        props.put("spring.main.banner-mode", "off");
+        props.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        props.put("spring.jpa.show-sql", false);
+        props.put("spring.jpa.properties.hibernate.format_sql", false);
+        props.put("logging.level.root", "WARN");
+        props.put("app.bcryptStrength", 4); // O custo do BCrypt não é o objeto destes benchmarks
+        props.putAll(propriedades);
+        return new SpringApplicationBuilder(SghssApplication.class).properties(props).run();
+    }
+
+    /**
+     * Registra o usuário usado para gerar tokens.
+     */
+    static Usuario registrarUsuario(ConfigurableApplicationContext contexto) {
+        AuthService authService = contexto.getBean(AuthService.class);
+        return authService.register(new Usuario(USERNAME, USERNAME + "@sghss.local", PASSWORD));
+    }
+}
@@ -0,0 +1,75 @@
+package com.uninter.sghss.benchmark;
+
+import com.uninter.sghss.config.JwtAuthenticationFilter;
+import com.uninter.sghss.config.JwtTokenProvider;
+import com.uninter.sghss.model.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uma passagem completa pelo JwtAuthenticationFilter (leitura do cabeçalho, verificação do token,
+ * carga do principal e verificação de revogação), com e sem o modo de principal stateless.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean jwtStatelessPrincipal;
+
+    private ConfigurableApplicationContext contexto;
+    private JwtAuthenticationFilter filtro;
+    private String authorization;
+
+    @Setup
+    public void setup() {
+        contexto = ContextoBenchmark.iniciar(Map.of("app.jwtStatelessPrincipal", jwtStatelessPrincipal));
+        filtro = contexto.getBean(JwtAuthenticationFilter.class);
+        Usuario usuario = ContextoBenchmark.registrarUsuario(contexto);
+        String token = contexto.getBean(JwtTokenProvider.class)
+                .generateToken(new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
+        authorization = "Bearer " + token;
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/pacientes");
+        request.addHeader("Authorization", authorization);
+        filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        if (authentication == null) {
+            throw new IllegalStateException("Token não autenticado pelo filtro.");
+        }
+        return authentication;
+    }
+}
@@ -0,0 +1,72 @@
+package com.uninter.sghss.benchmark;
+
+import com.uninter.sghss.config.JwtTokenProvider;
+import com.uninter.sghss.model.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geração e verificação de tokens JWT.
+ * Com jwtCacheMaxSize = 0 o cache de tokens verificados fica desligado, medindo a verificação HMAC completa.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    @Param({"0", "10000"})
+    public long jwtCacheMaxSize;
+
+    private ConfigurableApplicationContext contexto;
+    private JwtTokenProvider tokenProvider;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setup() {
+        contexto = ContextoBenchmark.iniciar(Map.of("app.jwtCacheMaxSize", jwtCacheMaxSize));
+        tokenProvider = contexto.getBean(JwtTokenProvider.class);
+        Usuario usuario = ContextoBenchmark.registrarUsuario(contexto);
+        authentication = new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities());
+        token = tokenProvider.generateToken(authentication);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromJWT() {
+        return tokenProvider.getUsernameFromJWT(token);
+    }
+}
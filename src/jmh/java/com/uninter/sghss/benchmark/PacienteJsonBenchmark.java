@@ -0,0 +1,101 @@
+package com.uninter.sghss.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.uninter.sghss.model.Paciente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialização e leitura Jackson de listas de pacientes, como nas respostas de GET /api/pacientes,
+ * em JSON e em CBOR (Accept: application/cbor). O ObjectMapper é montado com os mesmos padrões que o Spring Boot aplica.
+ *
+ * O tamanho do payload de cada formato, com e sem gzip, é impresso no início de cada configuração.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PacienteJsonBenchmark {
+
+    @Param({"1", "50", "500", "5000"})
+    public int tamanho;
+
+    @Param({"json", "cbor"})
+    public String formato;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<Paciente> pacientes;
+    private byte[] serializado;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper objectMapper = "cbor".equals(formato)
+                ? Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        JavaType tipo = objectMapper.getTypeFactory().constructCollectionType(List.class, Paciente.class);
+        writer = objectMapper.writerFor(tipo);
+        reader = objectMapper.readerFor(tipo);
+        pacientes = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            Paciente paciente = new Paciente("Paciente de Teste " + i, String.format("%011d", i), "paciente" + i + "@email.com");
+            paciente.setId((long) i + 1);
+            paciente.setTelefone("41999990000");
+            paciente.setEndereco("Rua das Acácias, " + i + " - Curitiba/PR");
+            paciente.setVersao((long) i % 3);
+            pacientes.add(paciente);
+        }
+        serializado = writer.writeValueAsBytes(pacientes);
+
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+            gzip.write(serializado);
+        }
+        System.out.printf("%n[payload] formato=%s pacientes=%d bytes=%d gzip=%d%n",
+                formato, tamanho, serializado.length, comprimido.size());
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws Exception {
+        return writer.writeValueAsBytes(pacientes);
+    }
+
+    /**
+     * Serialização comprimida, como na resposta a Accept-Encoding: gzip (server.compression, nível padrão).
+     */
+    @Benchmark
+    public int serializarListaGzip() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(serializado.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            writer.writeValue(gzip, pacientes);
+        }
+        return saida.size();
+    }
+
+    @Benchmark
+    public List<Paciente> lerLista() throws Exception {
+        return reader.readValue(serializado);
+    }
+}
@@ -0,0 +1,85 @@
+package com.uninter.sghss.benchmark;
+
+import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.service.PacienteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PacienteService contra o H2 embarcado: cadastro, busca por ID (com e sem o PacienteCache) e listagem completa.
+ * A tabela é pré-carregada com "linhas" pacientes antes das medições.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PacienteServiceBenchmark {
+
+    @Param({"1000"})
+    public int linhas;
+
+    @Param({"false", "true"})
+    public boolean pacienteCacheEnabled;
+
+    private ConfigurableApplicationContext contexto;
+    private PacienteService pacienteService;
+    private long[] ids;
+    private final AtomicLong proximoCpf = new AtomicLong(10_000_000_000L);
+
+    @Setup
+    public void setup() {
+        contexto = ContextoBenchmark.iniciar(Map.of("app.pacienteCacheEnabled", pacienteCacheEnabled));
+        pacienteService = contexto.getBean(PacienteService.class);
+        ids = new long[linhas];
+        for (int i = 0; i < linhas; i++) {
+            ids[i] = pacienteService.save(novoPaciente()).getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Paciente save() {
+        return pacienteService.save(novoPaciente());
+    }
+
+    @Benchmark
+    public Paciente findById() {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return pacienteService.findById(id).orElseThrow();
+    }
+
+    @Benchmark
+    public List<Paciente> findAll() {
+        return pacienteService.findAll();
+    }
+
+    private Paciente novoPaciente() {
+        long cpf = proximoCpf.getAndIncrement();
+        Paciente paciente = new Paciente("Paciente " + cpf, String.valueOf(cpf), "paciente" + cpf + "@email.com");
+        paciente.setTelefone("41999990000");
+        return paciente;
+    }
+}
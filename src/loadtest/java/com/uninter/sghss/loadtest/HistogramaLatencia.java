@@ -0,0 +1,77 @@
+package com.uninter.sghss.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Histograma de latências em microssegundos, com buckets log-lineares (erro relativo abaixo de 1,6%).
+ * Thread-safe e sem alocação por registro, para não interferir nas medições do driver.
+ */
+class HistogramaLatencia {
+
+    private static final int SUB_BUCKETS = 64; // Por potência de 2 a partir de 128 us
+    private static final int LINEAR = 128;     // Valores abaixo disto têm bucket próprio (precisão de 1 us)
+    private static final int MAIOR_POTENCIA = 40;
+    private static final int TAMANHO = LINEAR + (MAIOR_POTENCIA - 7 + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(TAMANHO);
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    void registrar(long micros) {
+        long valor = Math.max(0, micros);
+        contagens.incrementAndGet(indice(valor));
+        maximo.accumulate(valor);
+    }
+
+    long total() {
+        long total = 0;
+        for (int i = 0; i < TAMANHO; i++) {
+            total += contagens.get(i);
+        }
+        return total;
+    }
+
+    long maximo() {
+        return maximo.get();
+    }
+
+    /**
+     * @param percentil Entre 0 e 1 (ex.: 0.99).
+     * @return O limite superior do bucket que contém o percentil, em microssegundos (0 se vazio).
+     */
+    long percentil(double percentil) {
+        long total = total();
+        if (total == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(percentil * total));
+        long acumulado = 0;
+        for (int i = 0; i < TAMANHO; i++) {
+            acumulado += contagens.get(i);
+            if (acumulado >= alvo) {
+                return Math.min(limiteSuperior(i), maximo());
+            }
+        }
+        return maximo();
+    }
+
+    static int indice(long valor) {
+        if (valor < LINEAR) {
+            return (int) valor;
+        }
+        int potencia = Math.min(63 - Long.numberOfLeadingZeros(valor), MAIOR_POTENCIA);
+        int deslocamento = potencia - 6;
+        int sub = (int) Math.min(valor >> deslocamento, 2 * SUB_BUCKETS - 1) - SUB_BUCKETS;
+        return LINEAR + (potencia - 7) * SUB_BUCKETS + sub;
+    }
+
+    static long limiteSuperior(int indice) {
+        if (indice < LINEAR) {
+            return indice;
+        }
+        int potencia = (indice - LINEAR) / SUB_BUCKETS + 7;
+        int sub = (indice - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        int deslocamento = potencia - 6;
+        return ((long) (sub + 1) << deslocamento) - 1;
+    }
+}
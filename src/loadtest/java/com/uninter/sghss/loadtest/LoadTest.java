@@ -0,0 +1,425 @@
+package com.uninter.sghss.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.uninter.sghss.dto.PaginaCursorDTO;
+import com.uninter.sghss.seed.GeradorDadosSinteticos;
+import com.uninter.sghss.util.GeradorCpf;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Driver de carga da API: mistura login, listagem, busca por ID, cadastro e atualização de pacientes,
+ * cada operação com a sua taxa (requisições por segundo), contra uma aplicação já no ar e populada
+ * pelo perfil "seed" (GeradorDadosSinteticos).
+ *
+ * O modelo é aberto: as requisições são disparadas nos horários programados, independentemente das
+ * respostas anteriores, e a latência é medida a partir do horário programado. Assim, uma aplicação
+ * lenta aparece na cauda (p99/p999) em vez de simplesmente reduzir a taxa enviada.
+ *
+ * Para medir a inicialização, o driver pode ser iniciado junto com a aplicação (esperarPronto): ele espera
+ * /actuator/health/readiness, lê da aplicação os tempos até a prontidão e até a primeira requisição, e o
+ * relatório traz o p99 de cada segundo do teste e o segundo a partir do qual o p99 fica estável.
+ *
+ * Uso (ver README): mvn -Ploadtest verify -Dloadtest.args="--duracao=60 --rps.get=500"
+ * Opções (--chave=valor): baseUrl, duracao, aquecimento (segundos), rps.login, rps.list, rps.get,
+ * rps.create, rps.update, pacientes, usuarios, senha, maxEmVoo, saida (relatório JSON),
+ * esperarPronto (segundos de espera pela prontidão; 0 = não espera), toleranciaP99 (padrão 1.5).
+ */
+public class LoadTest {
+
+    enum Operacao { LOGIN, LIST, GET, CREATE, UPDATE }
+
+    private final Map<String, String> opcoes;
+    private final String baseUrl;
+    private final long pacientes;
+    private final int usuarios;
+    private final String senha;
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Semaphore emVoo;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operacao, Estatisticas> estatisticas = new EnumMap<>(Operacao.class);
+    private final AtomicLong proximoCpfCriado;
+    private final Map<String, Object> inicializacao = new LinkedHashMap<>();
+    private HistogramaLatencia[] porSegundo;
+    private String token;
+
+    LoadTest(Map<String, String> opcoes) {
+        this.opcoes = opcoes;
+        this.baseUrl = opcao("baseUrl", "http://localhost:8080");
+        this.pacientes = Long.parseLong(opcao("pacientes", "1000000"));
+        this.usuarios = Integer.parseInt(opcao("usuarios", "1000"));
+        this.senha = opcao("senha", "carga123");
+        this.emVoo = new Semaphore(Integer.parseInt(opcao("maxEmVoo", "2000")));
+        this.executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        // Faixa de CPFs dos pacientes criados: muda a cada execução para não repetir CPFs já cadastrados
+        this.proximoCpfCriado = new AtomicLong(500_000_000L + (System.currentTimeMillis() / 1000 % 400_000) * 1000);
+        for (Operacao operacao : Operacao.values()) {
+            estatisticas.put(operacao, new Estatisticas());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new LinkedHashMap<>();
+        for (String arg : args) {
+            for (String parte : arg.trim().split("\\s+")) { // Aceita as opções em um único argumento (exec:exec)
+                if (parte.startsWith("--") && parte.contains("=")) {
+                    opcoes.put(parte.substring(2, parte.indexOf('=')), parte.substring(parte.indexOf('=') + 1));
+                } else if (!parte.isEmpty()) {
+                    throw new IllegalArgumentException("Opção inválida: " + parte + " (use --chave=valor)");
+                }
+            }
+        }
+        new LoadTest(opcoes).executar();
+    }
+
+    void executar() throws Exception {
+        int duracao = Integer.parseInt(opcao("duracao", "60"));
+        int aquecimento = Integer.parseInt(opcao("aquecimento", "10"));
+        int esperarPronto = Integer.parseInt(opcao("esperarPronto", "0"));
+        if (esperarPronto > 0) {
+            esperarProntidao(esperarPronto);
+        }
+        token = login("carga0");
+        if (esperarPronto > 0) {
+            // O login é a primeira requisição fora do /actuator: os tempos são medidos pela aplicação,
+            // a partir do início dela, independentemente de quando o driver foi iniciado
+            for (String metrica : List.of("application.ready.time", "application.warmup.time", "application.first.request.time")) {
+                Double ms = metricaMs(metrica);
+                inicializacao.put(metrica, ms);
+                System.out.println(metrica + ": " + (ms == null ? "-" : String.format("%.0f ms", ms)));
+            }
+        }
+        porSegundo = new HistogramaLatencia[aquecimento + duracao];
+        for (int i = 0; i < porSegundo.length; i++) {
+            porSegundo[i] = new HistogramaLatencia();
+        }
+
+        long inicio = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long inicioMedicao = inicio + TimeUnit.SECONDS.toNanos(aquecimento);
+        long fim = inicioMedicao + TimeUnit.SECONDS.toNanos(duracao);
+
+        List<Thread> geradores = new ArrayList<>();
+        for (Operacao operacao : Operacao.values()) {
+            double rps = Double.parseDouble(opcao("rps." + operacao.name().toLowerCase(), padraoRps(operacao)));
+            if (rps > 0) {
+                Thread gerador = new Thread(() -> gerar(operacao, rps, inicio, inicioMedicao, fim), "gerador-" + operacao);
+                gerador.start();
+                geradores.add(gerador);
+            }
+        }
+        System.out.println("Carga iniciada: " + aquecimento + " s de aquecimento + " + duracao + " s de medição.");
+        for (Thread gerador : geradores) {
+            gerador.join();
+        }
+        // Aguarda as respostas pendentes (limitado a 30 s)
+        int maxEmVoo = Integer.parseInt(opcao("maxEmVoo", "2000"));
+        if (!emVoo.tryAcquire(maxEmVoo, 30, TimeUnit.SECONDS)) {
+            System.err.println("Respostas pendentes após 30 s: " + (maxEmVoo - emVoo.availablePermits()));
+        }
+        executor.shutdownNow();
+        relatorio(duracao);
+    }
+
+    /**
+     * Dispara a operação na taxa pedida até o fim do teste. Apenas as requisições programadas
+     * após o aquecimento entram nas estatísticas.
+     */
+    private void gerar(Operacao operacao, double rps, long inicio, long inicioMedicao, long fim) {
+        Estatisticas stats = estatisticas.get(operacao);
+        double intervalo = 1_000_000_000d / rps;
+        for (long k = 0; ; k++) {
+            long programado = inicio + (long) (k * intervalo);
+            if (programado >= fim) {
+                return;
+            }
+            long espera = programado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            boolean medir = programado >= inicioMedicao;
+            if (!emVoo.tryAcquire()) {
+                if (medir) {
+                    stats.erro("cliente_sobrecarregado"); // Limite de requisições pendentes do driver
+                }
+                continue;
+            }
+            HttpRequest request;
+            int esperado;
+            try {
+                request = requisicao(operacao);
+                esperado = operacao == Operacao.CREATE ? 201 : 200;
+            } catch (Exception e) {
+                emVoo.release();
+                throw new IllegalStateException(e);
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((resposta, erro) -> {
+                long latencia = System.nanoTime() - programado;
+                emVoo.release();
+                // Todas as operações, inclusive no aquecimento: é a curva até o p99 estabilizar
+                porSegundo[(int) Math.min((programado - inicio) / 1_000_000_000L, porSegundo.length - 1)]
+                        .registrar(TimeUnit.NANOSECONDS.toMicros(latencia));
+                if (!medir) {
+                    return;
+                }
+                if (erro != null) {
+                    stats.erro(erro.getClass().getSimpleName());
+                } else if (resposta.statusCode() != esperado) {
+                    stats.erro("http_" + resposta.statusCode());
+                } else {
+                    stats.sucesso();
+                }
+                stats.latencias.registrar(TimeUnit.NANOSECONDS.toMicros(latencia));
+            });
+        }
+    }
+
+    private HttpRequest requisicao(Operacao operacao) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operacao) {
+            case LOGIN: {
+                Map<String, String> body = Map.of("username", "carga" + random.nextInt(usuarios), "password", senha);
+                return json("/api/auth/login").POST(corpo(body)).build();
+            }
+            case LIST: {
+                String cursor = PaginaCursorDTO.encodeCursor(random.nextLong(pacientes));
+                return autenticada("/api/pacientes?size=50&cursor=" + cursor).GET().build();
+            }
+            case GET:
+                return autenticada("/api/pacientes/" + idSorteado()).GET().build();
+            case CREATE: {
+                String cpf;
+                long sequencial;
+                do {
+                    sequencial = proximoCpfCriado.getAndIncrement();
+                    cpf = GeradorCpf.gerar(sequencial);
+                } while (cpf == null);
+                Map<String, String> body = Map.of("nome", "Paciente Carga " + sequencial, "cpf", cpf,
+                        "email", "criado" + sequencial + "@carga.local", "telefone", "41 90000-0000");
+                return autenticada("/api/pacientes").header("Content-Type", "application/json").POST(corpo(body)).build();
+            }
+            case UPDATE: {
+                long id = idSorteado();
+                Map<String, String> body = Map.of("nome", "Paciente Atualizado " + random.nextInt(1000),
+                        "cpf", GeradorDadosSinteticos.cpfDoPaciente(id), "email", GeradorDadosSinteticos.emailDoPaciente(id),
+                        "telefone", "41 91111-1111");
+                return autenticada("/api/pacientes/" + id).header("Content-Type", "application/json").PUT(corpo(body)).build();
+            }
+            default:
+                throw new IllegalArgumentException(operacao.name());
+        }
+    }
+
+    /**
+     * Sorteia um ID de paciente gerado pelo seed (IDs sem CPF possível não existem no banco).
+     */
+    private long idSorteado() {
+        long id;
+        do {
+            id = 1 + ThreadLocalRandom.current().nextLong(pacientes);
+        } while (GeradorDadosSinteticos.cpfDoPaciente(id) == null);
+        return id;
+    }
+
+    /**
+     * Consulta /actuator/health/readiness a cada 50 ms até a aplicação responder 200 (pronta).
+     * Conexão recusada e 503 (ainda iniciando ou aquecendo) contam como "ainda não".
+     */
+    private void esperarProntidao(int segundos) throws Exception {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(5))
+                .GET().build();
+        while (System.nanoTime() < limite) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Ainda não está ouvindo na porta
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("A aplicação não ficou pronta em " + segundos + " s.");
+    }
+
+    /**
+     * Lê um TimeGauge de /actuator/metrics (em segundos) e converte para milissegundos.
+     * @return O valor, ou null se a métrica não existir (ex.: application.warmup.time sem o perfil "prod").
+     */
+    private Double metricaMs(String nome) throws Exception {
+        HttpResponse<String> resposta = client.send(autenticada("/actuator/metrics/" + nome).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            return null;
+        }
+        return objectMapper.readTree(resposta.body()).path("measurements").path(0).path("value").asDouble() * 1000;
+    }
+
+    /**
+     * Segundo do teste a partir do qual o p99 de todos os segundos seguintes fica até a tolerância acima do p99
+     * estável (a mediana dos p99 da segunda metade do teste). Segundos sem requisições são ignorados.
+     * @return O segundo, ou -1 se o teste terminou sem estabilizar.
+     */
+    static int segundoEstavel(long[] p99, double tolerancia) {
+        long[] segundaMetade = Arrays.stream(p99, p99.length / 2, p99.length).filter(v -> v > 0).sorted().toArray();
+        if (segundaMetade.length == 0) {
+            return -1;
+        }
+        double limite = segundaMetade[segundaMetade.length / 2] * tolerancia;
+        int estavel = 0;
+        for (int i = 0; i < p99.length; i++) {
+            if (p99[i] > limite) {
+                estavel = i + 1;
+            }
+        }
+        return estavel < p99.length ? estavel : -1;
+    }
+
+    private String login(String username) throws Exception {
+        HttpRequest request = json("/api/auth/login")
+                .POST(corpo(Map.of("username", username, "password", senha)))
+                .build();
+        HttpResponse<String> resposta = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("Login de " + username + " falhou (HTTP " + resposta.statusCode()
+                    + "). A aplicação foi iniciada com o perfil seed?");
+        }
+        return objectMapper.readTree(resposta.body()).get("accessToken").asText();
+    }
+
+    private HttpRequest.Builder json(String caminho) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + caminho))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.Builder autenticada(String caminho) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + caminho))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest.BodyPublisher corpo(Object body) throws Exception {
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+    }
+
+    private void relatorio(int duracao) throws Exception {
+        Map<String, Object> relatorio = new LinkedHashMap<>();
+        System.out.println();
+        System.out.printf("%-8s %10s %9s %9s %9s %9s %9s %9s%n",
+                "op", "req", "rps", "erro%", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        for (Map.Entry<Operacao, Estatisticas> entrada : estatisticas.entrySet()) {
+            Estatisticas stats = entrada.getValue();
+            long total = stats.sucessos.sum() + stats.erros.sum();
+            if (total == 0) {
+                continue;
+            }
+            double rps = total / (double) duracao;
+            double taxaErro = stats.erros.sum() / (double) total;
+            HistogramaLatencia h = stats.latencias;
+            System.out.printf("%-8s %10d %9.1f %8.2f%% %9.2f %9.2f %9.2f %9.2f%n", entrada.getKey(), total, rps,
+                    taxaErro * 100, h.percentil(0.5) / 1000d, h.percentil(0.99) / 1000d, h.percentil(0.999) / 1000d,
+                    h.maximo() / 1000d);
+
+            Map<String, Object> linha = new LinkedHashMap<>();
+            linha.put("requisicoes", total);
+            linha.put("rps", rps);
+            linha.put("taxaErro", taxaErro);
+            linha.put("p50Ms", h.percentil(0.5) / 1000d);
+            linha.put("p99Ms", h.percentil(0.99) / 1000d);
+            linha.put("p999Ms", h.percentil(0.999) / 1000d);
+            linha.put("maxMs", h.maximo() / 1000d);
+            Map<String, Long> erros = new TreeMap<>();
+            stats.errosPorCausa.forEach((causa, contador) -> erros.put(causa, contador.sum()));
+            linha.put("erros", erros);
+            relatorio.put(entrada.getKey().name().toLowerCase(), linha);
+            if (!erros.isEmpty()) {
+                System.out.println("         erros: " + erros);
+            }
+        }
+
+        long[] p99 = new long[porSegundo.length];
+        List<Double> p99Ms = new ArrayList<>(p99.length);
+        for (int i = 0; i < p99.length; i++) {
+            p99[i] = porSegundo[i].percentil(0.99);
+            p99Ms.add(p99[i] / 1000d);
+        }
+        int estavel = segundoEstavel(p99, Double.parseDouble(opcao("toleranciaP99", "1.5")));
+        inicializacao.put("p99PorSegundoMs", p99Ms);
+        inicializacao.put("segundoP99Estavel", estavel);
+        System.out.println(estavel < 0 ? "\np99 não estabilizou durante o teste."
+                : "\np99 estável a partir do segundo " + estavel + " do teste.");
+
+        File saida = new File(opcao("saida", "target/loadtest-report.json"));
+        if (saida.getParentFile() != null) {
+            saida.getParentFile().mkdirs();
+        }
+        Map<String, Object> documento = new LinkedHashMap<>();
+        documento.put("opcoes", opcoes);
+        documento.put("duracaoSegundos", duracao);
+        documento.put("operacoes", relatorio);
+        documento.put("inicializacao", inicializacao);
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(saida, documento);
+        System.out.println("\nRelatório gravado em " + saida.getPath());
+    }
+
+    private String opcao(String chave, String padrao) {
+        return opcoes.getOrDefault(chave, padrao);
+    }
+
+    private static String padraoRps(Operacao operacao) {
+        switch (operacao) {
+            case LOGIN: return "5";
+            case LIST: return "50";
+            case GET: return "200";
+            case CREATE: return "10";
+            case UPDATE: return "10";
+            default: return "0";
+        }
+    }
+
+    private static final class Estatisticas {
+        private final HistogramaLatencia latencias = new HistogramaLatencia();
+        private final LongAdder sucessos = new LongAdder();
+        private final LongAdder erros = new LongAdder();
+        private final Map<String, LongAdder> errosPorCausa = new ConcurrentHashMap<>();
+
+        void sucesso() {
+            sucessos.increment();
+        }
+
+        void erro(String causa) {
+            erros.increment();
+            errosPorCausa.computeIfAbsent(causa, c -> new LongAdder()).increment();
+        }
+    }
+}
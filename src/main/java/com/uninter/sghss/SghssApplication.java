@@ -2,8 +2,10 @@ package com.uninter.sghss;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // Tarefas em segundo plano (ex.: atualização da tabela de versões de token)
 public class SghssApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,299 @@
+package com.uninter.sghss.auditoria;
+
+import com.uninter.sghss.event.PacienteAlteradoEvent;
+import com.uninter.sghss.util.FilaAnelMpsc;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Log de auditoria dos acessos a dados de pacientes (quem leu ou alterou qual paciente, quando e de onde).
+ *
+ * As threads de requisição apenas colocam o evento em uma fila circular sem locks (FilaAnelMpsc);
+ * uma thread gravadora esvazia a fila em lotes e acrescenta os eventos a segmentos mapeados em memória
+ * (EscritorAuditoria), com fsync no máximo a cada app.auditoriaFsyncMs. Nenhuma requisição espera por I/O.
+ *
+ * Com a fila cheia, o comportamento segue app.auditoriaPoliticaFilaCheia:
+ * - AGUARDAR (padrão): a requisição espera até app.auditoriaEsperaMaxMs por espaço na fila e só então descarta;
+ * - BLOQUEAR: a requisição espera por espaço na fila, sem limite de tempo; nenhum acesso fica sem registro,
+ *   mas a gravação em disco passa a limitar a vazão e a latência das requisições;
+ * - DESCARTAR: o evento é descartado na hora.
+ * Se a thread gravadora parar por um erro inesperado, nenhuma requisição espera: os eventos passam a ser
+ * descartados. Todo evento descartado é contado em auditoria.descartados e escrito no log de erros, com os
+ * seus dados.
+ *
+ * Um acesso a mais de FormatoAuditoria.MAX_IDS pacientes (o limite de um registro) vira vários eventos,
+ * com o mesmo instante e o detalhe marcado com a parte ("[parte 1/3]"), em vez de perder IDs.
+ *
+ * As leituras são registradas pelo PacienteController; cadastros, alterações e remoções, pelos eventos
+ * do PacienteService após o commit. Os registros são consultados com ConsultaAuditoria.
+ */
+@Component
+public class AuditoriaService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditoriaService.class);
+
+    public enum PoliticaFilaCheia { BLOQUEAR, AGUARDAR, DESCARTAR }
+
+    private static final int LOTE = 1024; // Eventos gravados por volta da thread gravadora
+    private static final long ESPERA_FILA_VAZIA_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long[] SEM_IDS = new long[0];
+
+    private final boolean enabled;
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final long fsyncNanos;
+    private final PoliticaFilaCheia politica;
+    private final long esperaMaxNanos;
+    private final FilaAnelMpsc<EventoAuditoria> fila;
+    private final Counter descartados;
+    private final Counter gravados;
+    private final Counter falhas;
+
+    private EscritorAuditoria escritor;
+    private Thread gravadora;
+    private volatile boolean ativo;
+    private volatile boolean gravadoraParada;
+
+    @Autowired
+    public AuditoriaService(MeterRegistry meterRegistry,
+                            @Value("${app.auditoriaEnabled:true}") boolean enabled,
+                            @Value("${app.auditoriaDir:auditoria}") String diretorio,
+                            @Value("${app.auditoriaCapacidade:65536}") int capacidade,
+                            @Value("${app.auditoriaSegmentoBytes:67108864}") int tamanhoSegmento,
+                            @Value("${app.auditoriaFsyncMs:200}") long fsyncMs,
+                            @Value("${app.auditoriaPoliticaFilaCheia:AGUARDAR}") PoliticaFilaCheia politica,
+                            @Value("${app.auditoriaEsperaMaxMs:50}") long esperaMaxMs) {
+        this.enabled = enabled;
+        this.diretorio = Path.of(diretorio);
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.fsyncNanos = TimeUnit.MILLISECONDS.toNanos(fsyncMs);
+        this.politica = politica;
+        this.esperaMaxNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaxMs);
+        this.fila = new FilaAnelMpsc<>(capacidade);
+        Gauge.builder("auditoria.fila", fila, FilaAnelMpsc::size)
+                .description("Eventos de auditoria aguardando gravação")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("auditoria.descartados")
+                .description("Eventos de auditoria descartados com a fila cheia (ou com a aplicação encerrando)")
+                .register(meterRegistry);
+        this.gravados = Counter.builder("auditoria.gravados")
+                .description("Eventos de auditoria gravados em disco")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("auditoria.falhas")
+                .description("Eventos de auditoria perdidos por erro de gravação")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        escritor = new EscritorAuditoria(diretorio, tamanhoSegmento);
+        ativo = true;
+        gravadora = new Thread(this::gravar, "auditoria-gravadora");
+        gravadora.setDaemon(true);
+        gravadora.start();
+    }
+
+    /**
+     * Registra um acesso a um paciente pelo usuário da requisição atual.
+     */
+    public void registrar(EventoAuditoria.Acao acao, long pacienteId, String detalhe) {
+        registrar(acao, new long[] {pacienteId}, detalhe);
+    }
+
+    /**
+     * Registra um acesso a vários pacientes (ou a nenhum paciente específico, com ids vazio)
+     * pelo usuário da requisição atual. Nunca faz I/O na thread que chama.
+     */
+    public void registrar(EventoAuditoria.Acao acao, long[] pacienteIds, String detalhe) {
+        if (!enabled) {
+            return;
+        }
+        EventoAuditoria evento = novoEvento(acao, pacienteIds, detalhe);
+        long[] ids = evento.pacienteIds();
+        if (ids.length <= FormatoAuditoria.MAX_IDS) {
+            enfileirar(evento);
+            return;
+        }
+        int partes = (ids.length + FormatoAuditoria.MAX_IDS - 1) / FormatoAuditoria.MAX_IDS;
+        for (int parte = 0; parte < partes; parte++) {
+            int inicio = parte * FormatoAuditoria.MAX_IDS;
+            enfileirar(new EventoAuditoria(evento.instante(), acao, evento.usuario(), evento.ip(),
+                    Arrays.copyOfRange(ids, inicio, Math.min(inicio + FormatoAuditoria.MAX_IDS, ids.length)),
+                    (evento.detalhe() + " [parte " + (parte + 1) + "/" + partes + "]").strip()));
+        }
+    }
+
+    /**
+     * Prepara o registro de um acesso cujo detalhe só se conhece depois da resposta (ex.: a quantidade de
+     * pacientes de uma exportação em streaming). O instante, o usuário e o IP são lidos agora, na thread da
+     * requisição; o evento é registrado quando o Consumer devolvido recebe o detalhe, em qualquer thread.
+     */
+    public Consumer<String> registrarAoFinal(EventoAuditoria.Acao acao) {
+        if (!enabled) {
+            return detalhe -> {};
+        }
+        EventoAuditoria inicio = novoEvento(acao, SEM_IDS, null);
+        return detalhe -> enfileirar(new EventoAuditoria(inicio.instante(), acao, inicio.usuario(), inicio.ip(),
+                SEM_IDS, detalhe == null ? "" : detalhe));
+    }
+
+    private static EventoAuditoria novoEvento(EventoAuditoria.Acao acao, long[] pacienteIds, String detalhe) {
+        return new EventoAuditoria(System.currentTimeMillis(), acao, usuarioAtual(), ipAtual(),
+                pacienteIds == null ? SEM_IDS : pacienteIds, detalhe == null ? "" : detalhe);
+    }
+
+    private void enfileirar(EventoAuditoria evento) {
+        if (gravadoraParada) { // Ninguém mais esvazia a fila
+            descartar(evento, "gravadora parada");
+            return;
+        }
+        if (fila.oferecer(evento)) {
+            return;
+        }
+        if (politica != PoliticaFilaCheia.DESCARTAR) {
+            long limite = System.nanoTime() + esperaMaxNanos;
+            // Sem a gravadora (aplicação encerrando) ou com a thread interrompida, a fila não vai esvaziar
+            while (ativo && !Thread.currentThread().isInterrupted()
+                    && (politica == PoliticaFilaCheia.BLOQUEAR || System.nanoTime() - limite < 0)) {
+                LockSupport.parkNanos(50_000);
+                if (fila.oferecer(evento)) {
+                    return;
+                }
+            }
+        }
+        descartar(evento, "fila cheia");
+    }
+
+    private void descartar(EventoAuditoria evento, String motivo) {
+        descartados.increment();
+        log.warn("Evento de auditoria descartado ({}): instante={} acao={} usuario={} ip={} pacientes={} detalhe={}",
+                motivo, evento.instante(), evento.acao(), evento.usuario(), evento.ip(),
+                Arrays.toString(evento.pacienteIds()), evento.detalhe());
+    }
+
+    /**
+     * Registra cadastros, atualizações e remoções após o commit, com o usuário da requisição que os fez.
+     * O usuário e o IP são lidos na publicação do evento, na thread que fez a alteração: na gravação em lote
+     * (PacienteGravacaoEmLote), o commit de várias requisições acontece de uma vez na thread gravadora.
+     */
+    @EventListener
+    public void onPacienteAlterado(PacienteAlteradoEvent event) {
+        if (!enabled) {
+            return;
+        }
+        EventoAuditoria.Acao acao = switch (event.getTipo()) {
+            case CRIADO -> EventoAuditoria.Acao.CRIACAO;
+            case ATUALIZADO -> EventoAuditoria.Acao.ATUALIZACAO;
+            case REMOVIDO -> EventoAuditoria.Acao.REMOCAO;
+        };
+        EventoAuditoria evento = novoEvento(acao, new long[] {event.getId()}, null);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enfileirar(evento);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enfileirar(evento);
+            }
+        });
+    }
+
+    /**
+     * Laço da thread gravadora: grava em lotes e sincroniza em disco no máximo a cada app.auditoriaFsyncMs.
+     * Um erro fora dos tratados por evento (ex.: OutOfMemoryError) encerra a gravadora: as requisições
+     * deixam de esperar pela fila, e os eventos ainda nela são descartados (e escritos no log de erros).
+     */
+    private void gravar() {
+        try {
+            long ultimoFsync = System.nanoTime();
+            while (ativo || fila.size() > 0) {
+                int gravadosNoLote = fila.drenar(this::gravarEvento, LOTE);
+                long agora = System.nanoTime();
+                if (agora - ultimoFsync >= fsyncNanos) {
+                    sincronizar();
+                    ultimoFsync = agora;
+                }
+                if (gravadosNoLote == 0) {
+                    LockSupport.parkNanos(ESPERA_FILA_VAZIA_NANOS);
+                }
+            }
+            sincronizar();
+        } catch (Throwable e) {
+            log.error("A gravação da auditoria parou.", e);
+        } finally {
+            ativo = false;
+            gravadoraParada = true;
+            fila.drenar(evento -> descartar(evento, "gravadora parada"), Integer.MAX_VALUE);
+        }
+    }
+
+    void gravarEvento(EventoAuditoria evento) {
+        try {
+            escritor.escrever(evento);
+            gravados.increment();
+        } catch (IOException | RuntimeException e) {
+            falhas.increment();
+            log.error("Erro ao gravar evento de auditoria: {}", e.getMessage());
+        }
+    }
+
+    private void sincronizar() {
+        try {
+            escritor.sincronizar();
+        } catch (RuntimeException e) {
+            log.error("Erro ao sincronizar o log de auditoria: {}", e.getMessage());
+        }
+    }
+
+    private static String usuarioAtual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "anonimo";
+    }
+
+    private static String ipAtual() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        return atributos instanceof ServletRequestAttributes servlet ? servlet.getRequest().getRemoteAddr() : "";
+    }
+
+    /**
+     * Grava os eventos que ainda estão na fila e fecha o segmento atual.
+     */
+    @PreDestroy
+    public void parar() throws InterruptedException, IOException {
+        if (gravadora == null) {
+            return;
+        }
+        ativo = false;
+        gravadora.join(TimeUnit.SECONDS.toMillis(10));
+        if (!gravadora.isAlive()) { // Sem a gravadora, o segmento pode ser fechado com segurança
+            escritor.close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.uninter.sghss.auditoria;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Ferramenta de linha de comando para consultar o log de auditoria.
+ *
+ * Uso (ver README):
+ * mvn -q compile exec:java -Dexec.mainClass=com.uninter.sghss.auditoria.ConsultaAuditoria -Dexec.args="--paciente=42"
+ *
+ * Opções (--chave=valor, todas opcionais): dir (padrão "auditoria"), paciente, usuario, acao,
+ * desde e ate (data AAAA-MM-DD ou instante ISO-8601, em UTC).
+ * Imprime um evento por linha, do mais antigo para o mais recente.
+ */
+public final class ConsultaAuditoria {
+
+    private ConsultaAuditoria() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Opção inválida: " + arg + " (use --chave=valor)");
+            }
+            opcoes.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        Predicate<EventoAuditoria> filtro = evento -> true;
+        if (opcoes.containsKey("paciente")) {
+            long paciente = Long.parseLong(opcoes.get("paciente"));
+            filtro = filtro.and(evento -> evento.envolve(paciente));
+        }
+        if (opcoes.containsKey("usuario")) {
+            String usuario = opcoes.get("usuario");
+            filtro = filtro.and(evento -> usuario.equals(evento.usuario()));
+        }
+        if (opcoes.containsKey("acao")) {
+            EventoAuditoria.Acao acao = EventoAuditoria.Acao.valueOf(opcoes.get("acao").toUpperCase());
+            filtro = filtro.and(evento -> evento.acao() == acao);
+        }
+        if (opcoes.containsKey("desde")) {
+            long desde = instante(opcoes.get("desde"));
+            filtro = filtro.and(evento -> evento.instante() >= desde);
+        }
+        if (opcoes.containsKey("ate")) {
+            String valor = opcoes.get("ate");
+            // Uma data sem horário inclui o dia inteiro
+            long ate = valor.length() == 10 ? instante(valor) + 86_400_000L : instante(valor) + 1;
+            filtro = filtro.and(evento -> evento.instante() < ate);
+        }
+
+        long[] total = new long[1];
+        int corrompidos = LeitorAuditoria.ler(Path.of(opcoes.getOrDefault("dir", "auditoria")), filtro, evento -> {
+            total[0]++;
+            System.out.println(formatar(evento));
+        });
+        System.err.println(total[0] + " evento(s).");
+        if (corrompidos > 0) {
+            System.err.println(corrompidos + " segmento(s) com registro corrompido; a leitura desses segmentos parou no erro.");
+        }
+    }
+
+    static String formatar(EventoAuditoria evento) {
+        StringBuilder linha = new StringBuilder()
+                .append(Instant.ofEpochMilli(evento.instante())).append('\t')
+                .append(evento.acao()).append('\t')
+                .append(evento.usuario()).append('\t')
+                .append(evento.ip()).append('\t')
+                .append(Arrays.toString(evento.pacienteIds()));
+        if (!evento.detalhe().isEmpty()) {
+            linha.append('\t').append(evento.detalhe());
+        }
+        return linha.toString();
+    }
+
+    private static long instante(String valor) {
+        if (valor.length() == 10) {
+            return LocalDate.parse(valor).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        }
+        return Instant.parse(valor).toEpochMilli();
+    }
+}
@@ -0,0 +1,122 @@
+package com.uninter.sghss.auditoria;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Grava eventos de auditoria em segmentos de tamanho fixo mapeados em memória, só acrescentando registros.
+ *
+ * Cada instância começa um segmento novo (o próximo número após os existentes no diretório), então
+ * arquivos de execuções anteriores nunca são alterados. Quando um registro não cabe no segmento atual,
+ * ele é sincronizado em disco, fechado e o próximo é criado (rotação por tamanho).
+ * O fsync não é feito a cada registro: quem usa chama sincronizar() em lotes (ver AuditoriaService).
+ *
+ * Não é thread-safe: deve ser usado por uma única thread gravadora.
+ */
+public class EscritorAuditoria implements Closeable {
+
+    static final String PREFIXO = "auditoria-";
+    static final String SUFIXO = ".log";
+    static final int MAX_PAYLOAD = 128 * 1024;
+
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final ByteBuffer rascunho = ByteBuffer.allocate(MAX_PAYLOAD);
+
+    private long numeroSegmento;
+    private FileChannel canal;
+    private MappedByteBuffer segmento;
+    private boolean pendente; // Há registros ainda não sincronizados em disco
+
+    /**
+     * @param diretorio       Diretório dos segmentos (criado se não existir).
+     * @param tamanhoSegmento Tamanho de cada segmento em bytes (mínimo 1 MB).
+     */
+    public EscritorAuditoria(Path diretorio, int tamanhoSegmento) throws IOException {
+        if (tamanhoSegmento < 1024 * 1024) {
+            throw new IllegalArgumentException("O segmento deve ter pelo menos 1 MB.");
+        }
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        Files.createDirectories(diretorio);
+        this.numeroSegmento = LeitorAuditoria.segmentos(diretorio).stream()
+                .mapToLong(EscritorAuditoria::numeroDoSegmento)
+                .max().orElse(0L);
+        abrirProximoSegmento();
+    }
+
+    /**
+     * Acrescenta o evento ao segmento atual, rotacionando se necessário.
+     */
+    public void escrever(EventoAuditoria evento) throws IOException {
+        rascunho.clear();
+        FormatoAuditoria.codificar(evento, rascunho);
+        rascunho.flip();
+        int tamanho = rascunho.remaining();
+
+        // Mantém espaço para o marcador de fim (tamanho 0) após o registro
+        if (segmento.remaining() < FormatoAuditoria.CABECALHO_REGISTRO + tamanho + 4) {
+            fecharSegmento();
+            abrirProximoSegmento();
+        }
+        int inicio = segmento.position();
+        segmento.putInt(inicio + 4, FormatoAuditoria.crc(rascunho));
+        segmento.position(inicio + FormatoAuditoria.CABECALHO_REGISTRO);
+        segmento.put(rascunho);
+        segmento.putInt(inicio, tamanho); // Por último: só agora o registro fica visível para os leitores
+        pendente = true;
+    }
+
+    /**
+     * Força a gravação em disco dos registros escritos desde a última sincronização (fsync).
+     */
+    public void sincronizar() {
+        if (pendente) {
+            segmento.force();
+            pendente = false;
+        }
+    }
+
+    public Path getSegmentoAtual() {
+        return diretorio.resolve(nomeDoSegmento(numeroSegmento));
+    }
+
+    @Override
+    public void close() throws IOException {
+        fecharSegmento();
+    }
+
+    private void abrirProximoSegmento() throws IOException {
+        numeroSegmento++;
+        canal = FileChannel.open(getSegmentoAtual(),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+        segmento.put(FormatoAuditoria.MAGICO);
+        pendente = true;
+    }
+
+    private void fecharSegmento() throws IOException {
+        if (canal == null) {
+            return;
+        }
+        sincronizar();
+        canal.close(); // O mapeamento é liberado pelo GC
+        canal = null;
+        segmento = null;
+    }
+
+    static String nomeDoSegmento(long numero) {
+        return String.format("%s%010d%s", PREFIXO, numero, SUFIXO);
+    }
+
+    static long numeroDoSegmento(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length()));
+    }
+}
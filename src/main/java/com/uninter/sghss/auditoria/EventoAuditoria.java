@@ -0,0 +1,28 @@
+package com.uninter.sghss.auditoria;
+
+/**
+ * Registro de acesso a dados de pacientes: quem (usuário e IP), quando, qual ação e quais pacientes.
+ *
+ * @param instante   Momento do acesso, em milissegundos desde a época (UTC).
+ * @param acao       O tipo de acesso.
+ * @param usuario    Usuário autenticado (ou "anonimo").
+ * @param ip         IP de origem da requisição (vazio fora de uma requisição HTTP).
+ * @param pacienteIds IDs dos pacientes lidos ou alterados (vazio em ações sem pacientes definidos, como a exportação).
+ * @param detalhe    Informação adicional (ex.: texto buscado, formato exportado); pode ser vazio.
+ */
+public record EventoAuditoria(long instante, Acao acao, String usuario, String ip, long[] pacienteIds, String detalhe) {
+
+    public enum Acao { LEITURA, LISTAGEM, BUSCA, EXPORTACAO, CRIACAO, ATUALIZACAO, REMOCAO }
+
+    /**
+     * @return true se o evento envolve o paciente informado.
+     */
+    public boolean envolve(long pacienteId) {
+        for (long id : pacienteIds) {
+            if (id == pacienteId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,99 @@
+package com.uninter.sghss.auditoria;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Formato binário dos arquivos de auditoria.
+ *
+ * Cada segmento começa com o marcador MAGICO (8 bytes) seguido de registros:
+ * [int tamanho][int crc32][payload de "tamanho" bytes]. O payload tem o instante (long), a ação (byte),
+ * usuário, IP e detalhe (short com o tamanho + UTF-8) e os IDs (int com a quantidade + longs).
+ *
+ * Um tamanho 0 marca o fim dos registros (o restante do segmento é preenchido com zeros).
+ * O tamanho é gravado por último, então um registro incompleto nunca aparece para os leitores;
+ * o CRC detecta registros corrompidos (ex.: queda de energia antes do fsync).
+ */
+final class FormatoAuditoria {
+
+    static final byte[] MAGICO = "SGHSSAU1".getBytes(StandardCharsets.US_ASCII);
+    static final int CABECALHO_REGISTRO = 8; // tamanho + crc
+    static final int MAX_TEXTO = 512; // Caracteres guardados de cada texto (o restante é descartado)
+    static final int MAX_IDS = 10_000; // Acima disso, o AuditoriaService divide o evento
+
+    private static final EventoAuditoria.Acao[] ACOES = EventoAuditoria.Acao.values();
+
+    private FormatoAuditoria() {}
+
+    /**
+     * Escreve o payload do evento no buffer, a partir da posição atual.
+     * @throws java.nio.BufferOverflowException se o buffer não comportar o evento.
+     * @throws IllegalArgumentException se o evento tiver mais que MAX_IDS pacientes.
+     */
+    static void codificar(EventoAuditoria evento, ByteBuffer destino) {
+        int quantidade = evento.pacienteIds().length;
+        if (quantidade > MAX_IDS) {
+            throw new IllegalArgumentException("Evento com " + quantidade + " IDs (máximo " + MAX_IDS + ").");
+        }
+        destino.putLong(evento.instante());
+        destino.put((byte) evento.acao().ordinal());
+        putTexto(destino, evento.usuario());
+        putTexto(destino, evento.ip());
+        putTexto(destino, evento.detalhe());
+        destino.putInt(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            destino.putLong(evento.pacienteIds()[i]);
+        }
+    }
+
+    /**
+     * Lê um payload completo (posição até o limite do buffer).
+     * @throws RuntimeException se o payload estiver malformado.
+     */
+    static EventoAuditoria decodificar(ByteBuffer origem) {
+        long instante = origem.getLong();
+        EventoAuditoria.Acao acao = ACOES[origem.get()];
+        String usuario = getTexto(origem);
+        String ip = getTexto(origem);
+        String detalhe = getTexto(origem);
+        int quantidade = origem.getInt();
+        if (quantidade < 0 || quantidade > MAX_IDS) {
+            throw new IllegalArgumentException("Quantidade de IDs inválida: " + quantidade);
+        }
+        long[] ids = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            ids[i] = origem.getLong();
+        }
+        return new EventoAuditoria(instante, acao, usuario, ip, ids, detalhe);
+    }
+
+    /**
+     * CRC32 dos bytes do buffer entre a posição e o limite (sem alterar a posição).
+     */
+    static int crc(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static void putTexto(ByteBuffer destino, String texto) {
+        if (texto == null) {
+            destino.putShort((short) 0);
+            return;
+        }
+        if (texto.length() > MAX_TEXTO) {
+            texto = texto.substring(0, MAX_TEXTO);
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8); // No máximo 3 bytes por caractere: cabe em um short
+        destino.putShort((short) bytes.length);
+        destino.put(bytes);
+    }
+
+    private static String getTexto(ByteBuffer origem) {
+        int tamanho = origem.getShort() & 0xFFFF;
+        byte[] bytes = new byte[tamanho];
+        origem.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package com.uninter.sghss.auditoria;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Lê os segmentos de auditoria gravados pelo EscritorAuditoria, em ordem de gravação.
+ *
+ * Pode ser usado com a aplicação no ar: o segmento atual é lido até o último registro completo.
+ * A leitura de um segmento para no marcador de fim ou no primeiro registro com CRC inválido.
+ */
+public final class LeitorAuditoria {
+
+    private LeitorAuditoria() {}
+
+    /**
+     * Segmentos do diretório, do mais antigo para o mais recente.
+     */
+    public static List<Path> segmentos(Path diretorio) throws IOException {
+        if (!Files.isDirectory(diretorio)) {
+            return List.of();
+        }
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(arquivo -> {
+                        String nome = arquivo.getFileName().toString();
+                        return nome.startsWith(EscritorAuditoria.PREFIXO) && nome.endsWith(EscritorAuditoria.SUFIXO);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Entrega ao consumidor, em ordem, os eventos de todos os segmentos que atendem ao filtro.
+     * @return Quantos registros corrompidos (CRC inválido) interromperam a leitura de um segmento.
+     */
+    public static int ler(Path diretorio, Predicate<EventoAuditoria> filtro, Consumer<EventoAuditoria> consumidor)
+            throws IOException {
+        int corrompidos = 0;
+        for (Path segmento : segmentos(diretorio)) {
+            if (!lerSegmento(segmento, filtro, consumidor)) {
+                corrompidos++;
+            }
+        }
+        return corrompidos;
+    }
+
+    /**
+     * @return false se a leitura parou em um registro corrompido.
+     */
+    static boolean lerSegmento(Path arquivo, Predicate<EventoAuditoria> filtro, Consumer<EventoAuditoria> consumidor)
+            throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            byte[] magico = new byte[FormatoAuditoria.MAGICO.length];
+            if (buffer.remaining() < magico.length) {
+                return true; // Segmento recém-criado
+            }
+            buffer.get(magico);
+            if (!Arrays.equals(magico, FormatoAuditoria.MAGICO)) {
+                throw new IOException("Arquivo não é um segmento de auditoria: " + arquivo);
+            }
+            while (buffer.remaining() >= FormatoAuditoria.CABECALHO_REGISTRO) {
+                int inicio = buffer.position();
+                int tamanho = buffer.getInt(inicio);
+                if (tamanho == 0) {
+                    return true; // Fim dos registros
+                }
+                if (tamanho < 0 || tamanho > buffer.remaining() - FormatoAuditoria.CABECALHO_REGISTRO) {
+                    return false;
+                }
+                int crc = buffer.getInt(inicio + 4);
+                ByteBuffer payload = buffer.duplicate()
+                        .position(inicio + FormatoAuditoria.CABECALHO_REGISTRO)
+                        .limit(inicio + FormatoAuditoria.CABECALHO_REGISTRO + tamanho);
+                if (FormatoAuditoria.crc(payload) != crc) {
+                    return false;
+                }
+                EventoAuditoria evento;
+                try {
+                    evento = FormatoAuditoria.decodificar(payload);
+                } catch (RuntimeException e) {
+                    return false;
+                }
+                if (filtro.test(evento)) {
+                    consumidor.accept(evento);
+                }
+                buffer.position(inicio + FormatoAuditoria.CABECALHO_REGISTRO + tamanho);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.uninter.sghss.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uninter.sghss.dto.CampoPaciente;
+import com.uninter.sghss.dto.PaginaCursorDTO;
+import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.service.PacienteService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aquecimento antes de a instância receber tráfego (app.aquecimentoEnabled, ligado no perfil "prod").
+ *
+ * Roda como ApplicationRunner, depois do seed: o Spring Boot só publica a prontidão (/actuator/health/readiness)
+ * depois dos runners e dos listeners de ApplicationReadyEvent (índices em memória). Assim, o balanceador só manda
+ * requisições quando os caminhos mais usados já foram carregados, inicializados e compilados pelo JIT:
+ * - JWT: geração e verificação de tokens de um usuário sintético (tokens diferentes, para não cair no cache);
+ * - Jackson: serialização de páginas de pacientes e leitura de um paciente, em JSON e em CBOR;
+ * - banco: listagem (completa e resumida), total e buscas por ID, versão e CPF, pelo PacienteService.
+ *
+ * Só faz leituras: nada é gravado no banco. Cada etapa para em app.aquecimentoMaxMs, mesmo sem completar
+ * as iterações. A duração total fica na métrica application.warmup.time.
+ */
+@Component
+@ConditionalOnProperty(name = "app.aquecimentoEnabled", havingValue = "true")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class AquecimentoInicial implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(AquecimentoInicial.class);
+
+    private static final int PACIENTES_POR_PAGINA = 50;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.aquecimentoIteracoes:10000}") // Iterações de JWT e Jackson (só CPU)
+    private int iteracoes;
+
+    @Value("${app.aquecimentoIteracoesBanco:500}") // Iterações das consultas ao banco
+    private int iteracoesBanco;
+
+    @Value("${app.aquecimentoMaxMs:20000}") // Tempo máximo de cada etapa
+    private long maxMs;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long inicio = System.nanoTime();
+        long jwt = etapa(iteracoes, this::jwt);
+        long json = etapa(iteracoes, this::json);
+        long banco = etapa(iteracoesBanco, this::banco);
+        long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        // Os tokens sintéticos não devem ocupar o cache dos tokens de verdade
+        tokenProvider.esquecerTokensVerificados();
+        TimeGauge.builder("application.warmup.time", () -> totalMs, TimeUnit.MILLISECONDS)
+                .description("Duração do aquecimento feito antes de a aplicação ficar pronta")
+                .register(meterRegistry);
+        log.info("Aquecimento concluído em {} ms (jwt: {} ms, json: {} ms, banco: {} ms).", totalMs, jwt, json, banco);
+    }
+
+    @FunctionalInterface
+    private interface Iteracao {
+        void executar(int i) throws Exception;
+    }
+
+    /**
+     * Executa as iterações até completá-las ou até app.aquecimentoMaxMs.
+     * @return A duração da etapa, em milissegundos.
+     */
+    private long etapa(int quantidade, Iteracao iteracao) throws Exception {
+        long inicio = System.nanoTime();
+        long limite = inicio + TimeUnit.MILLISECONDS.toNanos(maxMs);
+        for (int i = 0; i < quantidade && System.nanoTime() < limite; i++) {
+            iteracao.executar(i);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+    }
+
+    private void jwt(int i) {
+        UserDetails usuario = User.withUsername("aquecimento" + i).password("").authorities("ROLE_USER").build();
+        String token = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
+        if (tokenProvider.getClaimsFromJWT(token) == null) {
+            throw new IllegalStateException("O token gerado no aquecimento não foi aceito.");
+        }
+    }
+
+    private void json(int i) throws Exception {
+        List<Paciente> pacientes = new ArrayList<>(PACIENTES_POR_PAGINA);
+        for (int p = 0; p < PACIENTES_POR_PAGINA; p++) {
+            long id = (long) i * PACIENTES_POR_PAGINA + p + 1;
+            Paciente paciente = new Paciente("Paciente Aquecimento " + id, String.format("%011d", id), "aquecimento" + id + "@email.com");
+            paciente.setId(id);
+            paciente.setTelefone("41999990000");
+            paciente.setEndereco("Rua das Acácias, " + p + " - Curitiba/PR");
+            paciente.setVersao(0L);
+            pacientes.add(paciente);
+        }
+        PaginaCursorDTO<Paciente> pagina = new PaginaCursorDTO<>(pacientes, PaginaCursorDTO.encodeCursor((long) i));
+        for (ObjectMapper mapper : List.of(objectMapper, cborConverter.getObjectMapper())) {
+            mapper.writeValueAsBytes(pagina);
+            mapper.readValue(mapper.writeValueAsBytes(pacientes.get(0)), Paciente.class);
+        }
+    }
+
+    private void banco(int i) {
+        Set<CampoPaciente> campos = EnumSet.of(CampoPaciente.ID, CampoPaciente.NOME);
+        PaginaCursorDTO<Paciente> pagina = pacienteService.findPage(null, null);
+        pacienteService.findPage(null, null, campos);
+        pacienteService.count();
+        Paciente existente = pagina.getItens().isEmpty() ? null : pagina.getItens().get(i % pagina.getItens().size());
+        long id = existente == null ? 0L : existente.getId();
+        pacienteService.findById(id);
+        pacienteService.findById(id, campos);
+        pacienteService.findVersaoById(id);
+        pacienteService.findByCpf(existente == null ? "00000000000" : existente.getCpf());
+    }
+}
@@ -0,0 +1,27 @@
+package com.uninter.sghss.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Formato binário CBOR (application/cbor) para a API, negociado pelos cabeçalhos Accept e Content-Type.
+ *
+ * Os mesmos objetos (Paciente, DTOs de autenticação...) são lidos e escritos em CBOR com as mesmas
+ * configurações do Jackson usadas no JSON. O JSON continua sendo o padrão: o CBOR só é usado
+ * quando o cliente pede Accept: application/cbor ou envia Content-Type: application/cbor.
+ */
+@Configuration
+public class CborConfig {
+
+    /**
+     * Conversor CBOR montado com o Jackson2ObjectMapperBuilder do Spring Boot (um novo builder por injeção).
+     * Substitui o conversor CBOR padrão do Spring MVC, que vem depois do JSON na ordem de negociação.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
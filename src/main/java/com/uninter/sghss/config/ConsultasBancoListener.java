@@ -0,0 +1,70 @@
+package com.uninter.sghss.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Conta as instruções JDBC executadas pelo Hibernate e o tempo gasto nelas, por thread.
+ *
+ * Registrado em todas as sessões pela propriedade hibernate.session.events.auto (application.properties).
+ * O MetricasRequisicaoFilter zera o contador no início de cada requisição e publica os valores no fim.
+ * O contador é um objeto mutável por thread, reaproveitado entre requisições (sem alocação por consulta).
+ */
+public class ConsultasBancoListener implements SessionEventListener {
+
+    private static final ThreadLocal<Contador> CONTADOR = ThreadLocal.withInitial(Contador::new);
+
+    /**
+     * Consultas e tempo acumulados na thread atual desde o último zerar().
+     */
+    public static final class Contador {
+        private long consultas;
+        private long nanos;
+        private long inicio;
+
+        public long getConsultas() {
+            return consultas;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public void zerar() {
+            consultas = 0;
+            nanos = 0;
+        }
+
+        private void iniciar() {
+            inicio = System.nanoTime();
+        }
+
+        private void terminar() {
+            consultas++;
+            nanos += System.nanoTime() - inicio;
+        }
+    }
+
+    public static Contador contadorAtual() {
+        return CONTADOR.get();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        CONTADOR.get().iniciar();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        CONTADOR.get().terminar();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        CONTADOR.get().iniciar();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        CONTADOR.get().terminar(); // Um lote JDBC conta como uma ida ao banco
+    }
+}
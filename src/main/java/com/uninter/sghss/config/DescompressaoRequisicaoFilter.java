@@ -0,0 +1,194 @@
+package com.uninter.sghss.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Aceita corpos de requisição comprimidos (Content-Encoding: gzip) na importação em massa de pacientes.
+ *
+ * O corpo é descomprimido em streaming enquanto o controller lê as linhas, sem passar por um buffer.
+ * Como poucos bytes comprimidos podem gerar muitos descomprimidos, a leitura é interrompida acima de
+ * app.requestGzipMaxBytes com CorpoMuitoGrandeException (413 na importação); um corpo que não é gzip válido
+ * gera IOException (400). Os demais endpoints não são afetados.
+ */
+@Component
+public class DescompressaoRequisicaoFilter extends OncePerRequestFilter {
+
+    private static final String CAMINHO_BULK = "/api/pacientes/bulk";
+
+    @Value("${app.requestGzipMaxBytes:67108864}") // Tamanho máximo do corpo descomprimido (padrão 64 MB)
+    private long maxBytes;
+
+    /**
+     * O corpo descomprimido passou de app.requestGzipMaxBytes.
+     */
+    public static class CorpoMuitoGrandeException extends IOException {
+
+        public CorpoMuitoGrandeException(long maxBytes) {
+            super("Corpo descomprimido maior que " + maxBytes + " bytes.");
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return encoding == null
+                || !(encoding.equalsIgnoreCase("gzip") || encoding.equalsIgnoreCase("x-gzip"))
+                || !request.getRequestURI().equals(request.getContextPath() + CAMINHO_BULK);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(new RequisicaoDescomprimida(request, maxBytes), response);
+    }
+
+    /**
+     * Requisição com o corpo descomprimido; o tamanho e o Content-Encoding originais deixam de ser expostos.
+     */
+    private static final class RequisicaoDescomprimida extends HttpServletRequestWrapper {
+
+        private final long maxBytes;
+        private ServletInputStream corpo;
+
+        RequisicaoDescomprimida(HttpServletRequest request, long maxBytes) {
+            super(request);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (corpo == null) {
+                corpo = new CorpoDescomprimido(super.getInputStream(), maxBytes);
+            }
+            return corpo;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1L;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return oculto(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return oculto(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !oculto(name))
+                    .toList());
+        }
+
+        private static boolean oculto(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    /**
+     * Corpo descomprimido com limite de tamanho. O cabeçalho gzip só é lido na primeira leitura,
+     * para que um corpo inválido gere IOException no controller (400) e não na resolução dos parâmetros.
+     */
+    private static final class CorpoDescomprimido extends ServletInputStream {
+
+        private final InputStream comprimido;
+        private final long maxBytes;
+        private InputStream gzip;
+        private long lidos;
+        private boolean fim;
+
+        CorpoDescomprimido(InputStream comprimido, long maxBytes) {
+            this.comprimido = comprimido;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = gzip().read();
+            contar(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = gzip().read(buffer, off, len);
+            contar(n);
+            return n;
+        }
+
+        private InputStream gzip() throws IOException {
+            if (gzip == null) {
+                gzip = new GZIPInputStream(comprimido, 8192);
+            }
+            return gzip;
+        }
+
+        private void contar(int n) throws IOException {
+            if (n < 0) {
+                fim = true;
+                return;
+            }
+            lidos += n;
+            if (lidos > maxBytes) {
+                throw new CorpoMuitoGrandeException(maxBytes);
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return fim;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Leitura assíncrona não suportada para corpos comprimidos.");
+        }
+
+        @Override
+        public void close() throws IOException {
+            (gzip != null ? gzip : comprimido).close();
+        }
+    }
+}
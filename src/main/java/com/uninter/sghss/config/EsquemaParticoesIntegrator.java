@@ -0,0 +1,70 @@
+package com.uninter.sghss.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.TargetType;
+import org.hibernate.tool.schema.internal.ExceptionHandlerLoggedImpl;
+import org.hibernate.tool.schema.spi.ContributableMatcher;
+import org.hibernate.tool.schema.spi.ExecutionOptions;
+import org.hibernate.tool.schema.spi.SchemaManagementTool;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.hibernate.tool.schema.spi.SchemaMigrator;
+import org.hibernate.tool.schema.spi.ScriptTargetOutput;
+import org.hibernate.tool.schema.spi.TargetDescriptor;
+
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Aplica o spring.jpa.hibernate.ddl-auto=update também nas partições 1 em diante (ver ParticoesConfig).
+ *
+ * O Hibernate só cria e atualiza as tabelas do banco em que ele conecta sem partição escolhida, a partição 0.
+ * Este integrador recebe o modelo já montado ao criar a SessionFactory e roda a mesma migração do esquema
+ * (SchemaMigrator do SchemaManagementTool, o que o ddl-auto=update usa) em cada uma das outras partições. Em ambientes com o esquema gerenciado por migrações (ddl-auto=validate ou none),
+ * não é registrado: as migrações devem ser aplicadas em todas as partições.
+ */
+public class EsquemaParticoesIntegrator implements Integrator {
+
+    private final int particoes;
+
+    public EsquemaParticoesIntegrator(int particoes) {
+        this.particoes = particoes;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        ServiceRegistry registry = sessionFactory.getServiceRegistry();
+        Map<String, Object> configuracao = registry.requireService(ConfigurationService.class).getSettings();
+        SchemaMigrator migrador = registry.requireService(SchemaManagementTool.class).getSchemaMigrator(configuracao);
+        ExecutionOptions opcoes = SchemaManagementToolCoordinator.buildExecutionOptions(
+                configuracao, ExceptionHandlerLoggedImpl.INSTANCE);
+        for (int particao = 1; particao < particoes; particao++) {
+            // Cada migração abre as suas conexões pelo DataSource, que as direciona para a partição escolhida
+            ParticoesDataSource.naParticao(particao, () -> {
+                migrador.doMigration(metadata, opcoes, ContributableMatcher.ALL, SOMENTE_BANCO);
+                return null;
+            });
+        }
+    }
+
+    private static final TargetDescriptor SOMENTE_BANCO = new TargetDescriptor() {
+        @Override
+        public EnumSet<TargetType> getTargetTypes() {
+            return EnumSet.of(TargetType.DATABASE);
+        }
+
+        @Override
+        public ScriptTargetOutput getScriptTargetOutput() {
+            return null;
+        }
+    };
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.uninter.sghss.config;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.uninter.sghss.model.IdPaciente;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * IDs de pacientes em texto nas respostas, só com particionamento (app.shardsEnabled=true).
+ *
+ * Os IDs do GeradorIdsParticionados passam de 2^53 e, como número, seriam arredondados por clientes
+ * JavaScript. Sem particionamento, os IDs vêm da sequence e continuam números. O módulo vale para o JSON
+ * e para o CBOR (os dois usam o Jackson2ObjectMapperBuilder do Spring Boot) e muda todas as propriedades
+ * marcadas com @IdPaciente. No corpo das requisições, número e texto são aceitos nos dois modos.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.shardsEnabled", havingValue = "true")
+public class IdsPacienteJsonConfig {
+
+    @Bean
+    public Module idsPacienteEmTexto() {
+        return new SimpleModule("IdsPacienteEmTexto").setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription descricao,
+                                                             List<BeanPropertyWriter> propriedades) {
+                for (BeanPropertyWriter propriedade : propriedades) {
+                    if (propriedade.getAnnotation(IdPaciente.class) != null) {
+                        propriedade.assignSerializer(ToStringSerializer.instance);
+                    }
+                }
+                return propriedades;
+            }
+        });
+    }
+}
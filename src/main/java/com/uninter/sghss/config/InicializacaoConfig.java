@@ -0,0 +1,28 @@
+package com.uninter.sghss.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Inicialização preguiçosa dos beans (spring.main.lazy-initialization, ligada no perfil "prod").
+ *
+ * Com ela, cada bean só é criado no primeiro uso: controllers, serviços e repositórios do caminho das
+ * requisições são criados pelo AquecimentoInicial, antes da prontidão, e o resto (exportação, importação,
+ * consulta da auditoria...) só quando for usado. Beans com tarefas @Scheduled são a exceção: sem uso
+ * direto, nunca seriam criados, e as tarefas (ex.: recarga das versões de token, heartbeat do feed)
+ * nunca rodariam.
+ */
+@Configuration
+public class InicializacaoConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter beansComTarefasAgendadas() {
+        return (nome, definicao, tipo) -> tipo != null && !MethodIntrospector.selectMethods(tipo,
+                (MethodIntrospector.MetadataLookup<Scheduled>) metodo ->
+                        AnnotatedElementUtils.findMergedAnnotation(metodo, Scheduled.class)).isEmpty();
+    }
+}
@@ -1,13 +1,23 @@
 package com.uninter.sghss.config;
 
+import com.uninter.sghss.model.Usuario;
 import com.uninter.sghss.service.AuthService;
+import com.uninter.sghss.service.TokenVersionService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -15,46 +25,131 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 
 @Component // Marca a classe como um componente Spring para injeção de dependência
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     @Autowired
     private JwtTokenProvider tokenProvider; // Injeta o provedor de token JWT
 
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.jwtStatelessPrincipal:false}") // Se true, não consulta o banco para montar o principal
+    private boolean statelessPrincipal;
+
+    // Tempo gasto no filtro (verificação do token e carga do principal), por resultado (métrica jwt.filter)
+    private Timer semToken;
+    private Timer autenticado;
+    private Timer invalido;
+    private Timer revogado;
+    private Timer erro;
+
+    @PostConstruct
+    public void init() {
+        semToken = timer("sem_token");
+        autenticado = timer("autenticado");
+        invalido = timer("invalido");
+        revogado = timer("revogado");
+        erro = timer("erro");
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        Timer resultado = semToken;
         try {
             String jwt = getJwtFromRequest(request);
 
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromJWT(jwt);
-
+            // Verifica o token uma única vez (com cache) e reaproveita as claims
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.getClaimsFromJWT(jwt) : null;
+            if (claims == null && jwt != null) {
+                resultado = invalido;
+            }
+            if (claims != null) {
+                String username = claims.getSubject();
 
-                UserDetails userDetails = authService.loadUserByUsername(username);
 
+                // No modo stateless o principal vem das próprias claims, sem consulta ao banco
+                UserDetails userDetails = statelessPrincipal && claims.get(JwtTokenProvider.CLAIM_USER_ID) != null
+                        ? buildPrincipalFromClaims(username, claims)
+                        : authService.loadUserByUsername(username);
 
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                if (isTokenRevoked(claims, userDetails)) {
+                    log.warn("Token JWT revogado.");
+                    resultado = revogado;
+                } else {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    resultado = autenticado;
+                }
             }
         } catch (Exception ex) {
+            resultado = erro;
 
-            System.err.println("Não foi possível definir a autenticação do usuário no contexto de segurança: " + ex.getMessage());
+            log.warn("Não foi possível definir a autenticação do usuário no contexto de segurança: {}",
+                    ex.getMessage());
         }
 
+        resultado.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+
         filterChain.doFilter(request, response);
     }
 
+    private Timer timer(String resultado) {
+        return Timer.builder("jwt.filter")
+                .description("Tempo de autenticação por token no JwtAuthenticationFilter")
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Monta o principal a partir das claims "sub" e "roles" do token (modo app.jwtStatelessPrincipal).
+     */
+    private UserDetails buildPrincipalFromClaims(String username, Claims claims) {
+        List<?> roles = claims.get(JwtTokenProvider.CLAIM_AUTHORITIES, List.class);
+        String[] authorities = roles == null
+                ? new String[0]
+                : roles.stream().map(String::valueOf).toArray(String[]::new);
+        return User.withUsername(username)
+                .password("") // A senha não é necessária após a autenticação por token
+                .authorities(authorities)
+                .build();
+    }
+
+    /**
+     * Verifica se a versão de token gravada na claim "ver" foi revogada.
+     * Com o usuário carregado do banco, compara com a versão atual dele; no modo stateless,
+     * consulta a tabela de versões em memória (TokenVersionService).
+     */
+    private boolean isTokenRevoked(Claims claims, UserDetails userDetails) {
+        Integer versao = claims.get(JwtTokenProvider.CLAIM_TOKEN_VERSION, Integer.class);
+        int versaoToken = versao != null ? versao : 0;
+        if (userDetails instanceof Usuario usuario) {
+            return versaoToken < usuario.getTokenVersion();
+        }
+        Long userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class);
+        return userId != null && !tokenVersionService.isCurrent(userId, versaoToken);
+    }
 
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
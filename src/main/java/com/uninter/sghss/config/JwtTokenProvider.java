@@ -1,24 +1,44 @@
 package com.uninter.sghss.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.uninter.sghss.model.Usuario;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Este utilitário é para gerar e validar JSON Web Tokens (JWTs).
  * A chave secreta e o tempo de expiração são configuráveis no application.properties.
  *
+ * A chave HMAC e o parser são criados uma única vez na inicialização (ambos são imutáveis e thread-safe).
+ * Tokens já verificados ficam em um cache limitado (app.jwtCacheMaxSize) até o seu vencimento,
+ * de modo que requisições repetidas com o mesmo token não refazem a verificação da assinatura.
+ *
  * Se encontrar algum erro durante a execução como "Cannot resolve method 'parserBuilder' in 'Jwts'",
  * isso geralmente indica uma versão desatualizada da dependência JJWT.
  * Certifique-se de que as versões de 'jjwt-api', 'jjwt-impl' e 'jjwt-jackson' no seu pom.xml
@@ -27,12 +47,47 @@ import java.util.Date;
 @Component
 public class JwtTokenProvider {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_AUTHORITIES = "roles";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${app.jwtSecret}") // Chave secreta para assinar o JWT (definida em application.properties)
     private String jwtSecret;
 
     @Value("${app.jwtExpirationInMs}") // Tempo de expiração do JWT em milissegundos
     private int jwtExpirationInMs;
 
+    @Value("${app.jwtCacheMaxSize:10000}") // Quantidade máxima de tokens verificados mantidos em cache
+    private long jwtCacheMaxSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Publica os contadores de acerto/falha do cache em /actuator/metrics
+
+    @Autowired
+    private MetricasErros metricasErros; // Conta os tokens recusados por causa (sghss.errors, origem "jwt")
+
+    private SecretKey key;
+    private JwtParser jwtParser;
+    private Cache<String, Claims> tokensVerificados;
+
+    /**
+     * Pré-calcula a chave e o parser e cria o cache de tokens verificados.
+     * Cada entrada expira junto com o próprio token (claim "exp").
+     */
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes()); // Gera a chave a partir da string secreta
+        jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(jwtCacheMaxSize)
+                .expireAfter(new ExpiraComOToken())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokensVerificados, "jwtTokens");
+    }
+
     /**
      * Gera um token JWT para um usuário autenticado.
      * @param authentication O objeto Authentication contendo os detalhes do usuário.
@@ -44,30 +99,61 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes()); // Gera a chave a partir da string secreta
+        // Claims usadas pelo modo de principal stateless (app.jwtStatelessPrincipal):
+        // id do usuário, authorities e versão de token (para revogação)
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_AUTHORITIES, userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        if (userPrincipal instanceof Usuario usuario) {
+            claims.put(CLAIM_USER_ID, usuario.getId());
+            claims.put(CLAIM_TOKEN_VERSION, usuario.getTokenVersion());
+        }
 
         return Jwts.builder()
+                .setClaims(claims)
                 .setSubject(userPrincipal.getUsername()) // Define o assunto do token (username)
-                .setIssuedAt(new Date()) // Data de emissão
+                .setIssuedAt(now) // Data de emissão
                 .setExpiration(expiryDate) // Data de expiração
                 .signWith(key, SignatureAlgorithm.HS512) // Assina o token com a chave e algoritmo HS512
                 .compact();
     }
 
+    /**
+     * Verifica o token uma única vez e devolve as suas claims.
+     * Este é o caminho usado pelo filtro JWT: substitui a chamada a validateToken seguida de getUsernameFromJWT.
+     * @param authToken O token JWT.
+     * @return As claims do token, ou null se o token for inválido ou estiver expirado.
+     */
+    public Claims getClaimsFromJWT(String authToken) {
+        try {
+            return verificar(authToken);
+        } catch (io.jsonwebtoken.security.SignatureException ex) {
+            log.warn("Assinatura JWT inválida.");
+            metricasErros.registrar("jwt", "assinatura_invalida");
+        } catch (MalformedJwtException ex) {
+            log.warn("Token JWT inválido.");
+            metricasErros.registrar("jwt", "malformado");
+        } catch (ExpiredJwtException ex) {
+            log.warn("Token JWT expirado.");
+            metricasErros.registrar("jwt", "expirado");
+        } catch (UnsupportedJwtException ex) {
+            log.warn("Token JWT não suportado.");
+            metricasErros.registrar("jwt", "nao_suportado");
+        } catch (IllegalArgumentException ex) {
+            log.warn("Cadeia de claims JWT vazia.");
+            metricasErros.registrar("jwt", "vazio");
+        }
+        return null;
+    }
+
     /**
      * Obtém o nome de usuário (subject) de um token JWT.
      * @param token O token JWT.
      * @return O nome de usuário extraído do token.
      */
     public String getUsernameFromJWT(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
+        return verificar(token).getSubject();
     }
 
     /**
@@ -76,21 +162,66 @@ public class JwtTokenProvider {
      * @return true se o token for válido, false caso contrário.
      */
     public boolean validateToken(String authToken) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
-            return true;
-        } catch (io.jsonwebtoken.security.SignatureException ex) {
-            System.err.println("Assinatura JWT inválida.");
-        } catch (MalformedJwtException ex) {
-            System.err.println("Token JWT inválido.");
-        } catch (ExpiredJwtException ex) {
-            System.err.println("Token JWT expirado.");
-        } catch (UnsupportedJwtException ex) {
-            System.err.println("Token JWT não suportado.");
-        } catch (IllegalArgumentException ex) {
-            System.err.println("Cadeia de claims JWT vazia.");
+        return getClaimsFromJWT(authToken) != null;
+    }
+
+    /**
+     * Estatísticas do cache de tokens verificados (acertos, falhas, remoções).
+     * @return Um snapshot das estatísticas do cache.
+     */
+    public CacheStats getCacheStats() {
+        return tokensVerificados.stats();
+    }
+
+    /**
+     * Descarta todos os tokens verificados do cache (ex.: os tokens sintéticos do AquecimentoInicial).
+     */
+    void esquecerTokensVerificados() {
+        tokensVerificados.invalidateAll();
+    }
+
+    /**
+     * Consulta o cache de tokens verificados e, em caso de falha, verifica a assinatura com o parser pré-construído.
+     * Apenas tokens válidos entram no cache.
+     */
+    private Claims verificar(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("Token JWT vazio.");
+        }
+        Claims claims = tokensVerificados.getIfPresent(token);
+        if (claims == null) {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+            tokensVerificados.put(token, claims);
+        }
+        return claims;
+    }
+
+    private Duration tempoRestante(Claims claims) {
+        Date expiracao = claims.getExpiration();
+        long restanteMs = expiracao != null
+                ? expiracao.getTime() - System.currentTimeMillis()
+                : jwtExpirationInMs;
+        return Duration.ofMillis(Math.max(restanteMs, 0));
+    }
+
+    /**
+     * Expiração das entradas do cache: definida na criação pelo vencimento do token e mantida nas leituras.
+     */
+    private class ExpiraComOToken implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            return tempoRestante(claims).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
-        return false;
     }
-}
\ No newline at end of file
+}
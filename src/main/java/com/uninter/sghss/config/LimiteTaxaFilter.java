@@ -0,0 +1,186 @@
+package com.uninter.sghss.config;
+
+import com.uninter.sghss.util.LimitadorTaxa;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite de requisições por usuário e por IP (token bucket, ver LimitadorTaxa), registrado na cadeia
+ * do Spring Security logo após o JwtAuthenticationFilter.
+ *
+ * Há três grupos de endpoints, cada um com a sua taxa e rajada (app.rateLimit*):
+ * - auth: /api/auth/**, limitado por IP, com folga para uma rede inteira atrás de um NAT (protege o BCrypt
+ *   de login/registro contra inundação); cada usuário tem ainda o seu limite por IP (ver tentarAutenticar);
+ * - leitura: GET/HEAD nos demais endpoints e a busca por vários IDs (POST /api/pacientes/batch-get),
+ *   limitado pelo usuário do token (ou pelo IP, sem token);
+ * - escrita: os demais métodos, com a mesma chave da leitura.
+ *
+ * Acima do limite a resposta é 429 com Retry-After, sem consultar o banco nem chegar ao controller.
+ * O IP é o request.getRemoteAddr(); atrás de um proxy, configure server.forward-headers-strategy.
+ * Recusas por grupo ficam na métrica rate.limit.rejected.
+ */
+@Component
+public class LimiteTaxaFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.rateLimitEnabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rateLimitAuthPorSegundo:5}") // Por IP: todos os usuários atrás do mesmo NAT
+    private double authPorSegundo;
+
+    @Value("${app.rateLimitAuthRajada:50}")
+    private int authRajada;
+
+    @Value("${app.rateLimitAuthUsuarioPorSegundo:0.5}") // Por usuário e IP: tentativas de senha de uma conta
+    private double authUsuarioPorSegundo;
+
+    @Value("${app.rateLimitAuthUsuarioRajada:10}")
+    private int authUsuarioRajada;
+
+    @Value("${app.rateLimitLeituraPorSegundo:50}")
+    private double leituraPorSegundo;
+
+    @Value("${app.rateLimitLeituraRajada:100}")
+    private int leituraRajada;
+
+    @Value("${app.rateLimitEscritaPorSegundo:10}")
+    private double escritaPorSegundo;
+
+    @Value("${app.rateLimitEscritaRajada:20}")
+    private int escritaRajada;
+
+    private Grupo auth;
+    private Grupo authUsuario;
+    private Grupo leitura;
+    private Grupo escrita;
+
+    @PostConstruct
+    public void init() {
+        auth = new Grupo("auth", authPorSegundo, authRajada);
+        authUsuario = new Grupo("auth_usuario", authUsuarioPorSegundo, authUsuarioRajada);
+        leitura = new Grupo("leitura", leituraPorSegundo, leituraRajada);
+        escrita = new Grupo("escrita", escritaPorSegundo, escritaRajada);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Grupo grupo;
+        String chave;
+        if (request.getRequestURI().startsWith(request.getContextPath() + "/api/auth/")) {
+            grupo = auth;
+            chave = request.getRemoteAddr();
+        } else {
+            String metodo = request.getMethod();
+            boolean leituraPorPost = "POST".equals(metodo)
+                    && request.getRequestURI().equals(request.getContextPath() + "/api/pacientes/batch-get");
+            grupo = "GET".equals(metodo) || "HEAD".equals(metodo) || leituraPorPost ? leitura : escrita;
+            chave = chaveDoUsuario(request);
+        }
+
+        long espera = grupo.limitador.tentarConsumir(chave, System.nanoTime());
+        if (espera > 0) {
+            grupo.recusas.increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos(espera)));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Limite de login/registro por usuário e IP, consultado pelo AuthController (o username só é conhecido
+     * depois da leitura do corpo). Segura a força bruta contra uma conta sem que as pessoas atrás do mesmo
+     * NAT dividam um único limite.
+     * @return 0 se a tentativa foi aceita; senão, quantos nanossegundos faltam para a próxima.
+     */
+    public long tentarAutenticar(String username, String ip) {
+        if (!enabled) {
+            return 0L;
+        }
+        String chave = String.valueOf(username).toLowerCase(Locale.ROOT) + "@" + ip;
+        long espera = authUsuario.limitador.tentarConsumir(chave, System.nanoTime());
+        if (espera > 0) {
+            authUsuario.recusas.increment();
+        }
+        return espera;
+    }
+
+    /**
+     * Valor do Retry-After para uma espera em nanossegundos: segundos inteiros, arredondados para cima.
+     */
+    public static long retryAfterSegundos(long esperaNanos) {
+        return Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Usuário autenticado pelo JwtAuthenticationFilter ou, sem token válido, o IP de origem.
+     */
+    private String chaveDoUsuario(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "u:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Descarta os baldes ociosos (já cheios de novo), para que a memória acompanhe só os clientes ativos.
+     */
+    @Scheduled(initialDelayString = "${app.rateLimitCleanupMs:60000}", fixedDelayString = "${app.rateLimitCleanupMs:60000}")
+    public void removerBaldesOciosos() {
+        if (auth == null) {
+            return;
+        }
+        long agora = System.nanoTime();
+        auth.limitador.removerOciosos(agora);
+        authUsuario.limitador.removerOciosos(agora);
+        leitura.limitador.removerOciosos(agora);
+        escrita.limitador.removerOciosos(agora);
+    }
+
+    private final class Grupo {
+        private final LimitadorTaxa limitador;
+        private final Counter recusas;
+
+        Grupo(String nome, double porSegundo, int rajada) {
+            this.limitador = new LimitadorTaxa(porSegundo, rajada);
+            this.recusas = Counter.builder("rate.limit.rejected")
+                    .description("Requisições recusadas com 429 pelo limite de taxa")
+                    .tag("grupo", nome)
+                    .register(meterRegistry);
+            Gauge.builder("rate.limit.buckets", limitador, LimitadorTaxa::size)
+                    .description("Clientes com balde ativo no limite de taxa")
+                    .tag("grupo", nome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.uninter.sghss.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contadores de erros por origem e causa (métrica sghss.errors, tags origem e causa).
+ * Complementa os logs dos controllers e do JwtTokenProvider, que tratam as exceções
+ * sem propagá-las (por isso elas não aparecem na tag "exception" de http.server.requests).
+ */
+@Component
+public class MetricasErros {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Map<String, Counter>> contadores = new ConcurrentHashMap<>(); // origem -> causa -> contador
+
+    @Autowired
+    public MetricasErros(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Incrementa o contador de erros.
+     * @param origem Onde o erro foi tratado (ex.: "pacientes.create", "jwt").
+     * @param causa A causa do erro (ex.: "conflito", "expirado").
+     */
+    public void registrar(String origem, String causa) {
+        Map<String, Counter> porCausa = contadores.get(origem);
+        Counter contador = porCausa != null ? porCausa.get(causa) : null;
+        if (contador == null) {
+            contador = contadores.computeIfAbsent(origem, o -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(causa, c -> Counter.builder("sghss.errors")
+                            .description("Erros tratados pela aplicação, por origem e causa")
+                            .tags("origem", origem, "causa", c)
+                            .register(meterRegistry));
+        }
+        contador.increment();
+    }
+}
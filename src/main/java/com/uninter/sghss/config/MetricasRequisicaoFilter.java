@@ -0,0 +1,111 @@
+package com.uninter.sghss.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publica, por endpoint, quantas consultas ao banco cada requisição fez e quanto tempo passou nelas
+ * (http.server.requests.db.queries e http.server.requests.db.time, com as tags method e uri).
+ *
+ * Os medidores de cada endpoint são criados uma única vez e reaproveitados; no caminho da requisição
+ * só há leituras do relógio, um get no mapa e a gravação no histograma.
+ * Consultas feitas fora da thread da requisição (ex.: login no PasswordHashingExecutor) não entram na conta.
+ *
+ * Também publica application.first.request.time: o tempo desde o início da JVM até o fim da primeira
+ * requisição atendida fora do /actuator (as sondas de prontidão não contam), para comparar a inicialização
+ * com e sem o perfil "prod".
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class MetricasRequisicaoFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricasRequisicaoFilter.class);
+
+    private static final String URI_DESCONHECIDA = "UNKNOWN";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Map<String, Medidores>> medidores = new ConcurrentHashMap<>(); // uri -> method -> medidores
+    private final AtomicBoolean aguardandoPrimeira = new AtomicBoolean(true);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConsultasBancoListener.Contador contador = ConsultasBancoListener.contadorAtual();
+        contador.zerar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Medidores m = medidores(padrao instanceof String uri ? uri : URI_DESCONHECIDA, request.getMethod());
+            m.consultas.record(contador.getConsultas());
+            m.tempo.record(contador.getNanos(), TimeUnit.NANOSECONDS);
+            contador.zerar();
+            if (aguardandoPrimeira.get() && !request.getRequestURI().startsWith("/actuator")
+                    && aguardandoPrimeira.compareAndSet(true, false)) {
+                registrarPrimeiraRequisicao();
+            }
+        }
+    }
+
+    private void registrarPrimeiraRequisicao() {
+        long desdeInicioMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        TimeGauge.builder("application.first.request.time", () -> desdeInicioMs, TimeUnit.MILLISECONDS)
+                .description("Tempo desde o início da JVM até o fim da primeira requisição atendida")
+                .register(meterRegistry);
+        log.info("Primeira requisição atendida {} ms após o início da JVM.", desdeInicioMs);
+    }
+
+    private Medidores medidores(String uri, String method) {
+        Map<String, Medidores> porMetodo = medidores.get(uri);
+        if (porMetodo != null) {
+            Medidores m = porMetodo.get(method);
+            if (m != null) {
+                return m;
+            }
+        }
+        // Primeira requisição deste endpoint: cria os medidores (apenas uma vez)
+        return medidores.computeIfAbsent(uri, u -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, metodo -> new Medidores(meterRegistry, uri, metodo));
+    }
+
+    private static final class Medidores {
+        private final DistributionSummary consultas;
+        private final Timer tempo;
+
+        Medidores(MeterRegistry registry, String uri, String method) {
+            this.consultas = DistributionSummary.builder("http.server.requests.db.queries")
+                    .description("Consultas ao banco por requisição")
+                    .tags("uri", uri, "method", method)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.tempo = Timer.builder("http.server.requests.db.time")
+                    .description("Tempo gasto em consultas ao banco por requisição")
+                    .tags("uri", uri, "method", method)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.uninter.sghss.config;
+
+import com.uninter.sghss.model.PacienteIdGenerator;
+import com.uninter.sghss.util.GeradorIdsParticionados;
+import com.uninter.sghss.util.MapaParticoes;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Particionamento horizontal dos pacientes (app.shardsEnabled=true): substitui o DataSource do Spring Boot
+ * por um ParticoesDataSource, atrás de um LazyConnectionDataSourceProxy.
+ *
+ * A partição 0 é o banco de spring.datasource.* (e spring.datasource.hikari.*); as demais são as URLs de
+ * app.shardUrls, separadas por vírgula, com o mesmo driver e, por padrão, as mesmas credenciais.
+ * Os buckets de CPF são divididos igualmente entre as partições, ou seguem o arquivo app.shardMapa
+ * gravado pela ferramenta de rebalanceamento (RebalanceamentoParticoes). Qual partição atende cada
+ * operação é decidido pelo PacienteParticoes. Sem a propriedade, nada muda.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.shardsEnabled", havingValue = "true")
+public class ParticoesConfig {
+
+    private static final Set<String> DDL_ATUALIZA_ESQUEMA = Set.of("update", "create", "create-drop");
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource particao0DataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("particao-0");
+        return dataSource;
+    }
+
+    @Bean
+    public MapaParticoes mapaParticoes(@Value("${app.shardUrls}") String[] urls,
+                                       @Value("${app.shardMapa:}") String arquivo,
+                                       @Value("${app.replicasEnabled:false}") boolean replicasEnabled) {
+        if (replicasEnabled) {
+            throw new IllegalStateException("app.shardsEnabled e app.replicasEnabled não podem ser usados juntos.");
+        }
+        int particoes = 1 + (int) Arrays.stream(urls).filter(url -> !url.isBlank()).count();
+        MapaParticoes mapa = arquivo.isBlank() ? MapaParticoes.uniforme(particoes) : MapaParticoes.ler(Path.of(arquivo));
+        // Bancos além das partições do mapa são aceitos: recebem o esquema e ficam vazios até o rebalanceamento
+        if (mapa.getParticoes() > particoes) {
+            throw new IllegalStateException("O mapa de partições tem " + mapa.getParticoes()
+                    + " partições, mas há " + particoes + " bancos configurados.");
+        }
+        return mapa;
+    }
+
+    /**
+     * Gerador dos IDs de pacientes, registrado no PacienteIdGenerator antes da criação do EntityManagerFactory
+     * (o DataSource depende deste bean).
+     */
+    @Bean
+    public GeradorIdsParticionados geradorIdsPacientes(@Value("${app.shardInstancia:0}") int instancia) {
+        GeradorIdsParticionados gerador = new GeradorIdsParticionados(instancia);
+        PacienteIdGenerator.usarParticionado(gerador);
+        return gerador;
+    }
+
+    @Bean
+    public ParticoesDataSource particoesDataSource(HikariDataSource particao0DataSource,
+                                                   DataSourceProperties properties,
+                                                   GeradorIdsParticionados geradorIdsPacientes,
+                                                   @Value("${app.shardUrls}") String[] urls,
+                                                   @Value("${app.shardUsername:${spring.datasource.username:}}") String username,
+                                                   @Value("${app.shardPassword:${spring.datasource.password:}}") String password,
+                                                   @Value("${app.shardPoolSize:10}") int poolSize) {
+        List<DataSource> particoes = new ArrayList<>();
+        particoes.add(particao0DataSource);
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource particao = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            particao.setPoolName("particao-" + particoes.size());
+            particao.setMaximumPoolSize(poolSize);
+            particoes.add(particao);
+        }
+        return new ParticoesDataSource(particoes);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ParticoesDataSource particoesDataSource) {
+        return new LazyConnectionDataSourceProxy(particoesDataSource);
+    }
+
+    /**
+     * Cria e atualiza as tabelas das partições 1 em diante junto com as da partição 0 (ver EsquemaParticoesIntegrator).
+     */
+    @Bean
+    public HibernatePropertiesCustomizer esquemaParticoes(ParticoesDataSource particoesDataSource,
+                                                         @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return propriedades -> {
+            if (DDL_ATUALIZA_ESQUEMA.contains(ddlAuto)) {
+                // Chave lida pelo EntityManagerFactoryBuilderImpl do Hibernate
+                IntegratorProvider integradores =
+                        () -> List.of(new EsquemaParticoesIntegrator(particoesDataSource.getQuantidade()));
+                propriedades.put("hibernate.integrator_provider", integradores);
+            }
+        };
+    }
+}
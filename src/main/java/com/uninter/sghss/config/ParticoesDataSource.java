@@ -0,0 +1,85 @@
+package com.uninter.sghss.config;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que entrega conexões da partição escolhida para a thread atual (ver naParticao).
+ * Ativado com app.shardsEnabled (ver ParticoesConfig).
+ *
+ * Sem partição escolhida, a conexão é da partição 0, que também guarda as tabelas que não são
+ * particionadas (usuários). Como no RoteadorDataSource, deve ficar atrás de um LazyConnectionDataSourceProxy:
+ * a transação pode começar antes de a partição ser escolhida, e o proxy adia a escolha até o primeiro
+ * comando SQL. Uma transação usa uma única conexão: ela não pode ler ou gravar em duas partições.
+ */
+public class ParticoesDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticoesDataSource.class);
+
+    private static final ThreadLocal<Integer> PARTICAO = new ThreadLocal<>();
+
+    private final List<DataSource> particoes;
+
+    /**
+     * @param particoes Os pools das partições, na ordem do mapa de partições (a primeira é a partição 0).
+     */
+    public ParticoesDataSource(List<DataSource> particoes) {
+        this.particoes = List.copyOf(particoes);
+        Map<Object, Object> destinos = new HashMap<>();
+        for (int i = 0; i < particoes.size(); i++) {
+            destinos.put(i, particoes.get(i));
+        }
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(particoes.get(0));
+        setLenientFallback(false); // Uma partição inexistente é erro de configuração, não a partição 0
+        afterPropertiesSet();
+    }
+
+    /**
+     * Executa a operação com as conexões novas da thread vindo da partição informada,
+     * restaurando a partição anterior ao terminar.
+     */
+    public static <T> T naParticao(int particao, Supplier<T> operacao) {
+        Integer anterior = PARTICAO.get();
+        PARTICAO.set(particao);
+        try {
+            return operacao.get();
+        } finally {
+            if (anterior == null) {
+                PARTICAO.remove();
+            } else {
+                PARTICAO.set(anterior);
+            }
+        }
+    }
+
+    public int getQuantidade() {
+        return particoes.size();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return PARTICAO.get();
+    }
+
+    @PreDestroy
+    public void fechar() {
+        for (int i = 0; i < particoes.size(); i++) {
+            if (particoes.get(i) instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Erro ao fechar o pool da partição {}: {}", i, e.getMessage());
+                }
+            }
+        }
+    }
+}
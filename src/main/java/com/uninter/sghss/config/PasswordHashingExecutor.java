@@ -0,0 +1,93 @@
+package com.uninter.sghss.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool dedicado para o trabalho de BCrypt (login e registro), fora das threads do Tomcat.
+ *
+ * O BCrypt consome CPU de propósito; executado nas threads de requisição, um pico de logins
+ * (ex.: troca de turno) ocupa o pool do servlet e atrasa as demais rotas. Aqui o número de threads
+ * acompanha os núcleos (app.passwordHashingThreads) e a fila é limitada (app.passwordHashingQueueSize):
+ * com a fila cheia, submit lança RejectedExecutionException na hora e o controller responde 429,
+ * em vez de deixar a fila de espera crescer.
+ *
+ * A ocupação do pool e da fila fica em /actuator/metrics (executor.* com a tag name=passwordHashing).
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejeicoes;
+    private final Timer espera; // Tempo na fila até uma thread do pool começar a tarefa
+
+    @Value("${app.passwordHashingRetryAfterSeconds:1}") // Valor do cabeçalho Retry-After quando a fila está cheia
+    private int retryAfterSeconds;
+
+    @Autowired
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   @Value("${app.passwordHashingThreads:0}") int threads,
+                                   @Value("${app.passwordHashingQueueSize:100}") int queueSize) {
+        int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "passwordHashing", Tags.empty()).bindTo(meterRegistry);
+        this.rejeicoes = Counter.builder("password.hashing.rejected")
+                .description("Requisições de login/registro recusadas com a fila de BCrypt cheia")
+                .register(meterRegistry);
+        this.espera = Timer.builder("password.hashing.wait")
+                .description("Tempo de espera na fila do pool de BCrypt")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a tarefa no pool de BCrypt.
+     * @param tarefa A tarefa (ex.: autenticação ou registro, que calculam o hash da senha).
+     * @return Um CompletableFuture concluído na thread do pool.
+     * @throws RejectedExecutionException se a fila estiver cheia.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> tarefa) {
+        long enfileiradoEm = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                espera.record(System.nanoTime() - enfileiradoEm, TimeUnit.NANOSECONDS);
+                return tarefa.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejeicoes.increment();
+            throw e;
+        }
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
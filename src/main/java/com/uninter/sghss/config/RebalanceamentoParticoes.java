@@ -0,0 +1,190 @@
+package com.uninter.sghss.config;
+
+import com.uninter.sghss.util.MapaParticoes;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ferramenta de linha de comando para rebalancear as partições de pacientes (ver ParticoesConfig),
+ * por exemplo ao adicionar um banco. Deve rodar com a aplicação parada, e o banco novo já deve ter a tabela
+ * pacientes: com ddl-auto=update, basta subir a aplicação uma vez com a nova URL e o mapa atual
+ * (que a ferramenta grava, se ainda não existir); a partição nova fica vazia até o rebalanceamento.
+ *
+ * Uso (ver README):
+ * mvn -q compile exec:java -Dexec.mainClass=com.uninter.sghss.config.RebalanceamentoParticoes \
+ *   -Dexec.args="--urls=jdbc:...0,jdbc:...1,jdbc:...2 --mapa=particoes.map --particoesAtuais=2"
+ *
+ * Opções (--chave=valor): urls (todas as partições da nova configuração, a partição 0 primeiro),
+ * usuario e senha (iguais em todos os bancos), mapa (arquivo do mapa atual, gravado com o novo mapa ao final;
+ * padrão "particoes.map"), particoesAtuais (se o arquivo do mapa ainda não existe: o mapa atual é o uniforme
+ * com essa quantidade), lote (linhas por transação, padrão 1000) e simular=true (só mostra o plano).
+ *
+ * Cada partição que perde buckets é lida uma vez, em ordem de ID. As linhas dos buckets movidos são inseridas
+ * na partição de destino e só depois removidas da origem; antes de inserir, o lote é removido do destino.
+ * Assim, se a ferramenta for interrompida, basta rodá-la de novo com os mesmos argumentos: o arquivo do mapa
+ * só é trocado no fim, e as linhas já copiadas são copiadas de novo sem duplicar.
+ */
+public final class RebalanceamentoParticoes {
+
+    private RebalanceamentoParticoes() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Opção inválida: " + arg + " (use --chave=valor)");
+            }
+            opcoes.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        if (!opcoes.containsKey("urls")) {
+            throw new IllegalArgumentException("Informe --urls com todas as partições, a partição 0 primeiro.");
+        }
+        String[] urls = opcoes.get("urls").split(",");
+        Path arquivo = Path.of(opcoes.getOrDefault("mapa", "particoes.map"));
+        int lote = Integer.parseInt(opcoes.getOrDefault("lote", "1000"));
+
+        MapaParticoes atual;
+        if (Files.exists(arquivo)) {
+            atual = MapaParticoes.ler(arquivo);
+        } else if (opcoes.containsKey("particoesAtuais")) {
+            atual = MapaParticoes.uniforme(Integer.parseInt(opcoes.get("particoesAtuais")));
+            atual.escrever(arquivo);
+            System.err.println("Mapa atual gravado em " + arquivo + ".");
+        } else {
+            throw new IllegalArgumentException("O arquivo " + arquivo + " não existe: informe --particoesAtuais.");
+        }
+        if (atual.getParticoes() > urls.length) {
+            throw new IllegalArgumentException("Remover partições não é suportado: o mapa atual tem "
+                    + atual.getParticoes() + " partições.");
+        }
+        MapaParticoes novo = atual.rebalancear(urls.length);
+
+        // Plano: buckets movidos por origem e destino
+        Map<String, Integer> plano = new TreeMap<>();
+        for (int bucket : atual.bucketsMovidos(novo)) {
+            plano.merge(atual.particaoDoBucket(bucket) + " -> " + novo.particaoDoBucket(bucket), 1, Integer::sum);
+        }
+        plano.forEach((movimento, buckets) -> System.err.println("Partição " + movimento + ": " + buckets + " bucket(s)."));
+        if (plano.isEmpty() || Boolean.parseBoolean(opcoes.getOrDefault("simular", "false"))) {
+            System.err.println(plano.isEmpty() ? "Nada a mover." : "Simulação: nenhuma linha movida.");
+            return;
+        }
+
+        List<Connection> conexoes = new ArrayList<>();
+        try {
+            for (String url : urls) {
+                Connection conexao = DriverManager.getConnection(url.trim(),
+                        opcoes.getOrDefault("usuario", "sa"), opcoes.getOrDefault("senha", ""));
+                conexao.setAutoCommit(false);
+                conexoes.add(conexao);
+                try (PreparedStatement teste = conexao.prepareStatement("select count(*) from pacientes where 1 = 0")) {
+                    teste.executeQuery().close();
+                } catch (SQLException e) {
+                    throw new IllegalStateException("A partição " + (conexoes.size() - 1) + " não tem a tabela pacientes: "
+                            + "suba a aplicação uma vez com a nova URL e o mapa " + arquivo + ", ou aplique as migrações.", e);
+                }
+                conexao.rollback();
+            }
+            for (int origem = 0; origem < atual.getParticoes(); origem++) {
+                long movidas = esvaziar(conexoes, origem, novo, lote);
+                System.err.println("Partição " + origem + ": " + movidas + " paciente(s) movido(s).");
+            }
+        } finally {
+            for (Connection conexao : conexoes) {
+                conexao.close();
+            }
+        }
+        novo.escrever(arquivo);
+        System.err.println("Mapa gravado em " + arquivo + ". Configure app.shardUrls e app.shardMapa antes de subir a aplicação.");
+    }
+
+    /**
+     * Move da partição de origem as linhas cujos buckets passaram para outras partições no novo mapa.
+     * @return A quantidade de linhas movidas.
+     */
+    private static long esvaziar(List<Connection> conexoes, int origem, MapaParticoes novo, int lote) throws SQLException {
+        Connection conexaoOrigem = conexoes.get(origem);
+        long depoisDe = 0;
+        long movidas = 0;
+        while (true) {
+            List<String> colunas = new ArrayList<>();
+            Map<Integer, List<Object[]>> porDestino = new TreeMap<>();
+            int lidas = 0;
+            int colunaId = -1;
+            try (PreparedStatement select = conexaoOrigem.prepareStatement("select * from pacientes where id > ? order by id")) {
+                select.setMaxRows(lote);
+                select.setLong(1, depoisDe);
+                try (ResultSet linhas = select.executeQuery()) {
+                    ResultSetMetaData metadados = linhas.getMetaData();
+                    for (int i = 1; i <= metadados.getColumnCount(); i++) {
+                        colunas.add(metadados.getColumnLabel(i));
+                    }
+                    colunaId = colunas.stream().map(String::toLowerCase).toList().indexOf("id");
+                    while (linhas.next()) {
+                        lidas++;
+                        depoisDe = linhas.getLong(colunaId + 1);
+                        int destino = novo.particaoDoId(depoisDe);
+                        if (destino == origem) {
+                            continue;
+                        }
+                        Object[] valores = new Object[colunas.size()];
+                        for (int i = 0; i < valores.length; i++) {
+                            valores[i] = linhas.getObject(i + 1);
+                        }
+                        porDestino.computeIfAbsent(destino, particao -> new ArrayList<>()).add(valores);
+                    }
+                }
+            }
+            conexaoOrigem.rollback(); // Encerra a transação da leitura
+            if (lidas == 0) {
+                return movidas;
+            }
+            for (Map.Entry<Integer, List<Object[]>> grupo : porDestino.entrySet()) {
+                Connection conexaoDestino = conexoes.get(grupo.getKey());
+                excluir(conexaoDestino, grupo.getValue(), colunaId);
+                inserir(conexaoDestino, colunas, grupo.getValue());
+                conexaoDestino.commit();
+                excluir(conexaoOrigem, grupo.getValue(), colunaId);
+                conexaoOrigem.commit();
+                movidas += grupo.getValue().size();
+            }
+        }
+    }
+
+    private static void inserir(Connection conexao, List<String> colunas, List<Object[]> linhas) throws SQLException {
+        String sql = "insert into pacientes (" + String.join(", ", colunas) + ") values ("
+                + String.join(", ", Collections.nCopies(colunas.size(), "?")) + ")";
+        try (PreparedStatement insert = conexao.prepareStatement(sql)) {
+            for (Object[] linha : linhas) {
+                for (int i = 0; i < linha.length; i++) {
+                    insert.setObject(i + 1, linha[i]);
+                }
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void excluir(Connection conexao, List<Object[]> linhas, int colunaId) throws SQLException {
+        try (PreparedStatement delete = conexao.prepareStatement("delete from pacientes where id = ?")) {
+            for (Object[] linha : linhas) {
+                delete.setObject(1, linha[colunaId]);
+                delete.addBatch();
+            }
+            delete.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.uninter.sghss.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Réplicas de leitura (app.replicasEnabled=true): substitui o DataSource do Spring Boot por um
+ * RoteadorDataSource, atrás de um LazyConnectionDataSourceProxy.
+ *
+ * O primário continua configurado por spring.datasource.* (e spring.datasource.hikari.*). As réplicas
+ * são as URLs de app.replicaUrls, separadas por vírgula, com o mesmo driver e, por padrão, as mesmas
+ * credenciais do primário. Sem a propriedade, nada muda: o Spring Boot cria o DataSource de sempre.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.replicasEnabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    public RoteadorDataSource roteadorDataSource(HikariDataSource primarioDataSource,
+                                                 DataSourceProperties properties,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${app.replicaUrls}") String[] urls,
+                                                 @Value("${app.replicaUsername:${spring.datasource.username:}}") String username,
+                                                 @Value("${app.replicaPassword:${spring.datasource.password:}}") String password,
+                                                 @Value("${app.replicaPoolSize:10}") int poolSize,
+                                                 @Value("${app.replicaLeituraPropriaMs:2000}") long janelaLeituraPropriaMs,
+                                                 @Value("${app.replicaHealthCheckTimeoutSeconds:2}") int timeoutValidacaoSegundos) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String nome = "replica-" + (replicas.size() + 1);
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName(nome);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // Uma réplica fora do ar não impede a aplicação de subir: ela entra no rodízio quando responder
+            replica.setInitializationFailTimeout(-1);
+            replicas.put(nome, replica);
+        }
+        return new RoteadorDataSource(primarioDataSource, replicas, janelaLeituraPropriaMs,
+                timeoutValidacaoSegundos, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoteadorDataSource roteadorDataSource) {
+        return new LazyConnectionDataSourceProxy(roteadorDataSource);
+    }
+}
@@ -0,0 +1,245 @@
+package com.uninter.sghss.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envia as transações @Transactional(readOnly = true) para as réplicas de leitura
+ * (em rodízio) e todo o resto para o primário. Ativado com app.replicasEnabled (ver ReplicaDataSourceConfig).
+ *
+ * Uma leitura vai para o primário quando:
+ * - não há réplica saudável: a saúde é verificada a cada app.replicaHealthCheckMs, e uma réplica que
+ *   falha ao entregar conexão sai do rodízio na hora (a leitura é refeita no primário);
+ * - o mesmo usuário (ou IP, sem token) fez uma escrita há menos de app.replicaLeituraPropriaMs,
+ *   para que ele sempre veja o que acabou de gravar, mesmo com atraso de replicação.
+ *
+ * Deve ficar atrás de um LazyConnectionDataSourceProxy: o JpaTransactionManager pede a conexão antes
+ * de marcar a transação como somente leitura, e o proxy adia a escolha até o primeiro comando SQL.
+ * Os roteamentos ficam na métrica datasource.routing (destino e motivo).
+ */
+public class RoteadorDataSource extends AbstractDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(RoteadorDataSource.class);
+
+    private final DataSource primario;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final int timeoutValidacaoSegundos;
+    private final Cache<String, Boolean> escritasRecentes; // Chaves que escreveram dentro da janela de leitura própria
+
+    private final Counter paraReplica;
+    private final Counter escritas;
+    private final Counter leiturasProprias;
+    private final Counter semReplica;
+    private final Counter falhasReplica;
+
+    /**
+     * @param primario                 Pool do banco primário (escritas e leituras sem réplica disponível).
+     * @param replicas                 Pools das réplicas, por nome.
+     * @param janelaLeituraPropriaMs   Por quanto tempo após uma escrita as leituras do mesmo usuário vão ao primário.
+     * @param timeoutValidacaoSegundos Tempo máximo da verificação de saúde de cada réplica.
+     */
+    public RoteadorDataSource(DataSource primario, Map<String, DataSource> replicas, long janelaLeituraPropriaMs,
+                              int timeoutValidacaoSegundos, MeterRegistry meterRegistry) {
+        this.primario = primario;
+        replicas.forEach((nome, dataSource) -> this.replicas.add(new Replica(nome, dataSource)));
+        this.timeoutValidacaoSegundos = timeoutValidacaoSegundos;
+        this.escritasRecentes = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(janelaLeituraPropriaMs))
+                .build();
+
+        this.paraReplica = roteamento(meterRegistry, "replica", "leitura");
+        this.escritas = roteamento(meterRegistry, "primario", "escrita");
+        this.leiturasProprias = roteamento(meterRegistry, "primario", "leitura_propria");
+        this.semReplica = roteamento(meterRegistry, "primario", "sem_replica");
+        this.falhasReplica = Counter.builder("datasource.replica.failures")
+                .description("Falhas de conexão com réplicas (a réplica sai do rodízio até a próxima verificação)")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.healthy", this.replicas,
+                        lista -> lista.stream().filter(replica -> replica.saudavel).count())
+                .description("Réplicas de leitura saudáveis no rodízio")
+                .register(meterRegistry);
+    }
+
+    private static Counter roteamento(MeterRegistry meterRegistry, String destino, String motivo) {
+        return Counter.builder("datasource.routing")
+                .description("Conexões entregues pelo RoteadorDataSource, por destino e motivo")
+                .tag("destino", destino)
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = escolherReplica();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                paraReplica.increment();
+                return connection;
+            } catch (SQLException e) {
+                marcarIndisponivel(replica, e);
+                semReplica.increment();
+            }
+        }
+        return primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primario.getConnection(username, password);
+    }
+
+    /**
+     * Réplica para a conexão atual, ou null se ela deve ir para o primário.
+     */
+    private Replica escolherReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registrarEscrita();
+            escritas.increment();
+            return null;
+        }
+        if (!replicas.isEmpty() && escreveuRecentemente()) {
+            leiturasProprias.increment();
+            return null;
+        }
+        int inicio = proxima.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(inicio + i, replicas.size()));
+            if (replica.saudavel) {
+                return replica;
+            }
+        }
+        semReplica.increment();
+        return null;
+    }
+
+    /**
+     * A janela de leitura própria começa no commit, quando a escrita passa a existir para as réplicas.
+     */
+    private void registrarEscrita() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        List<String> chaves = chavesDoUsuario();
+        if (chaves.isEmpty()) {
+            return; // Fora de uma requisição (ex.: seed, tarefas agendadas)
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                chaves.forEach(chave -> escritasRecentes.put(chave, Boolean.TRUE));
+            }
+        });
+    }
+
+    private boolean escreveuRecentemente() {
+        for (String chave : chavesDoUsuario()) {
+            if (escritasRecentes.getIfPresent(chave) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Usuário autenticado e IP de origem: o cadastro é anônimo e o login logo em seguida também,
+     * então o IP cobre o "cadastrei e não consigo entrar" com réplicas atrasadas.
+     */
+    private static List<String> chavesDoUsuario() {
+        List<String> chaves = new ArrayList<>(2);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            chaves.add("u:" + authentication.getName());
+        }
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos instanceof ServletRequestAttributes servlet) {
+            chaves.add("ip:" + servlet.getRequest().getRemoteAddr());
+        }
+        return chaves;
+    }
+
+    /**
+     * Verifica cada réplica (Connection.isValid) e atualiza o rodízio: réplicas que voltam a responder
+     * retornam a ele, as que falham saem.
+     */
+    @Scheduled(initialDelayString = "${app.replicaHealthCheckMs:5000}", fixedDelayString = "${app.replicaHealthCheckMs:5000}")
+    public void verificarSaude() {
+        for (Replica replica : replicas) {
+            boolean saudavel;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                saudavel = connection.isValid(timeoutValidacaoSegundos);
+            } catch (SQLException e) {
+                saudavel = false;
+            }
+            if (saudavel && !replica.saudavel) {
+                log.info("Réplica {} voltou ao rodízio de leitura.", replica.nome);
+            } else if (!saudavel && replica.saudavel) {
+                log.warn("Réplica {} não respondeu à verificação de saúde; leituras vão para o primário.",
+                        replica.nome);
+            }
+            replica.saudavel = saudavel;
+        }
+    }
+
+    private void marcarIndisponivel(Replica replica, SQLException e) {
+        falhasReplica.increment();
+        if (replica.saudavel) {
+            replica.saudavel = false;
+            log.warn("Réplica {} indisponível ({}); leituras vão para o primário.", replica.nome, e.getMessage());
+        }
+    }
+
+    /**
+     * Fecha os pools das réplicas (o do primário é um bean e é fechado pelo Spring).
+     */
+    @PreDestroy
+    public void fechar() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Erro ao fechar o pool da réplica {}: {}", replica.nome, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String nome;
+        private final DataSource dataSource;
+        private volatile boolean saudavel = true;
+
+        Replica(String nome, DataSource dataSource) {
+            this.nome = nome;
+            this.dataSource = dataSource;
+        }
+    }
+}
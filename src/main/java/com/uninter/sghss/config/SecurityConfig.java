@@ -1,6 +1,8 @@
 package com.uninter.sghss.config;
 
 import com.uninter.sghss.service.AuthService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -24,14 +26,44 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity(prePostEnabled = true) // Habilita anotações @PreAuthorize
 public class SecurityConfig {
 
+    /**
+     * Codificador BCrypt com custo configurável (app.bcryptStrength, entre 4 e 31; cada ponto dobra o tempo de hash).
+     * upgradeEncoding indica um novo hash sempre que o custo gravado na senha for diferente do configurado,
+     * para que o DaoAuthenticationProvider refaça o hash no próximo login (ver AuthService.updatePassword).
+     * O tempo de cada hash/verificação é publicado na métrica password.encoder.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.bcryptStrength:10}") int bcryptStrength, MeterRegistry meterRegistry) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength) {
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return custoBCrypt(encodedPassword) != bcryptStrength;
+            }
+        };
+        return new TimedPasswordEncoder(bcrypt, meterRegistry);
+    }
+
+    /**
+     * Lê o custo de um hash BCrypt no formato "$2a$10$...".
+     * @return O custo, ou -1 se o hash não estiver nesse formato.
+     */
+    static int custoBCrypt(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        char dezena = encodedPassword.charAt(4);
+        char unidade = encodedPassword.charAt(5);
+        if (dezena < '0' || dezena > '9' || unidade < '0' || unidade > '9') {
+            return -1;
+        }
+        return (dezena - '0') * 10 + (unidade - '0');
     }
 
     /**
      * Aqui foi configurado o provedor de autenticação DAO (Data Access Object).
      * Usa o AuthService para carregar usuários e o PasswordEncoder para verificar senhas.
+     * O AuthService também grava o novo hash quando o custo do BCrypt muda (rehash transparente no login).
      *
      * @param authService     O serviço de autenticação (AuthService) injetado pelo Spring.
      * @param passwordEncoder O codificador de senha (PasswordEncoder) injetado pelo Spring.
@@ -42,6 +74,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(authService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(authService);
         return authProvider;
     }
 
@@ -61,27 +94,32 @@ public class SecurityConfig {
      * Configura a cadeia de filtros de segurança HTTP.
      * Define quais endpoints são públicos e quais exigem autenticação.
      * Configura o gerenciamento de sessão como STATELESS (para JWT).
-     * Adiciona o filtro JWT antes do filtro de autenticação de nome de usuário/senha.
+     * Adiciona o filtro JWT antes do filtro de autenticação de nome de usuário/senha
+     * e, logo depois dele, o limite de requisições (que já conhece o usuário do token).
      *
      * @param http                    O objeto HttpSecurity para configurar a segurança.
      * @param jwtAuthenticationFilter O filtro JWT injetado pelo Spring.
+     * @param limiteTaxaFilter        O filtro de limite de requisições injetado pelo Spring.
      * @param authenticationProvider  O provedor de autenticação injetado pelo Spring.
      * @return Uma instância de SecurityFilterChain.
      * @throws Exception se houver um erro na configuração.
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter, DaoAuthenticationProvider authenticationProvider) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter, LimiteTaxaFilter limiteTaxaFilter, DaoAuthenticationProvider authenticationProvider) throws Exception {
         http
                 .csrf(csrf -> csrf.disable()) // Desabilita CSRF para APIs RESTful
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll() // Permite acesso público aos endpoints de autenticação
+                        .requestMatchers("/actuator/health/liveness", "/actuator/health/readiness").permitAll() // Sondas do balanceador/orquestrador
+                        .requestMatchers("/actuator/**").authenticated() // Métricas (inclusive /actuator/prometheus) só com JWT válido
                         .anyRequest().authenticated() // Todos os outros endpoints exigem autenticação
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS) // Sessão stateless para JWT
                 )
                 .authenticationProvider(authenticationProvider) // Usa o provedor de autenticação injetado como parâmetro
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class); // Adiciona o filtro JWT injetado como parâmetro
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class) // Adiciona o filtro JWT injetado como parâmetro
+                .addFilterAfter(limiteTaxaFilter, JwtAuthenticationFilter.class); // Responde 429 antes de qualquer acesso ao banco
 
         return http.build();
     }
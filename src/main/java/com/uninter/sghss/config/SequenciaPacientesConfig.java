@@ -0,0 +1,66 @@
+package com.uninter.sghss.config;
+
+import com.uninter.sghss.model.PacienteIdSequence;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Acerta a sequence pacientes_seq com os pacientes já cadastrados, na inicialização.
+ *
+ * Bancos criados antes da sequence (ID por IDENTITY) ou com pacientes inseridos com ID explícito
+ * ficam com a sequence atrás do maior ID, e os próximos cadastros repetiriam IDs existentes.
+ * Se o bloco que a sequence entregaria (otimizador pooled: próximo valor - INCREMENTO + 1 em diante)
+ * não passar de max(id), a sequence é reiniciada logo depois dele.
+ *
+ * Roda durante a criação do contexto, depois do ddl-auto e antes de o servidor receber requisições,
+ * também com a inicialização preguiçosa (@Lazy(false)). Sem efeito com particionamento (IDs do
+ * GeradorIdsParticionados, sem sequence).
+ */
+@Configuration
+@Lazy(false)
+@ConditionalOnProperty(name = "app.shardsEnabled", havingValue = "false", matchIfMissing = true)
+public class SequenciaPacientesConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenciaPacientesConfig.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public SequenciaPacientesConfig(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory; // Dependência explícita: o esquema já foi criado/atualizado
+    }
+
+    @PostConstruct
+    public void acertarSequencia() {
+        try {
+            Long maiorId = jdbcTemplate.queryForObject("select max(id) from pacientes", Long.class);
+            if (maiorId == null) {
+                return; // Tabela vazia: a sequence começa do início
+            }
+            String proximoValor = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                    .getDialect().getSequenceSupport().getSequenceNextValString(PacienteIdSequence.SEQUENCE);
+            Long proximo = jdbcTemplate.queryForObject(proximoValor, Long.class);
+            if (proximo != null && proximo - PacienteIdSequence.INCREMENTO + 1 > maiorId) {
+                return; // Em dia (o bloco consultado aqui só deixa alguns IDs vagos)
+            }
+            long reinicio = maiorId + PacienteIdSequence.INCREMENTO;
+            jdbcTemplate.execute("alter sequence " + PacienteIdSequence.SEQUENCE + " restart with " + reinicio);
+            log.info("Sequence {} estava atrás do maior ID de paciente ({}); reiniciada em {}.",
+                    PacienteIdSequence.SEQUENCE, maiorId, reinicio);
+        } catch (DataAccessException e) {
+            // Ex.: banco sem suporte a ALTER SEQUENCE ... RESTART; os cadastros seguem com a sequence como está
+            log.error("Não foi possível acertar a sequence {}: {}", PacienteIdSequence.SEQUENCE, e.getMessage());
+        }
+    }
+}
@@ -6,19 +6,28 @@ import com.uninter.sghss.dto.RegisterRequestDTO;
 import com.uninter.sghss.model.Usuario;
 import com.uninter.sghss.service.AuthService;
 import com.uninter.sghss.config.JwtTokenProvider;
+import com.uninter.sghss.config.LimiteTaxaFilter;
+import com.uninter.sghss.config.MetricasErros;
+import com.uninter.sghss.config.PasswordHashingExecutor;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Controlador REST para autenticação de usuários (registro e login).
  */
@@ -26,6 +35,8 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     @Autowired
     private AuthService authService;
 
@@ -35,24 +46,39 @@ public class AuthController {
     @Autowired // Injetar AuthenticationManager diretamente no Controller
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private MetricasErros metricasErros;
+
+    @Autowired
+    private LimiteTaxaFilter limiteTaxa; // Limite por usuário e IP, além do limite por IP do filtro
+
     /**
      * Endpoint: POST /api/auth/register
      * Objetivo: Registrar um novo usuário.
      * Parâmetros: JSON no corpo da requisição com username, email e password.
+     * O hash da senha é calculado no PasswordHashingExecutor, liberando a thread da requisição.
      * Respostas esperadas:
      * - 201 Created: Sucesso, retorna o usuário registrado.
      * - 400 Bad Request: Erro de validação.
      * - 409 Conflict: Nome de usuário ou email já existe.
+     * - 429 Too Many Requests: Fila de hashing cheia ou limite de tentativas do usuário (cabeçalho Retry-After).
      */
     @PostMapping("/register")
-    public ResponseEntity<Usuario> registerUser(@Valid @RequestBody RegisterRequestDTO registerRequest) {
+    public CompletableFuture<ResponseEntity<Usuario>> registerUser(@Valid @RequestBody RegisterRequestDTO registerRequest,
+                                                                   HttpServletRequest request) {
+        long espera = limiteTaxa.tentarAutenticar(registerRequest.getUsername(), request.getRemoteAddr());
+        if (espera > 0) {
+            return CompletableFuture.completedFuture(limiteExcedido(espera));
+        }
         try {
-            Usuario newUser = new Usuario(registerRequest.getUsername(), registerRequest.getEmail(), registerRequest.getPassword());
-            Usuario registeredUser = authService.register(newUser);
-            return new ResponseEntity<>(registeredUser, HttpStatus.CREATED);
-        } catch (RuntimeException e) {
-            System.err.println("Erro ao registrar usuário: " + e.getMessage());
-            return new ResponseEntity<>(null, HttpStatus.CONFLICT); // Retorna 409 para usuário/email duplicado
+            return passwordHashingExecutor.submit(() -> register(registerRequest));
+        } catch (RejectedExecutionException e) {
+            log.warn("Registro recusado: fila de hashing de senhas cheia.");
+            metricasErros.registrar("auth.register", "fila_cheia");
+            return CompletableFuture.completedFuture(tooManyRequests());
         }
     }
 
@@ -60,23 +86,88 @@ public class AuthController {
      * Endpoint: POST /api/auth/login
      * Objetivo: Realizar o login do usuário e gerar um token JWT.
      * Parâmetros: JSON no corpo da requisição com username e password.
+     * A verificação da senha (BCrypt) é feita no PasswordHashingExecutor, liberando a thread da requisição.
      * Respostas esperadas:
      * - 200 OK: Sucesso, retorna o token JWT.
      * - 401 Unauthorized: Credenciais inválidas.
+     * - 429 Too Many Requests: Fila de hashing cheia ou limite de tentativas do usuário (cabeçalho Retry-After).
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDTO> authenticateUser(@Valid @RequestBody LoginRequestDTO loginRequest) {
+    public CompletableFuture<ResponseEntity<AuthResponseDTO>> authenticateUser(@Valid @RequestBody LoginRequestDTO loginRequest,
+                                                                               HttpServletRequest request) {
+        long espera = limiteTaxa.tentarAutenticar(loginRequest.getUsername(), request.getRemoteAddr());
+        if (espera > 0) {
+            return CompletableFuture.completedFuture(limiteExcedido(espera));
+        }
         try {
-            // A autenticação agora é feita diretamente no Controller
+            return passwordHashingExecutor.submit(() -> login(loginRequest));
+        } catch (RejectedExecutionException e) {
+            log.warn("Login recusado: fila de hashing de senhas cheia.");
+            metricasErros.registrar("auth.login", "fila_cheia");
+            return CompletableFuture.completedFuture(tooManyRequests());
+        }
+    }
+
+    /**
+     * Endpoint: POST /api/auth/revoke
+     * Objetivo: Revogar todos os tokens já emitidos para o usuário autenticado (ex.: "sair de todos os dispositivos").
+     * Parâmetros: Nenhum; o usuário é identificado pelo token JWT enviado no cabeçalho Authorization.
+     * Respostas esperadas:
+     * - 204 No Content: Tokens revogados.
+     * - 401 Unauthorized: Requisição sem token válido.
+     */
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revokeTokens(Authentication authentication) {
+        if (authentication == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        try {
+            authService.revokeTokens(authentication.getName());
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (RuntimeException e) {
+            log.warn("Erro ao revogar tokens: {}", e.getMessage());
+            metricasErros.registrar("auth.revoke", "usuario_nao_encontrado");
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    private ResponseEntity<Usuario> register(RegisterRequestDTO registerRequest) {
+        try {
+            Usuario newUser = new Usuario(registerRequest.getUsername(), registerRequest.getEmail(), registerRequest.getPassword());
+            Usuario registeredUser = authService.register(newUser);
+            return new ResponseEntity<>(registeredUser, HttpStatus.CREATED);
+        } catch (RuntimeException e) {
+            log.warn("Erro ao registrar usuário: {}", e.getMessage());
+            metricasErros.registrar("auth.register", "conflito");
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT); // Retorna 409 para usuário/email duplicado
+        }
+    }
+
+    private ResponseEntity<AuthResponseDTO> login(LoginRequestDTO loginRequest) {
+        try {
+            // A autenticação é feita diretamente no Controller. A API é stateless (JWT), então a autenticação
+            // não é guardada no SecurityContext (que, nesta thread do pool, vazaria para a próxima tarefa).
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
             );
-            SecurityContextHolder.getContext().setAuthentication(authentication); // Define a autenticação no contexto
             String jwt = jwtTokenProvider.generateToken(authentication);
             return ResponseEntity.ok(new AuthResponseDTO(jwt));
         } catch (Exception e) {
-            System.err.println("Erro de autenticação: " + e.getMessage());
+            log.warn("Erro de autenticação: {}", e.getMessage());
+            metricasErros.registrar("auth.login", "credenciais_invalidas");
             return new ResponseEntity<>(null, HttpStatus.UNAUTHORIZED); // Retorna 401 para credenciais inválidas
         }
     }
+
+    private <T> ResponseEntity<T> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingExecutor.getRetryAfterSeconds()))
+                .build();
+    }
+
+    private static <T> ResponseEntity<T> limiteExcedido(long esperaNanos) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(LimiteTaxaFilter.retryAfterSegundos(esperaNanos)))
+                .build();
+    }
 }
\ No newline at end of file
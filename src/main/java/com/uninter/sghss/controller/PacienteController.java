@@ -1,60 +1,397 @@
 package com.uninter.sghss.controller;
 
+import com.uninter.sghss.auditoria.AuditoriaService;
+import com.uninter.sghss.auditoria.EventoAuditoria.Acao;
+import com.uninter.sghss.config.DescompressaoRequisicaoFilter;
+import com.uninter.sghss.config.MetricasErros;
+import com.uninter.sghss.dto.CampoPaciente;
+import com.uninter.sghss.dto.EstatisticasPacientesDTO;
+import com.uninter.sghss.dto.ImportacaoResultadoDTO;
+import com.uninter.sghss.dto.PacienteParcialDTO;
+import com.uninter.sghss.dto.PacientePorIdDTO;
+import com.uninter.sghss.dto.PaginaCursorDTO;
 import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.service.PacienteEstatisticas;
+import com.uninter.sghss.service.PacienteExportService;
+import com.uninter.sghss.service.PacienteFeedService;
+import com.uninter.sghss.service.PacienteGravacaoEmLote;
+import com.uninter.sghss.service.PacienteImportService;
 import com.uninter.sghss.service.PacienteService;
+import com.uninter.sghss.util.Hashing;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize; // Para autorização
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/pacientes")
 public class PacienteController {
 
+    private static final Logger log = LoggerFactory.getLogger(PacienteController.class);
+
+    static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    static final String HEADER_TOTAL_COUNT = "X-Total-Count";
+    static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+
     @Autowired
     private PacienteService pacienteService;
 
+    @Autowired
+    private PacienteExportService pacienteExportService;
+
+    @Autowired
+    private PacienteImportService pacienteImportService;
+
+    @Autowired
+    private PacienteFeedService pacienteFeedService;
+
+    @Autowired
+    private PacienteEstatisticas pacienteEstatisticas;
+
+    @Autowired
+    private PacienteGravacaoEmLote gravacaoEmLote; // Com app.pacientesGroupCommitEnabled, cadastros e atualizações passam por ela
+
+    @Autowired
+    private MetricasErros metricasErros;
+
+    @Autowired
+    private AuditoriaService auditoria; // Registra quem leu quais pacientes (as alterações vêm dos eventos do serviço)
+
     @PostMapping
     @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem cadastrar
     public ResponseEntity<Paciente> createPaciente(@Valid @RequestBody Paciente paciente) {
         try {
-            Paciente savedPaciente = pacienteService.save(paciente);
-            return new ResponseEntity<>(savedPaciente, HttpStatus.CREATED);
+            Paciente savedPaciente = gravacaoEmLote.isEnabled()
+                    ? gravacaoEmLote.aguardar(gravacaoEmLote.salvar(paciente))
+                    : pacienteService.save(paciente);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(etag(savedPaciente)).body(savedPaciente);
+        } catch (RejectedExecutionException e) {
+            log.warn("Gravação em lote sobrecarregada: {}", e.getMessage());
+            metricasErros.registrar("pacientes.create", "sobrecarga");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (TimeoutException e) {
+            log.warn("Gravação em lote sem resposta: {}", e.getMessage());
+            metricasErros.registrar("pacientes.create", "tempo_esgotado");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
         } catch (RuntimeException e) {
             // Logar o erro para depuração
-            System.err.println("Erro ao criar paciente: " + e.getMessage());
+            log.warn("Erro ao criar paciente: {}", e.getMessage());
+            metricasErros.registrar("pacientes.create", "conflito");
             return new ResponseEntity<>(null, HttpStatus.CONFLICT); // Retorna 409 para CPF/Email duplicado
         }
     }
 
+    /**
+     * Importação em massa de pacientes: aceita um array JSON ou NDJSON (um paciente por linha).
+     * Cada linha é validada e o relatório devolvido indica, na ordem enviada, o ID gerado ou o motivo da rejeição.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MEDIA_TYPE_NDJSON})
+    @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem importar
+    public ResponseEntity<ImportacaoResultadoDTO> importPacientes(InputStream body) {
+        try {
+            return new ResponseEntity<>(pacienteImportService.importar(body), HttpStatus.OK);
+        } catch (DescompressaoRequisicaoFilter.CorpoMuitoGrandeException e) {
+            // Os lotes lidos antes do limite já foram gravados
+            log.warn("Importação de pacientes recusada: {}", e.getMessage());
+            metricasErros.registrar("pacientes.bulk", "tamanho");
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        } catch (IOException e) {
+            log.warn("Erro ao ler importação de pacientes: {}", e.getMessage());
+            metricasErros.registrar("pacientes.bulk", "leitura");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Lista os pacientes paginados por cursor. Por padrão cada item traz a visão resumida (id e nome);
+     * outros campos podem ser pedidos com ?fields=id,nome,email (ou fields=* para todos).
+     * Só as colunas pedidas são lidas do banco.
+     */
     @GetMapping
     @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem listar
-    public ResponseEntity<List<Paciente>> getAllPacientes() {
-        List<Paciente> pacientes = pacienteService.findAll();
-        return new ResponseEntity<>(pacientes, HttpStatus.OK);
+    public ResponseEntity<List<PacienteParcialDTO>> getAllPacientes(@RequestParam(required = false) String cursor,
+                                                                    @RequestParam(required = false) Integer size,
+                                                                    @RequestParam(defaultValue = "false") boolean includeTotal,
+                                                                    @RequestParam(required = false) String fields) {
+        PaginaCursorDTO<PacienteParcialDTO> pagina;
+        Set<CampoPaciente> campos;
+        try {
+            campos = Optional.ofNullable(CampoPaciente.parse(fields)).orElse(CampoPaciente.RESUMO);
+            pagina = pacienteService.findPage(cursor, size, campos);
+        } catch (IllegalArgumentException e) {
+            log.warn("Parâmetros de listagem inválidos: {}", e.getMessage());
+            metricasErros.registrar("pacientes.list", "parametro_invalido");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        // O corpo continua sendo a lista de pacientes; o cursor da próxima página vai no cabeçalho
+        HttpHeaders headers = new HttpHeaders();
+        if (pagina.getProximoCursor() != null) {
+            headers.set(HEADER_NEXT_CURSOR, pagina.getProximoCursor());
+        }
+        Long total = null;
+        if (includeTotal) {
+            total = pacienteService.count();
+            headers.set(HEADER_TOTAL_COUNT, String.valueOf(total));
+        }
+        auditoria.registrar(Acao.LISTAGEM, pagina.getItens().stream().mapToLong(PacienteParcialDTO::getId).toArray(), null);
+
+        // Com If-None-Match igual ao ETag, o Spring responde 304 sem serializar a página
+        return ResponseEntity.ok()
+                .headers(headers)
+                .eTag(etagDaPagina(pagina, campos, total))
+                .body(pagina.getItens());
     }
 
+    /**
+     * Busca vários pacientes pelos IDs em uma requisição (ex.: GET /api/pacientes?ids=3,1,7), no lugar de
+     * um GET /api/pacientes/{id} por paciente. A resposta traz um item por ID pedido, na mesma ordem,
+     * com status NAO_ENCONTRADO para os IDs inexistentes.
+     * A URL fica limitada pelo tamanho máximo dos cabeçalhos (8 KB no Tomcat): para muitos IDs, use o POST abaixo.
+     */
+    @GetMapping(params = "ids")
+    @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem buscar por ID
+    public ResponseEntity<List<PacientePorIdDTO>> getPacientesByIds(@RequestParam List<Long> ids) {
+        return buscarPorIds(ids);
+    }
 
+    /**
+     * A mesma busca por vários IDs, com os IDs no corpo (ex.: POST /api/pacientes/batch-get com ["3","1","7"]):
+     * até app.pacientesMultiGetMax IDs, sem o limite de tamanho da URL.
+     */
+    @PostMapping("/batch-get")
+    @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem buscar por ID
+    public ResponseEntity<List<PacientePorIdDTO>> getPacientesByIdsNoCorpo(@RequestBody List<Long> ids) {
+        return buscarPorIds(ids);
+    }
+
+    private ResponseEntity<List<PacientePorIdDTO>> buscarPorIds(List<Long> ids) {
+        Map<Long, Paciente> encontrados;
+        try {
+            encontrados = pacienteService.findAllById(ids);
+        } catch (IllegalArgumentException e) {
+            log.warn("IDs inválidos: {}", e.getMessage());
+            metricasErros.registrar("pacientes.multiget", "parametro_invalido");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<PacientePorIdDTO> resultado = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            resultado.add(PacientePorIdDTO.de(id, encontrados.get(id)));
+        }
+        auditoria.registrar(Acao.LEITURA, encontrados.keySet().stream().mapToLong(Long::longValue).toArray(), "ids");
+        return new ResponseEntity<>(resultado, HttpStatus.OK);
+    }
+
+    /**
+     * Exporta o cadastro completo de pacientes em streaming (NDJSON ou CSV), sem carregar a tabela em memória.
+     * Exemplo: GET /api/pacientes/export?format=csv
+     */
+    @GetMapping("/export")
+    @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem exportar
+    public ResponseEntity<StreamingResponseBody> exportPacientes(@RequestParam(defaultValue = "ndjson") String format) {
+        PacienteExportService.Formato formato;
+        try {
+            formato = PacienteExportService.Formato.from(format);
+        } catch (IllegalArgumentException e) {
+            log.warn("Formato de exportação inválido: {}", format);
+            metricasErros.registrar("pacientes.export", "parametro_invalido");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        // Registrado ao final, com a quantidade exportada; a exportação não tem filtro (leva o cadastro inteiro)
+        String consulta = "formato=" + formato.name() + " filtro=todos";
+        Consumer<String> registrarExportacao = auditoria.registrarAoFinal(Acao.EXPORTACAO);
+        StreamingResponseBody body = out -> {
+            boolean concluida = false;
+            try {
+                long exportados = pacienteExportService.exportar(formato, out);
+                registrarExportacao.accept(consulta + " pacientes=" + exportados);
+                concluida = true;
+            } finally {
+                if (!concluida) {
+                    registrarExportacao.accept(consulta + " interrompida");
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=pacientes." + formato.getExtensao())
+                .body(body);
+    }
+
+    /**
+     * Feed de alterações de pacientes por Server-Sent Events (ver PacienteFeedService).
+     * Ao reconectar, o cliente envia Last-Event-ID (o EventSource faz isso sozinho) e recebe os eventos perdidos.
+     * O feed é desta instância: com várias instâncias, traz só as alterações gravadas por ela.
+     * Exemplo: GET /api/pacientes/feed com Accept: text/event-stream
+     */
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem acompanhar as alterações
+    public ResponseEntity<SseEmitter> feedPacientes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long ultimoId = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                ultimoId = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                ultimoId = 0L; // Id desconhecido: o cliente recebe o evento "reset" e ressincroniza
+            }
+        }
+        try {
+            return ResponseEntity.ok(pacienteFeedService.assinar(ultimoId));
+        } catch (IllegalStateException e) {
+            log.warn("Feed de pacientes indisponível: {}", e.getMessage());
+            metricasErros.registrar("pacientes.feed", "limite");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+    }
+
+    /**
+     * Busca pacientes pelo nome, sem diferenciar acentos e maiúsculas.
+     * Exemplo: GET /api/pacientes/busca?nome=jose silva&limit=10
+     * Responde 503 enquanto o índice de nomes é carregado na inicialização.
+     */
+    @GetMapping("/busca")
+    @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem buscar por nome
+    public ResponseEntity<List<Paciente>> buscarPacientesPorNome(@RequestParam String nome,
+                                                                 @RequestParam(required = false) Integer limit) {
+        try {
+            List<Paciente> pacientes = pacienteService.buscarPorNome(nome, limit);
+            auditoria.registrar(Acao.BUSCA, pacientes.stream().mapToLong(Paciente::getId).toArray(), nome);
+            return new ResponseEntity<>(pacientes, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.warn("Parâmetros de busca inválidos: {}", e.getMessage());
+            metricasErros.registrar("pacientes.busca", "parametro_invalido");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            log.warn("Busca por nome indisponível: {}", e.getMessage());
+            metricasErros.registrar("pacientes.busca", "indisponivel");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+    }
+
+    /**
+     * Estatísticas do cadastro (total, com/sem telefone e endereço, cadastros por dia), lidas da memória.
+     * Só traz totais, sem dados de pacientes; por isso não passa pela auditoria.
+     */
+    @GetMapping("/estatisticas")
+    @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem ver as estatísticas
+    public ResponseEntity<EstatisticasPacientesDTO> getEstatisticas() {
+        try {
+            return new ResponseEntity<>(pacienteEstatisticas.getEstatisticas(), HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            log.warn("Estatísticas indisponíveis: {}", e.getMessage());
+            metricasErros.registrar("pacientes.estatisticas", "indisponivel");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+    }
+
+    /**
+     * Busca um paciente pelo ID. A resposta traz o ETag da versão do paciente; com If-None-Match,
+     * a versão é consultada sozinha e, se não mudou, a resposta é 304 sem carregar nem serializar o paciente.
+     * Com ?fields=, só os campos pedidos são lidos do banco e devolvidos.
+     */
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem buscar por ID
-    public ResponseEntity<Paciente> getPacienteById(@PathVariable Long id) {
+    public ResponseEntity<Object> getPacienteById(@PathVariable Long id, @RequestParam(required = false) String fields,
+                                                  WebRequest webRequest) {
+        Set<CampoPaciente> campos;
+        try {
+            campos = CampoPaciente.parse(fields);
+        } catch (IllegalArgumentException e) {
+            log.warn("Campos inválidos: {}", e.getMessage());
+            metricasErros.registrar("pacientes.get", "parametro_invalido");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> versao = pacienteService.findVersaoById(id);
+            if (versao.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            if (webRequest.checkNotModified(etag(id, versao.get(), campos))) {
+                auditoria.registrar(Acao.LEITURA, id, "nao_modificado"); // O cliente reutiliza a cópia que já tem
+                return null; // 304 já preparado pelo Spring
+            }
+        }
+        if (campos != null) {
+            return pacienteService.findById(id, campos)
+                    .map(paciente -> {
+                        auditoria.registrar(Acao.LEITURA, id, "fields=" + fields);
+                        return ResponseEntity.ok().eTag(etag(id, paciente.getVersao(), campos)).<Object>body(paciente);
+                    })
+                    .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        }
         return pacienteService.findById(id)
-                .map(paciente -> new ResponseEntity<>(paciente, HttpStatus.OK))
+                .map(paciente -> {
+                    auditoria.registrar(Acao.LEITURA, id, null);
+                    return ResponseEntity.ok().eTag(etag(paciente)).<Object>body(paciente);
+                })
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * Busca um paciente pelo CPF. O ID é resolvido pelo índice de unicidade em memória;
+     * CPFs fora do índice são confirmados no banco antes do 404.
+     */
+    @GetMapping("/cpf/{cpf}")
+    @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem buscar por CPF
+    public ResponseEntity<Paciente> getPacienteByCpf(@PathVariable String cpf) {
+        return pacienteService.findByCpf(cpf)
+                .map(paciente -> {
+                    auditoria.registrar(Acao.LEITURA, paciente.getId(), "cpf");
+                    return ResponseEntity.ok().eTag(etag(paciente)).body(paciente);
+                })
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Atualiza um paciente. Com If-Match (ETag obtido em um GET), a atualização só é aplicada se o paciente
+     * ainda estiver naquela versão; caso contrário a resposta é 412, evitando sobrescrever a edição de outra pessoa.
+     */
     @PutMapping("/{id}")
     @PreAuthorize("isAuthenticated()") // Apenas usuários autenticados podem atualizar
-    public ResponseEntity<Paciente> updatePaciente(@PathVariable Long id, @Valid @RequestBody Paciente pacienteDetails) {
+    public ResponseEntity<Paciente> updatePaciente(@PathVariable Long id, @Valid @RequestBody Paciente pacienteDetails,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Paciente updatedPaciente = pacienteService.update(id, pacienteDetails);
-            return new ResponseEntity<>(updatedPaciente, HttpStatus.OK);
+            List<Long> versoes = versoesDoIfMatch(ifMatch, id);
+            Paciente updatedPaciente = gravacaoEmLote.isEnabled()
+                    ? gravacaoEmLote.aguardar(gravacaoEmLote.atualizar(id, pacienteDetails, versoes))
+                    : pacienteService.update(id, pacienteDetails, versoes);
+            return ResponseEntity.ok().eTag(etag(updatedPaciente)).body(updatedPaciente);
+        } catch (RejectedExecutionException e) {
+            log.warn("Gravação em lote sobrecarregada: {}", e.getMessage());
+            metricasErros.registrar("pacientes.update", "sobrecarga");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (TimeoutException e) {
+            log.warn("Gravação em lote sem resposta: {}", e.getMessage());
+            metricasErros.registrar("pacientes.update", "tempo_esgotado");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Paciente alterado por outra requisição: {}", e.getMessage());
+            metricasErros.registrar("pacientes.update", "versao_divergente");
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
         } catch (RuntimeException e) {
-            System.err.println("Erro ao atualizar paciente: " + e.getMessage());
+            log.warn("Erro ao atualizar paciente: {}", e.getMessage());
+            metricasErros.registrar("pacientes.update", "rejeitado"); // Paciente inexistente ou email já cadastrado
             return new ResponseEntity<>(HttpStatus.NOT_FOUND); // Retorna 404 se não encontrado
         }
     }
@@ -66,8 +403,71 @@ public class PacienteController {
             pacienteService.deleteById(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
-            System.err.println("Erro ao deletar paciente: " + e.getMessage());
+            log.warn("Erro ao deletar paciente: {}", e.getMessage());
+            metricasErros.registrar("pacientes.delete", "nao_encontrado");
             return new ResponseEntity<>(HttpStatus.NOT_FOUND); // Retorna 404 se não encontrado
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * ETag forte de um paciente: muda a cada atualização (coluna @Version).
+     */
+    static String etag(Long id, Long versao) {
+        return "\"" + id + "-" + versao + "\"";
+    }
+
+    static String etag(Paciente paciente) {
+        return etag(paciente.getId(), paciente.getVersao());
+    }
+
+    /**
+     * ETag de uma visão parcial (?fields=): cada conjunto de campos é uma representação diferente.
+     */
+    static String etag(Long id, Long versao, Set<CampoPaciente> campos) {
+        if (campos == null) {
+            return etag(id, versao);
+        }
+        return "\"" + id + "-" + versao + "-f" + Integer.toHexString(CampoPaciente.mascara(campos)) + "\"";
+    }
+
+    /**
+     * ETag de uma página da listagem: hash de 64 bits dos campos, dos IDs e versões da página,
+     * de existir próxima página e do total (quando pedido). Qualquer alteração em um paciente da página muda o ETag.
+     */
+    static String etagDaPagina(PaginaCursorDTO<PacienteParcialDTO> pagina, Set<CampoPaciente> campos, Long total) {
+        long hash = Hashing.mix(((long) CampoPaciente.mascara(campos) << 32) | pagina.getItens().size());
+        for (PacienteParcialDTO paciente : pagina.getItens()) {
+            hash = Hashing.mix(hash ^ paciente.getId());
+            hash = Hashing.mix(hash ^ paciente.getVersao());
+        }
+        hash = Hashing.mix(hash ^ (pagina.getProximoCursor() == null ? 0 : 1));
+        if (total != null) {
+            hash = Hashing.mix(hash ^ total ^ Long.MIN_VALUE);
+        }
+        return "\"p-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Extrai as versões aceitas de um cabeçalho If-Match com ETags deste paciente.
+     * If-Match usa comparação forte: ETags fracas (W/) e de outros pacientes não correspondem.
+     * @return null sem cabeçalho ou com "*" (atualização incondicional); senão as versões (possivelmente nenhuma).
+     */
+    static List<Long> versoesDoIfMatch(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        List<Long> versoes = new ArrayList<>();
+        String prefixo = "\"" + id + "-";
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith(prefixo) && tag.endsWith("\"") && tag.length() > prefixo.length() + 1) {
+                try {
+                    versoes.add(Long.valueOf(tag.substring(prefixo.length(), tag.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // ETag em outro formato: não corresponde a nenhuma versão
+                }
+            }
+        }
+        return versoes;
+    }
+}
@@ -0,0 +1,97 @@
+package com.uninter.sghss.dto;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Campos de Paciente que podem ser pedidos com ?fields= (sparse fieldsets).
+ * Cada campo corresponde a uma coluna selecionada pela projeção do PacienteRepository,
+ * então só as colunas pedidas são lidas do banco e enviadas na resposta.
+ */
+public enum CampoPaciente {
+    ID("id"),
+    NOME("nome"),
+    CPF("cpf"),
+    EMAIL("email"),
+    TELEFONE("telefone"),
+    ENDERECO("endereco"),
+    VERSAO("versao");
+
+    /**
+     * Visão resumida, padrão da listagem: o suficiente para telas de lista e seleção.
+     */
+    public static final Set<CampoPaciente> RESUMO = Collections.unmodifiableSet(EnumSet.of(ID, NOME));
+
+    /**
+     * Todos os campos (fields=*), na mesma ordem do JSON da entidade.
+     */
+    public static final Set<CampoPaciente> TODOS = Collections.unmodifiableSet(EnumSet.allOf(CampoPaciente.class));
+
+    private final String nome;
+
+    CampoPaciente(String nome) {
+        this.nome = nome;
+    }
+
+    /**
+     * Nome do campo no JSON e do atributo na entidade Paciente.
+     */
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Interpreta o parâmetro fields (nomes separados por vírgula, ou "*" para todos).
+     * Os nomes são os do JSON, com maiúsculas e minúsculas exatas; entradas vazias e repetidas são ignoradas.
+     * O id vem sempre, mesmo sem ser pedido: sem ele, o cliente não sabe a qual paciente o item se refere.
+     * @return Os campos pedidos (com o id), ou null se o parâmetro não foi informado.
+     * @throws IllegalArgumentException se algum campo não existir ou se só houver entradas vazias.
+     */
+    public static Set<CampoPaciente> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        if (fields.trim().equals("*")) {
+            return TODOS;
+        }
+        EnumSet<CampoPaciente> campos = EnumSet.of(ID);
+        boolean informado = false;
+        for (String parte : fields.split(",")) {
+            String nome = parte.trim();
+            if (nome.isEmpty()) {
+                continue;
+            }
+            CampoPaciente campo = porNome(nome);
+            if (campo == null) {
+                throw new IllegalArgumentException("Campo desconhecido: " + nome);
+            }
+            campos.add(campo);
+            informado = true;
+        }
+        if (!informado) {
+            throw new IllegalArgumentException("Nenhum campo informado.");
+        }
+        return campos;
+    }
+
+    /**
+     * Máscara de bits dos campos (um bit por campo), usada para diferenciar os ETags de cada visão.
+     */
+    public static int mascara(Set<CampoPaciente> campos) {
+        int mascara = 0;
+        for (CampoPaciente campo : campos) {
+            mascara |= 1 << campo.ordinal();
+        }
+        return mascara;
+    }
+
+    private static CampoPaciente porNome(String nome) {
+        for (CampoPaciente campo : values()) {
+            if (campo.nome.equals(nome)) {
+                return campo;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.uninter.sghss.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * DTO (Data Transfer Object) com as estatísticas do cadastro de pacientes (GET /api/pacientes/estatisticas).
+ * Os valores vêm da memória (PacienteEstatisticas), e não de consultas ao banco a cada requisição.
+ */
+@Data
+@AllArgsConstructor
+public class EstatisticasPacientesDTO {
+    private long total;
+    private long comTelefone;
+    private long semTelefone;
+    private long comEndereco;
+    private long semEndereco;
+    private Map<LocalDate, Long> cadastrosPorDia; // Do dia mais antigo até hoje, inclusive os dias sem cadastros
+    private Instant reconciliadoEm; // Última correção dos valores pelo banco
+}
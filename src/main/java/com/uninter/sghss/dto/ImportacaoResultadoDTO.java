@@ -0,0 +1,47 @@
+package com.uninter.sghss.dto;
+
+import com.uninter.sghss.model.IdPaciente;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) com o relatório de uma importação em massa de pacientes.
+ * Contém os totais e o resultado de cada linha (na ordem em que foram enviadas).
+ */
+@Data
+public class ImportacaoResultadoDTO {
+    private int total;
+    private int importados;
+    private int rejeitados;
+    private List<Linha> linhas = new ArrayList<>();
+
+    /**
+     * Resultado de uma linha da importação.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Linha {
+        private int linha; // Posição da linha no corpo enviado (começando em 1)
+        private String status; // IMPORTADO ou REJEITADO
+        @IdPaciente
+        private Long id; // ID gerado, quando importado
+        private String mensagem; // Motivo da rejeição, quando rejeitado
+    }
+
+    public void importado(int linha, Long id) {
+        linhas.add(new Linha(linha, "IMPORTADO", id, null));
+        importados++;
+        total++;
+    }
+
+    public void rejeitado(int linha, String mensagem) {
+        linhas.add(new Linha(linha, "REJEITADO", null, mensagem));
+        rejeitados++;
+        total++;
+    }
+}
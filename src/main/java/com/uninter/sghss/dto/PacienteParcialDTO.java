@@ -0,0 +1,42 @@
+package com.uninter.sghss.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.uninter.sghss.model.IdPaciente;
+
+import java.util.Map;
+
+/**
+ * DTO (Data Transfer Object) com apenas alguns campos de um paciente (visão resumida ou ?fields=).
+ * É montado diretamente das colunas selecionadas pela projeção, sem carregar a entidade no contexto do JPA.
+ *
+ * No JSON aparecem o ID (sempre, ver CampoPaciente.parse) e os campos pedidos; a versão é sempre lida
+ * (para o ETag), mas só aparece se fizer parte dos campos pedidos.
+ */
+public class PacienteParcialDTO {
+
+    private final Long id;
+    private final Long versao;
+    private final Map<String, Object> campos; // Campos pedidos além do ID, na ordem de CampoPaciente
+
+    public PacienteParcialDTO(Long id, Long versao, Map<String, Object> campos) {
+        this.id = id;
+        this.versao = versao;
+        this.campos = campos;
+    }
+
+    @IdPaciente
+    public Long getId() {
+        return id;
+    }
+
+    @JsonIgnore
+    public Long getVersao() {
+        return versao;
+    }
+
+    @JsonAnyGetter
+    public Map<String, Object> getCampos() {
+        return campos;
+    }
+}
@@ -0,0 +1,26 @@
+package com.uninter.sghss.dto;
+
+import com.uninter.sghss.model.IdPaciente;
+import com.uninter.sghss.model.Paciente;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO (Data Transfer Object) com o resultado de um ID na busca por vários IDs (GET /api/pacientes?ids=...
+ * ou POST /api/pacientes/batch-get).
+ * Os itens vêm na ordem dos IDs pedidos, inclusive os não encontrados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PacientePorIdDTO {
+    @IdPaciente
+    private Long id;
+    private String status; // ENCONTRADO ou NAO_ENCONTRADO
+    private Paciente paciente; // null quando não encontrado
+
+    public static PacientePorIdDTO de(Long id, Paciente paciente) {
+        return new PacientePorIdDTO(id, paciente == null ? "NAO_ENCONTRADO" : "ENCONTRADO", paciente);
+    }
+}
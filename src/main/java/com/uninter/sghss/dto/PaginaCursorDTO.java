@@ -0,0 +1,41 @@
+package com.uninter.sghss.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) para uma página de resultados paginados por cursor (keyset).
+ * O cursor é opaco para o cliente: basta reenviá-lo para obter a próxima página.
+ */
+@Data
+@AllArgsConstructor
+public class PaginaCursorDTO<T> {
+    private List<T> itens;
+    private String proximoCursor; // null quando não há mais páginas
+
+    private static final String PREFIXO = "id:";
+
+    /**
+     * Codifica o último ID de uma página como cursor opaco (Base64 URL-safe).
+     */
+    public static String encodeCursor(Long ultimoId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIXO + ultimoId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um cursor recebido do cliente.
+     * @throws IllegalArgumentException se o cursor for inválido.
+     */
+    public static Long decodeCursor(String cursor) {
+        String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!valor.startsWith(PREFIXO)) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+        return Long.valueOf(valor.substring(PREFIXO.length()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.uninter.sghss.event;
+
+import com.uninter.sghss.model.Paciente;
+import lombok.Value;
+
+/**
+ * Evento publicado pelo PacienteService sempre que um paciente é criado, atualizado ou removido.
+ * Os ouvintes (índices e caches em memória) devem usar @TransactionalEventListener para reagir
+ * apenas depois do commit.
+ *
+ * Os estados "antes" e "depois" são cópias desanexadas da entidade, seguras para leitura em outras threads.
+ */
+@Value
+public class PacienteAlteradoEvent {
+
+    public enum Tipo { CRIADO, ATUALIZADO, REMOVIDO }
+
+    Tipo tipo;
+    Long id;
+    Paciente antes; // Estado anterior (null em CRIADO)
+    Paciente depois; // Estado atual (null em REMOVIDO)
+
+    public static PacienteAlteradoEvent criado(Paciente paciente) {
+        return new PacienteAlteradoEvent(Tipo.CRIADO, paciente.getId(), null, copia(paciente));
+    }
+
+    public static PacienteAlteradoEvent atualizado(Paciente antes, Paciente depois) {
+        return new PacienteAlteradoEvent(Tipo.ATUALIZADO, depois.getId(), antes, copia(depois));
+    }
+
+    public static PacienteAlteradoEvent removido(Paciente paciente) {
+        return new PacienteAlteradoEvent(Tipo.REMOVIDO, paciente.getId(), copia(paciente), null);
+    }
+
+    /**
+     * Cria uma cópia simples (não gerenciada pelo JPA) do paciente.
+     */
+    public static Paciente copia(Paciente paciente) {
+        Paciente copia = new Paciente(paciente.getNome(), paciente.getCpf(), paciente.getEmail());
+        copia.setId(paciente.getId());
+        copia.setTelefone(paciente.getTelefone());
+        copia.setEndereco(paciente.getEndereco());
+        copia.setVersao(paciente.getVersao());
+        copia.setCriadoEm(paciente.getCriadoEm());
+        return copia;
+    }
+}
@@ -0,0 +1,15 @@
+package com.uninter.sghss.model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um ID de paciente nas respostas JSON/CBOR. Sem particionamento, é escrito como número;
+ * com particionamento, como texto (ver IdsPacienteJsonConfig).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER})
+public @interface IdPaciente {
+}
@@ -1,22 +1,26 @@
 package com.uninter.sghss.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
 import lombok.Data; // Importa a anotação @Data do Lombok para gerar getters, setters, etc.
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
+import java.time.LocalDateTime;
+
 /**
  * Entidade Paciente que representa a tabela 'pacientes' no banco de dados.
  * Contém informações básicas do paciente.
  * Anotações Lombok (@Data) geram automaticamente getters, setters, toString, equals e hashCode.
- * Anotações JPA (@Entity, @Table, @Id, @GeneratedValue, @Column) mapeiam a classe para o banco de dados.
+ * Anotações JPA (@Entity, @Table, @Id, @Column) mapeiam a classe para o banco de dados.
  * Anotações de validação (@NotBlank, @Email, @Pattern, @Size) garantem a integridade dos dados.
  */
 @Entity
@@ -25,8 +29,9 @@ import jakarta.validation.constraints.Size;
 public class Paciente {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id; // Chave primária auto-incrementável
+    @PacienteIdSequence
+    @IdPaciente
+    private Long id; // Chave primária gerada por sequence (otimizador pooled, permite inserts em lote via JDBC); ver PacienteIdGenerator
 
     @NotBlank(message = "O nome é obrigatório.")
     @Size(min = 3, max = 100, message = "O nome deve ter entre 3 e 100 caracteres.")
@@ -49,6 +54,17 @@ public class Paciente {
     @Column(nullable = true)
     private String endereco; // Endereço completo do paciente
 
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0") // Ao adicionar a coluna numa tabela com pacientes (ddl-auto=update), eles ficam na versão 0
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY) // Controlado pelo JPA; ignorado no corpo das requisições
+    private Long versao; // Incrementada a cada atualização (bloqueio otimista e ETag da API)
+
+    @CreationTimestamp
+    @Column(name = "criado_em", updatable = false) // Nulo nos pacientes cadastrados antes desta coluna existir
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY) // Preenchido no cadastro; ignorado no corpo das requisições
+    private LocalDateTime criadoEm; // Data e hora do cadastro (cadastros por dia em PacienteEstatisticas)
+
     // Construtor padrão (necessário para JPA)
     public Paciente() {}
 
@@ -0,0 +1,52 @@
+package com.uninter.sghss.model;
+
+import com.uninter.sghss.util.GeradorIdsParticionados;
+import com.uninter.sghss.util.MapaParticoes;
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Gerador do ID de Paciente (anotação PacienteIdSequence).
+ *
+ * Sem particionamento, é a sequence pacientes_seq de sempre (otimizador pooled). Com app.shardsEnabled,
+ * cada partição teria a sua própria sequence, e os valores se repetiriam entre elas: o ID passa a vir
+ * do GeradorIdsParticionados, com o bucket do CPF nos bits baixos (ver ParticoesConfig).
+ *
+ * Instanciado pelo Hibernate, fora do contexto do Spring; por isso o gerador particionado é registrado
+ * em um campo estático.
+ */
+public class PacienteIdGenerator extends SequenceStyleGenerator {
+
+    private static volatile GeradorIdsParticionados particionado;
+
+    private final PacienteIdSequence sequence;
+
+    public PacienteIdGenerator(PacienteIdSequence sequence) {
+        this.sequence = sequence;
+    }
+
+    public static void usarParticionado(GeradorIdsParticionados gerador) {
+        particionado = gerador;
+    }
+
+    @Override
+    public void configure(Type type, Properties parametros, ServiceRegistry serviceRegistry) throws MappingException {
+        parametros.setProperty(SEQUENCE_PARAM, sequence.nome());
+        parametros.setProperty(INCREMENT_PARAM, String.valueOf(sequence.incremento()));
+        super.configure(type, parametros, serviceRegistry);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        GeradorIdsParticionados gerador = particionado;
+        if (gerador == null) {
+            return super.generate(session, object);
+        }
+        return gerador.proximo(MapaParticoes.bucketDoCpf(((Paciente) object).getCpf()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.uninter.sghss.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca o ID gerado pelo PacienteIdGenerator, com a sequence usada sem particionamento.
+ */
+@IdGeneratorType(PacienteIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PacienteIdSequence {
+
+    String SEQUENCE = "pacientes_seq";
+    int INCREMENTO = 50; // Otimizador pooled: o Hibernate reserva 50 IDs por consulta à sequence
+
+    String nome() default SEQUENCE;
+
+    int incremento() default INCREMENTO;
+}
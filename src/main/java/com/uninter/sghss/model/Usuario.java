@@ -1,5 +1,6 @@
 package com.uninter.sghss.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -44,6 +45,10 @@ public class Usuario implements UserDetails {
     @Column(nullable = false)
     private String password; // Senha do usuário (será armazenada criptografada)
 
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion; // Incrementado para revogar todos os tokens já emitidos para o usuário
+
     // Construtor padrão (necessário para JPA)
     public Usuario() {}
 
@@ -0,0 +1,21 @@
+package com.uninter.sghss.repository;
+
+import com.uninter.sghss.dto.CampoPaciente;
+import com.uninter.sghss.dto.PacienteParcialDTO;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Projeções de Paciente que selecionam apenas as colunas pedidas (visão resumida e ?fields=).
+ * Fragmento do PacienteRepository, implementado em PacienteProjecaoRepositoryImpl.
+ */
+public interface PacienteProjecaoRepository {
+
+    // Página por keyset (mesma ordem de findByIdGreaterThanOrderByIdAsc), só com os campos pedidos
+    List<PacienteParcialDTO> findCamposByIdGreaterThan(Set<CampoPaciente> campos, Long id, int limite);
+
+    // Um paciente pelo ID, só com os campos pedidos
+    Optional<PacienteParcialDTO> findCamposById(Set<CampoPaciente> campos, Long id);
+}
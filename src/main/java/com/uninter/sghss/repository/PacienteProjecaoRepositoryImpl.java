@@ -0,0 +1,65 @@
+package com.uninter.sghss.repository;
+
+import com.uninter.sghss.dto.CampoPaciente;
+import com.uninter.sghss.dto.PacienteParcialDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementação das projeções de Paciente com consultas JPQL de tuplas.
+ *
+ * O select é montado a partir dos campos pedidos (nomes fixos do enum CampoPaciente, nunca texto do cliente),
+ * sempre com o ID e a versão. Tuplas não são entidades: não entram no contexto de persistência
+ * nem passam por dirty checking.
+ */
+class PacienteProjecaoRepositoryImpl implements PacienteProjecaoRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PacienteParcialDTO> findCamposByIdGreaterThan(Set<CampoPaciente> campos, Long id, int limite) {
+        return entityManager.createQuery(select(campos) + " where p.id > :id order by p.id", Tuple.class)
+                .setParameter("id", id)
+                .setMaxResults(limite)
+                .getResultList().stream()
+                .map(tupla -> paraDTO(tupla, campos))
+                .toList();
+    }
+
+    @Override
+    public Optional<PacienteParcialDTO> findCamposById(Set<CampoPaciente> campos, Long id) {
+        return entityManager.createQuery(select(campos) + " where p.id = :id", Tuple.class)
+                .setParameter("id", id)
+                .getResultList().stream()
+                .findFirst()
+                .map(tupla -> paraDTO(tupla, campos));
+    }
+
+    private static String select(Set<CampoPaciente> campos) {
+        StringBuilder jpql = new StringBuilder("select p.id as id, p.versao as versao");
+        for (CampoPaciente campo : campos) {
+            if (campo != CampoPaciente.ID && campo != CampoPaciente.VERSAO) {
+                jpql.append(", p.").append(campo.getNome()).append(" as ").append(campo.getNome());
+            }
+        }
+        return jpql.append(" from Paciente p").toString();
+    }
+
+    private static PacienteParcialDTO paraDTO(Tuple tupla, Set<CampoPaciente> campos) {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        for (CampoPaciente campo : campos) {
+            if (campo != CampoPaciente.ID) { // O ID vai na propriedade id do DTO
+                valores.put(campo.getNome(), tupla.get(campo.getNome()));
+            }
+        }
+        return new PacienteParcialDTO(tupla.get("id", Long.class), tupla.get("versao", Long.class), valores);
+    }
+}
@@ -1,18 +1,78 @@
 package com.uninter.sghss.repository;
 
 import com.uninter.sghss.model.Paciente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositório para a entidade Paciente.
  * Estende JpaRepository para fornecer operações CRUD básicas.
  * Inclui métodos de busca personalizados para CPF e Email.
+ * As projeções por campos (visão resumida e ?fields=) vêm do fragmento PacienteProjecaoRepository.
  */
 @Repository
-public interface PacienteRepository extends JpaRepository<Paciente, Long> {
+public interface PacienteRepository extends JpaRepository<Paciente, Long>, PacienteProjecaoRepository {
+    @Transactional(readOnly = true) // Fora de uma transação de escrita, pode ir para uma réplica de leitura
     Optional<Paciente> findByCpf(String cpf); // Busca um paciente pelo CPF
     Optional<Paciente> findByEmail(String email); // Busca um paciente pelo Email
+
+    // Apenas a versão do paciente (ETag), sem carregar a entidade
+    @Transactional(readOnly = true)
+    @Query("select p.versao from Paciente p where p.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Long id);
+
+    // Paginação por keyset: pacientes com ID maior que o cursor, em ordem de ID (usa o índice da chave primária)
+    List<Paciente> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Cursor somente-leitura para exportação: percorre a tabela em lotes de fetch size sem materializar uma lista.
+    // Deve ser consumido dentro de uma transação e fechado ao final (try-with-resources).
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select p from Paciente p order by p.id")
+    Stream<Paciente> streamAllOrderById();
+
+    // Chaves únicas de todos os pacientes (id, cpf, email), lidas por cursor para aquecer o índice em memória
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id, p.cpf, p.email from Paciente p")
+    Stream<Object[]> streamUniqueKeys();
+
+    // ID e nome de todos os pacientes, lidos por cursor para aquecer o índice de busca por nome
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id, p.nome from Paciente p")
+    Stream<Object[]> streamIdAndNome();
+
+    // Verificação de duplicidade em conjunto (uma consulta por lote) usada pela importação em massa
+    @Query("select p.cpf from Paciente p where p.cpf in :cpfs")
+    List<String> findExistingCpfs(@Param("cpfs") Collection<String> cpfs);
+
+    @Query("select p.email from Paciente p where p.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Totais das estatísticas (PacienteEstatisticas): pacientes, com telefone e com endereço (uma linha)
+    @Query("select count(p), "
+            + "coalesce(sum(case when p.telefone is not null and p.telefone <> '' then 1 else 0 end), 0), "
+            + "coalesce(sum(case when p.endereco is not null and p.endereco <> '' then 1 else 0 end), 0) "
+            + "from Paciente p")
+    List<Object[]> contarTotais();
+
+    // Cadastros por dia a partir de uma data (dia, quantidade), para as estatísticas
+    @Query("select cast(p.criadoEm as LocalDate), count(p) from Paciente p where p.criadoEm >= :desde "
+            + "group by cast(p.criadoEm as LocalDate)")
+    List<Object[]> contarCadastrosPorDia(@Param("desde") LocalDateTime desde);
 }
\ No newline at end of file
@@ -2,8 +2,13 @@ package com.uninter.sghss.repository;
 
 import com.uninter.sghss.model.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -13,6 +18,19 @@ import java.util.Optional;
  */
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+    @Transactional(readOnly = true) // Fora de uma transação de escrita, pode ir para uma réplica de leitura
     Optional<Usuario> findByUsername(String username); // Busca um usuário pelo nome de usuário
     Optional<Usuario> findByEmail(String email); // Busca um usuário pelo email
+
+    // Nomes de usuário e emails de todos os usuários, usados para aquecer o índice de unicidade em memória
+    @Query("select u.username, u.email from Usuario u")
+    List<Object[]> findAllUsernamesAndEmails();
+
+    // Apenas usuários que já tiveram tokens revogados (versão > 0); usado pela tabela de versões em memória
+    @Query("select u.id, u.tokenVersion from Usuario u where u.tokenVersion > 0")
+    List<Object[]> findRevokedTokenVersions();
+
+    @Modifying
+    @Query("update Usuario u set u.tokenVersion = u.tokenVersion + 1 where u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id); // Revoga todos os tokens emitidos até agora para o usuário
 }
\ No newline at end of file
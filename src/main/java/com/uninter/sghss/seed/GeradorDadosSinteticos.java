@@ -0,0 +1,167 @@
+package com.uninter.sghss.seed;
+
+import com.uninter.sghss.util.GeradorCpf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Popula as tabelas pacientes e usuarios com dados sintéticos para testes de carga (perfil "seed").
+ *
+ * Executa antes de a aplicação ficar pronta (ApplicationRunner), então os índices em memória já
+ * são aquecidos com os dados gerados. Os inserts são feitos por JDBC em lotes (sem passar pelo JPA).
+ *
+ * Pacientes: o ID continua a partir do maior ID existente e o CPF (válido) e o email são derivados do ID
+ * (ver cpfDoPaciente/emailDoPaciente), para que o driver de carga consiga montar requisições sem consultar o banco.
+ * As datas de cadastro ficam espalhadas pelos últimos 365 dias.
+ * Usuários: "carga0", "carga1", ... todos com a senha app.seedSenha.
+ */
+@Component
+@Profile("seed")
+public class GeradorDadosSinteticos implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GeradorDadosSinteticos.class);
+
+    static final String[] NOMES = {"Ana", "João", "Maria", "José", "Antônio", "Francisca", "Carlos", "Paulo",
+            "Lúcia", "Pedro", "Márcia", "Luís", "Fernanda", "Gabriel", "Letícia", "Rafael", "Júlia", "Mateus",
+            "Beatriz", "Lucas", "Camila", "André", "Patrícia", "Thiago", "Conceição", "Sebastião", "Luana", "Caio"};
+    static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves",
+            "Pereira", "Lima", "Gomes", "Ribeiro", "Carvalho", "Araújo", "Martins", "Rocha", "Conceição", "Simões",
+            "D'Ávila", "Gonçalves", "Mendes", "Barbosa", "Fagundes", "Nascimento", "Brandão", "Magalhães"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Value("${app.seedPacientes:100000}") // Quantidade de pacientes a inserir
+    private long quantidadePacientes;
+
+    @Value("${app.seedUsuarios:100}") // Quantidade de usuários a inserir
+    private int quantidadeUsuarios;
+
+    @Value("${app.seedBatchSize:1000}") // Linhas por lote JDBC
+    private int batchSize;
+
+    @Value("${app.seedSenha:carga123}") // Senha de todos os usuários gerados
+    private String senha;
+
+    @Value("${app.seedExit:false}") // Se true, encerra a aplicação ao terminar (ex.: seed de um Postgres local)
+    private boolean sairAoTerminar;
+
+    @Value("${app.shardsEnabled:false}")
+    private boolean particionado;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (particionado) {
+            // Os IDs sintéticos são sequenciais e os inserts vão direto para um banco: não servem para partições
+            throw new IllegalStateException("O seed sintético não suporta app.shardsEnabled.");
+        }
+        long inicio = System.currentTimeMillis();
+        inserirUsuarios();
+        inserirPacientes();
+        log.info("Seed concluído em {} s.", (System.currentTimeMillis() - inicio) / 1000);
+        if (sairAoTerminar) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private void inserirPacientes() {
+        Long maiorId = jdbcTemplate.queryForObject("select max(id) from pacientes", Long.class);
+        long primeiroId = (maiorId == null ? 0 : maiorId) + 1;
+        long ultimoId = primeiroId + quantidadePacientes - 1;
+        String sql = "insert into pacientes (id, nome, cpf, email, telefone, endereco, criado_em, versao) values (?, ?, ?, ?, ?, ?, ?, 0)";
+        LocalDateTime agora = LocalDateTime.now();
+
+        List<Object[]> lote = new ArrayList<>(batchSize);
+        long inseridos = 0;
+        for (long id = primeiroId; id <= ultimoId; id++) {
+            String cpf = cpfDoPaciente(id);
+            if (cpf == null) {
+                continue; // IDs cujo CPF teria todos os dígitos iguais ficam vagos
+            }
+            lote.add(new Object[] {id, nome(id), cpf, emailDoPaciente(id), telefone(id), endereco(id), agora.minusDays(id % 365)});
+            if (lote.size() == batchSize) {
+                jdbcTemplate.batchUpdate(sql, lote);
+                inseridos += lote.size();
+                lote.clear();
+                if (inseridos % 100_000 < batchSize) {
+                    log.info("Seed: {} pacientes inseridos.", inseridos);
+                }
+            }
+        }
+        if (!lote.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, lote);
+            inseridos += lote.size();
+        }
+
+        // A sequence usa incremento 50 (otimizador pooled): o próximo valor deve deixar o bloco seguinte após ultimoId
+        jdbcTemplate.execute("alter sequence pacientes_seq restart with " + (ultimoId + 50));
+        log.info("Seed: {} pacientes inseridos (IDs {} a {}).", inseridos, primeiroId, ultimoId);
+    }
+
+    private void inserirUsuarios() {
+        Integer existentes = jdbcTemplate.queryForObject(
+                "select count(*) from usuarios where username like 'carga%'", Integer.class);
+        int primeiro = existentes == null ? 0 : existentes;
+        String hash = passwordEncoder.encode(senha); // Mesmo hash para todos: o BCrypt é lento de propósito
+        String sql = "insert into usuarios (username, email, password, token_version) values (?, ?, ?, 0)";
+
+        List<Object[]> lote = new ArrayList<>(batchSize);
+        for (int i = primeiro; i < primeiro + quantidadeUsuarios; i++) {
+            lote.add(new Object[] {"carga" + i, "carga" + i + "@carga.local", hash});
+            if (lote.size() == batchSize) {
+                jdbcTemplate.batchUpdate(sql, lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, lote);
+        }
+        log.info("Seed: {} usuários inseridos (carga{} em diante).", quantidadeUsuarios, primeiro);
+    }
+
+    /**
+     * CPF (válido) do paciente sintético com o ID informado, ou null para os poucos IDs sem CPF possível.
+     */
+    public static String cpfDoPaciente(long id) {
+        return GeradorCpf.gerar(id % 1_000_000_000L);
+    }
+
+    public static String emailDoPaciente(long id) {
+        return "paciente" + id + "@carga.local";
+    }
+
+    static String nome(long id) {
+        long n = id * 0x9E3779B97F4A7C15L; // Espalha os IDs para variar as combinações
+        return NOMES[(int) Long.remainderUnsigned(n, NOMES.length)] + " "
+                + SOBRENOMES[(int) Long.remainderUnsigned(n >>> 16, SOBRENOMES.length)] + " "
+                + SOBRENOMES[(int) Long.remainderUnsigned(n >>> 32, SOBRENOMES.length)];
+    }
+
+    private static String telefone(long id) {
+        return String.format("41 9%04d-%04d", (id / 10_000) % 10_000, id % 10_000);
+    }
+
+    private static String endereco(long id) {
+        return "Rua " + SOBRENOMES[(int) (id % SOBRENOMES.length)] + ", " + (id % 2000 + 1) + " - Curitiba/PR";
+    }
+}
@@ -1,41 +1,178 @@
 package com.uninter.sghss.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.uninter.sghss.model.Usuario;
 import com.uninter.sghss.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serviço de autenticação: registro de usuários, revogação de tokens e carga de usuários para o Spring Security.
+ *
+ * loadUserByUsername é servido por um cache limitado com TTL (app.userCacheMaxSize / app.userCacheTtlSeconds).
+ * Nomes de usuário inexistentes ficam por pouco tempo em um cache negativo (app.userNegativeCacheTtlSeconds),
+ * para que tentativas repetidas de login com usuários inválidos não cheguem ao banco.
+ */
 @Service
-public class AuthService implements UserDetailsService {
+public class AuthService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder; // Injetado via construtor
+    private final TokenVersionService tokenVersionService;
+    private final UsuarioUniqueIndex usuarioUniqueIndex;
+
+    private final Cache<String, Usuario> usuarios; // username -> usuário carregado do banco
+    private final Cache<String, Boolean> usuariosInexistentes; // usernames que não existem no banco
 
 
     @Autowired // Injeção de dependência via construtor é preferível para dependências obrigatórias
-    public AuthService(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder) {
+    public AuthService(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder,
+                       TokenVersionService tokenVersionService, UsuarioUniqueIndex usuarioUniqueIndex,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.userCacheMaxSize:10000}") long userCacheMaxSize,
+                       @Value("${app.userCacheTtlSeconds:300}") long userCacheTtlSeconds,
+                       @Value("${app.userNegativeCacheTtlSeconds:30}") long userNegativeCacheTtlSeconds) {
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenVersionService = tokenVersionService;
+        this.usuarioUniqueIndex = usuarioUniqueIndex;
+        this.usuarios = Caffeine.newBuilder()
+                .maximumSize(userCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(userCacheTtlSeconds))
+                .recordStats()
+                .build();
+        this.usuariosInexistentes = Caffeine.newBuilder()
+                .maximumSize(userCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(userNegativeCacheTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usuarios, "usuarios");
+        CaffeineCacheMetrics.monitor(meterRegistry, usuariosInexistentes, "usuariosInexistentes");
     }
 
     public Usuario register(Usuario usuario) {
-        if (usuarioRepository.findByUsername(usuario.getUsername()).isPresent()) {
+        // O índice em memória evita as consultas quando o username/email certamente não existem
+        if (usuarioUniqueIndex.usernamePodeExistir(usuario.getUsername())
+                && usuarioRepository.findByUsername(usuario.getUsername()).isPresent()) {
             throw new RuntimeException("Nome de usuário já existe.");
         }
-        if (usuarioRepository.findByEmail(usuario.getEmail()).isPresent()) {
+        if (usuarioUniqueIndex.emailPodeExistir(usuario.getEmail())
+                && usuarioRepository.findByEmail(usuario.getEmail()).isPresent()) {
             throw new RuntimeException("Email já existe.");
         }
         usuario.setPassword(passwordEncoder.encode(usuario.getPassword())); // Criptografa a senha
-        return usuarioRepository.save(usuario);
+        Usuario salvo = usuarioRepository.save(usuario);
+        usuarioUniqueIndex.adicionar(salvo.getUsername(), salvo.getEmail());
+        evictUser(salvo.getUsername()); // Remove uma eventual entrada do cache negativo
+        return salvo;
+    }
+
+    /**
+     * Revoga todos os tokens já emitidos para o usuário, incrementando a sua versão de token.
+     * Tokens gerados a partir de agora carregam a nova versão e continuam válidos.
+     * @param username O nome de usuário.
+     * @throws UsernameNotFoundException se o usuário não existir.
+     */
+    @Transactional
+    public void revokeTokens(String username) {
+        Usuario usuario = usuarioRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
+        usuarioRepository.incrementTokenVersion(usuario.getId());
+        tokenVersionService.registrar(usuario.getId(), usuario.getTokenVersion() + 1); // Vale após o commit
+        evictUser(username);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return usuarioRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
+        Usuario usuario = usuarios.getIfPresent(username);
+        if (usuario != null) {
+            return usuario;
+        }
+        if (usuariosInexistentes.getIfPresent(username) != null) {
+            throw new UsernameNotFoundException("Usuário não encontrado: " + username);
+        }
+        usuario = usuarioRepository.findByUsername(username).orElse(null);
+        if (usuario == null) {
+            usuariosInexistentes.put(username, Boolean.TRUE);
+            throw new UsernameNotFoundException("Usuário não encontrado: " + username);
+        }
+        usuarios.put(username, usuario);
+        return usuario;
+    }
+
+    /**
+     * Grava o novo hash da senha calculado pelo DaoAuthenticationProvider após um login bem-sucedido,
+     * quando o custo do BCrypt (app.bcryptStrength) foi alterado.
+     * @param user O usuário autenticado.
+     * @param newPassword O novo hash da senha.
+     * @return O usuário com a senha atualizada.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Usuario usuario = usuarioRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + user.getUsername()));
+        usuario.setPassword(newPassword);
+        Usuario salvo = usuarioRepository.save(usuario);
+        evictUser(salvo.getUsername());
+        return salvo;
+    }
+
+    /**
+     * Remove o usuário dos caches (positivo e negativo). Deve ser chamado sempre que um usuário for criado ou alterado.
+     * Dentro de uma transação, a remoção é repetida após o commit para que uma leitura concorrente
+     * não volte a guardar a versão antiga.
+     * @param username O nome de usuário.
+     */
+    public void evictUser(String username) {
+        usuarios.invalidate(username);
+        usuariosInexistentes.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    usuarios.invalidate(username);
+                    usuariosInexistentes.invalidate(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Estatísticas do cache de usuários (tamanho, taxa de acerto e remoções).
+     * Os mesmos valores são publicados em /actuator/metrics como os caches "usuarios" e "usuariosInexistentes".
+     * @return Um mapa com o tamanho estimado e as estatísticas de cada cache.
+     */
+    public Map<String, Object> getUserCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("usuarios", resumo(usuarios));
+        stats.put("usuariosInexistentes", resumo(usuariosInexistentes));
+        return stats;
+    }
+
+    private static Map<String, Object> resumo(Cache<String, ?> cache) {
+        CacheStats cacheStats = cache.stats();
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("tamanho", cache.estimatedSize());
+        resumo.put("taxaAcerto", cacheStats.hitRate());
+        resumo.put("remocoes", cacheStats.evictionCount());
+        return resumo;
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.uninter.sghss.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.uninter.sghss.event.PacienteAlteradoEvent;
+import com.uninter.sghss.model.Paciente;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache de leitura (read-through) de pacientes por ID, na frente do PacienteRepository.
+ *
+ * Ligado por ambiente com app.pacienteCacheEnabled; desligado, toda leitura vai direto ao banco.
+ * O cache é limitado por app.pacienteCacheMaxSize (política W-TinyLFU do Caffeine) e por um TTL
+ * (app.pacienteCacheTtlSeconds) que limita o tempo de vida de alterações feitas por outras instâncias.
+ * As entradas são invalidadas pelos eventos de PacienteService após o commit. Acertos, falhas e remoções
+ * ficam em /actuator/metrics (cache.gets, cache.evictions com a tag cache=pacientes).
+ *
+ * O cache guarda cópias desanexadas e cada leitura recebe a sua própria cópia, então quem chama
+ * pode alterar o objeto devolvido sem afetar o cache.
+ */
+@Component
+public class PacienteCache {
+
+    private final Cache<Long, Paciente> pacientes; // null quando o cache está desligado
+
+    @Autowired
+    public PacienteCache(MeterRegistry meterRegistry,
+                         @Value("${app.pacienteCacheEnabled:false}") boolean enabled,
+                         @Value("${app.pacienteCacheMaxSize:10000}") long maxSize,
+                         @Value("${app.pacienteCacheTtlSeconds:600}") long ttlSeconds) {
+        if (!enabled) {
+            this.pacientes = null;
+            return;
+        }
+        this.pacientes = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pacientes, "pacientes");
+    }
+
+    public boolean isEnabled() {
+        return pacientes != null;
+    }
+
+    /**
+     * Busca o paciente no cache e, em caso de falha, no loader (normalmente PacienteRepository.findById).
+     * IDs inexistentes não são guardados.
+     * O carregamento é atômico por ID: uma invalidação concorrente espera o carregamento terminar,
+     * então um valor lido antes de um commit nunca sobrevive à invalidação desse commit.
+     */
+    public Optional<Paciente> get(Long id, Function<Long, Optional<Paciente>> loader) {
+        if (pacientes == null || id == null) {
+            return loader.apply(id);
+        }
+        Paciente paciente = pacientes.get(id, chave -> loader.apply(chave).map(PacienteAlteradoEvent::copia).orElse(null));
+        return Optional.ofNullable(paciente).map(PacienteAlteradoEvent::copia);
+    }
+
+    /**
+     * Os pacientes que já estão em cache, sem carregar os demais (ver PacienteService.findAllById).
+     * Um carregamento em lote não é atômico por ID como o de get: um valor lido do banco antes de um commit
+     * poderia entrar no cache depois da invalidação desse commit. Por isso quem chama não guarda o que carregar.
+     * @return Cópias dos pacientes encontrados, por ID (vazio se o cache estiver desligado).
+     */
+    public Map<Long, Paciente> getAllPresent(Collection<Long> ids) {
+        Map<Long, Paciente> encontrados = new HashMap<>();
+        if (pacientes == null) {
+            return encontrados;
+        }
+        pacientes.getAllPresent(ids).forEach((id, paciente) -> encontrados.put(id, PacienteAlteradoEvent.copia(paciente)));
+        return encontrados;
+    }
+
+    /**
+     * Versão do paciente em cache, sem carregar nem copiar a entidade.
+     * @return A versão, ou null se o cache estiver desligado ou o paciente não estiver em cache.
+     */
+    public Long getVersao(Long id) {
+        if (pacientes == null || id == null) {
+            return null;
+        }
+        Paciente paciente = pacientes.getIfPresent(id);
+        return paciente == null ? null : paciente.getVersao();
+    }
+
+    public void evict(Long id) {
+        if (pacientes != null && id != null) {
+            pacientes.invalidate(id);
+        }
+    }
+
+    /**
+     * Estatísticas do cache (acertos, falhas, remoções por tamanho/TTL), ou CacheStats.empty() se desligado.
+     */
+    public CacheStats getStats() {
+        return pacientes == null ? CacheStats.empty() : pacientes.stats();
+    }
+
+    /**
+     * Invalida a entrada do paciente após o commit de atualizações e remoções.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPacienteAlterado(PacienteAlteradoEvent event) {
+        evict(event.getId());
+    }
+}
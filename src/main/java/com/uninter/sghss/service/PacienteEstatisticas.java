@@ -0,0 +1,236 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.dto.EstatisticasPacientesDTO;
+import com.uninter.sghss.event.PacienteAlteradoEvent;
+import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.repository.PacienteRepository;
+import com.uninter.sghss.util.ContadorReconciliavel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estatísticas do cadastro de pacientes mantidas em memória: total, com e sem telefone, com e sem endereço
+ * e cadastros por dia nos últimos app.pacientesEstatisticasDias dias.
+ *
+ * Os valores são calculados no banco na inicialização (COUNT e GROUP BY, em todas as partições) e, depois,
+ * atualizados pelos eventos de PacienteService (após o commit), em contadores sem disputa entre threads
+ * (ContadorReconciliavel). Uma reconciliação periódica (app.pacientesEstatisticasReconciliacaoMs) refaz as
+ * consultas e corrige a divergência, por exemplo dos cadastros feitos por outras instâncias.
+ * A divergência corrigida é somada na métrica pacientes.estatisticas.divergencia.
+ *
+ * A reconciliação não trava as gravações. Cada transação informa os seus eventos aos contadores antes do
+ * commit e os soma depois dele. Um commit desta instância em andamento durante as consultas pode ou não estar
+ * no COUNT, então a diferença que ele explica não é corrigida (ver ContadorReconciliavel). O que sobrar é
+ * corrigido na reconciliação seguinte. As consultas vão ao primário, não a uma réplica atrasada.
+ */
+@Component
+public class PacienteEstatisticas {
+
+    private static final Logger log = LoggerFactory.getLogger(PacienteEstatisticas.class);
+
+    private final ContadorReconciliavel total = new ContadorReconciliavel();
+    private final ContadorReconciliavel comTelefone = new ContadorReconciliavel();
+    private final ContadorReconciliavel comEndereco = new ContadorReconciliavel();
+    private final Map<LocalDate, ContadorReconciliavel> cadastrosPorDia = new ConcurrentHashMap<>();
+    private volatile Instant reconciliadoEm; // null até a primeira reconciliação
+
+    private final PacienteRepository pacienteRepository;
+    private final PacienteParticoes particoes;
+    private final TransactionTemplate primario;
+    private final Counter divergencia;
+    private final int dias;
+
+    @Autowired
+    public PacienteEstatisticas(PacienteRepository pacienteRepository, PacienteParticoes particoes,
+                                PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                @Value("${app.pacientesEstatisticasDias:90}") int dias) {
+        this.pacienteRepository = pacienteRepository;
+        this.particoes = particoes;
+        this.primario = new TransactionTemplate(transactionManager); // Não é somente leitura: vai ao primário
+        this.dias = dias;
+        this.divergencia = Counter.builder("pacientes.estatisticas.divergencia")
+                .description("Soma das diferenças entre as estatísticas em memória e o banco, corrigidas na reconciliação")
+                .register(meterRegistry);
+    }
+
+    public boolean isPronto() {
+        return reconciliadoEm != null;
+    }
+
+    /**
+     * As estatísticas atuais, lidas da memória.
+     * @throws IllegalStateException se as estatísticas ainda não foram calculadas (inicialização).
+     */
+    public EstatisticasPacientesDTO getEstatisticas() {
+        Instant reconciliacao = reconciliadoEm;
+        if (reconciliacao == null) {
+            throw new IllegalStateException("Estatísticas de pacientes ainda não calculadas.");
+        }
+        long pacientes = total.valor();
+        long telefones = comTelefone.valor();
+        long enderecos = comEndereco.valor();
+        Map<LocalDate, Long> porDia = new LinkedHashMap<>();
+        LocalDate hoje = LocalDate.now();
+        for (LocalDate dia = primeiroDia(hoje); !dia.isAfter(hoje); dia = dia.plusDays(1)) {
+            ContadorReconciliavel cadastros = cadastrosPorDia.get(dia);
+            porDia.put(dia, cadastros == null ? 0 : cadastros.valor());
+        }
+        return new EstatisticasPacientesDTO(pacientes, telefones, pacientes - telefones,
+                enderecos, pacientes - enderecos, porDia, reconciliacao);
+    }
+
+    /**
+     * Calcula as estatísticas no banco na inicialização e as corrige periodicamente.
+     * Os eventos recebidos durante as consultas não se perdem (ver ContadorReconciliavel).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.pacientesEstatisticasReconciliacaoMs:300000}",
+            fixedDelayString = "${app.pacientesEstatisticasReconciliacaoMs:300000}")
+    public synchronized void reconciliar() {
+        try {
+            long inicio = System.currentTimeMillis();
+            LocalDate primeiroDia = primeiroDia(LocalDate.now());
+            ContadorReconciliavel.Marca marcaTotal = total.marcar();
+            ContadorReconciliavel.Marca marcaTelefone = comTelefone.marcar();
+            ContadorReconciliavel.Marca marcaEndereco = comEndereco.marcar();
+            Map<LocalDate, ContadorReconciliavel.Marca> marcasDias = new HashMap<>();
+            cadastrosPorDia.forEach((dia, contador) -> marcasDias.put(dia, contador.marcar()));
+
+            long[] banco = new long[3];
+            List<List<Object[]>> totais = primario.execute(status -> particoes.consultarTodas(pacienteRepository::contarTotais));
+            for (List<Object[]> linhas : totais) {
+                Object[] linha = linhas.get(0);
+                for (int i = 0; i < banco.length; i++) {
+                    banco[i] += ((Number) linha[i]).longValue();
+                }
+            }
+            Map<LocalDate, Long> bancoDias = new HashMap<>();
+            List<List<Object[]>> porDia = primario.execute(status -> particoes.consultarTodas(
+                    () -> pacienteRepository.contarCadastrosPorDia(primeiroDia.atStartOfDay())));
+            for (List<Object[]> linhas : porDia) {
+                for (Object[] linha : linhas) {
+                    LocalDate dia = linha[0] instanceof Date data ? data.toLocalDate() : (LocalDate) linha[0];
+                    bancoDias.merge(dia, ((Number) linha[1]).longValue(), Long::sum);
+                }
+            }
+
+            long diferenca = Math.abs(total.reconciliar(banco[0], marcaTotal))
+                    + Math.abs(comTelefone.reconciliar(banco[1], marcaTelefone))
+                    + Math.abs(comEndereco.reconciliar(banco[2], marcaEndereco));
+            Set<LocalDate> diasConhecidos = new HashSet<>(bancoDias.keySet());
+            diasConhecidos.addAll(marcasDias.keySet());
+            for (LocalDate dia : diasConhecidos) {
+                if (dia.isBefore(primeiroDia)) {
+                    cadastrosPorDia.remove(dia); // Saiu da janela de dias
+                    continue;
+                }
+                diferenca += Math.abs(cadastrosPorDia.computeIfAbsent(dia, d -> new ContadorReconciliavel())
+                        .reconciliar(bancoDias.getOrDefault(dia, 0L), marcasDias.getOrDefault(dia, ContadorReconciliavel.Marca.ZERO)));
+            }
+            boolean primeira = reconciliadoEm == null;
+            reconciliadoEm = Instant.now();
+            if (primeira) {
+                log.info("Estatísticas de pacientes calculadas: {} pacientes em {} ms.", total.valor(),
+                        System.currentTimeMillis() - inicio);
+            } else if (diferenca > 0) {
+                divergencia.increment(diferenca);
+                log.info("Estatísticas de pacientes corrigidas pelo banco (divergência: {}).", diferenca);
+            }
+        } catch (RuntimeException e) {
+            // Mantém os valores atuais; a próxima execução tentará novamente
+            log.error("Erro ao reconciliar estatísticas de pacientes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Atualiza os contadores com criações, atualizações e remoções: a alteração é informada antes do commit
+     * (pode estar no banco a partir daí) e somada depois dele, se o commit aconteceu.
+     */
+    @EventListener
+    public void onPacienteAlterado(PacienteAlteradoEvent event) {
+        Map<ContadorReconciliavel, Long> variacoes = variacoes(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            variacoes.forEach(ContadorReconciliavel::somar);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean iniciado;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                variacoes.forEach(ContadorReconciliavel::iniciar);
+                iniciado = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (iniciado) {
+                    variacoes.forEach((contador, delta) -> contador.concluir(delta, status == STATUS_COMMITTED));
+                }
+            }
+        });
+    }
+
+    /**
+     * Os contadores afetados por um evento e a variação de cada um. Numa atualização, antes (-1) e depois (+1)
+     * se anulam no total e nos campos que não mudaram, e esses contadores ficam de fora.
+     */
+    private Map<ContadorReconciliavel, Long> variacoes(PacienteAlteradoEvent event) {
+        Map<ContadorReconciliavel, Long> variacoes = new HashMap<>();
+        if (event.getAntes() != null) {
+            contar(event.getAntes(), -1, variacoes);
+        }
+        if (event.getDepois() != null) {
+            contar(event.getDepois(), 1, variacoes);
+        }
+        variacoes.values().removeIf(delta -> delta == 0);
+        return variacoes;
+    }
+
+    private void contar(Paciente paciente, long delta, Map<ContadorReconciliavel, Long> variacoes) {
+        variacoes.merge(total, delta, Long::sum);
+        if (temTexto(paciente.getTelefone())) {
+            variacoes.merge(comTelefone, delta, Long::sum);
+        }
+        if (temTexto(paciente.getEndereco())) {
+            variacoes.merge(comEndereco, delta, Long::sum);
+        }
+        if (paciente.getCriadoEm() != null) {
+            LocalDate dia = paciente.getCriadoEm().toLocalDate();
+            if (!dia.isBefore(primeiroDia(LocalDate.now()))) {
+                variacoes.merge(cadastrosPorDia.computeIfAbsent(dia, d -> new ContadorReconciliavel()), delta, Long::sum);
+            }
+        }
+    }
+
+    private LocalDate primeiroDia(LocalDate hoje) {
+        return hoje.minusDays(dias - 1L);
+    }
+
+    private static boolean temTexto(String valor) {
+        return valor != null && !valor.isEmpty();
+    }
+}
@@ -0,0 +1,210 @@
+package com.uninter.sghss.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.repository.PacienteRepository;
+import com.uninter.sghss.util.MesclaOrdenada;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Serviço responsável pela exportação completa do cadastro de pacientes.
+ * Os registros são lidos por um cursor do banco (PacienteRepository.streamAllOrderById) e escritos
+ * um a um na resposta, sem montar uma lista; cada entidade é desanexada do contexto de persistência
+ * logo após ser escrita, de modo que o uso de memória não depende do tamanho da tabela.
+ * Com particionamento (app.shardsEnabled), um cursor por partição não se mescla em uma transação só:
+ * os pacientes são lidos em páginas por cursor, de todas as partições em paralelo, mescladas em ordem de ID.
+ */
+@Service
+public class PacienteExportService {
+
+    /**
+     * Formatos de exportação suportados.
+     */
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String mediaType;
+        private final String extensao;
+
+        Formato(String mediaType, String extensao) {
+            this.mediaType = mediaType;
+            this.extensao = extensao;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+
+        /**
+         * @throws IllegalArgumentException se o formato não for suportado.
+         */
+        public static Formato from(String valor) {
+            return Formato.valueOf(valor.trim().toUpperCase());
+        }
+    }
+
+    private static final int FLUSH_A_CADA = 1000; // Envia os dados ao cliente a cada N registros
+    private static final int PAGINA_PARTICOES = 1000; // Pacientes lidos de cada partição por vez, com particionamento
+    private static final Comparator<Paciente> POR_ID = Comparator.comparing(Paciente::getId);
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private PacienteParticoes particoes;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Escreve todos os pacientes, em ordem de ID, no formato solicitado.
+     * @param formato O formato de saída (NDJSON ou CSV).
+     * @param out O stream de saída (corpo da resposta HTTP).
+     * @return A quantidade de pacientes exportados.
+     * @throws IOException se houver erro de escrita (ex.: cliente desconectou).
+     */
+    @Transactional(readOnly = true)
+    public long exportar(Formato formato, OutputStream out) throws IOException {
+        if (particoes.isAtivo()) {
+            return exportar(formato, paginasDasParticoes(), out);
+        }
+        try (Stream<Paciente> pacientes = pacienteRepository.streamAllOrderById()) {
+            return exportar(formato, pacientes.iterator(), out);
+        }
+    }
+
+    private long exportar(Formato formato, Iterator<Paciente> pacientes, OutputStream out) throws IOException {
+        return formato == Formato.CSV ? exportarCsv(pacientes, out) : exportarNdjson(pacientes, out);
+    }
+
+    /**
+     * Todos os pacientes, em ordem de ID, lidos de todas as partições em páginas de PAGINA_PARTICOES
+     * (a mesma paginação por cursor de PacienteService.findPage). Fica em memória uma página por partição.
+     */
+    private Iterator<Paciente> paginasDasParticoes() {
+        return new Iterator<>() {
+            private List<Paciente> pagina = List.of();
+            private int posicao;
+            private long ultimoId;
+            private boolean ultimaPagina;
+
+            @Override
+            public boolean hasNext() {
+                if (posicao < pagina.size()) {
+                    return true;
+                }
+                if (ultimaPagina) {
+                    return false;
+                }
+                long depoisDe = ultimoId;
+                pagina = MesclaOrdenada.mesclar(particoes.consultarTodas(() -> pacienteRepository
+                        .findByIdGreaterThanOrderByIdAsc(depoisDe, Limit.of(PAGINA_PARTICOES))), POR_ID, PAGINA_PARTICOES);
+                posicao = 0;
+                ultimaPagina = pagina.size() < PAGINA_PARTICOES;
+                if (!pagina.isEmpty()) {
+                    ultimoId = pagina.get(pagina.size() - 1).getId();
+                }
+                return !pagina.isEmpty();
+            }
+
+            @Override
+            public Paciente next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return pagina.get(posicao++);
+            }
+        };
+    }
+
+    private long exportarNdjson(Iterator<Paciente> pacientes, OutputStream out) throws IOException {
+        // O flush fica a cargo do laço (a cada FLUSH_A_CADA linhas), não a cada objeto escrito
+        ObjectWriter writer = objectMapper.writerFor(Paciente.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null); // Uma linha por objeto, sem separador extra
+
+        long total = 0;
+        while (pacientes.hasNext()) {
+            Paciente paciente = pacientes.next();
+            writer.writeValue(generator, paciente);
+            generator.writeRaw('\n');
+            entityManager.detach(paciente);
+            if (++total % FLUSH_A_CADA == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+        return total;
+    }
+
+    private long exportarCsv(Iterator<Paciente> pacientes, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,nome,cpf,email,telefone,endereco\n");
+
+        long total = 0;
+        while (pacientes.hasNext()) {
+            Paciente paciente = pacientes.next();
+            writer.write(String.valueOf(paciente.getId()));
+            writer.write(',');
+            writer.write(csv(paciente.getNome()));
+            writer.write(',');
+            writer.write(csv(paciente.getCpf()));
+            writer.write(',');
+            writer.write(csv(paciente.getEmail()));
+            writer.write(',');
+            writer.write(csv(paciente.getTelefone()));
+            writer.write(',');
+            writer.write(csv(paciente.getEndereco()));
+            writer.write('\n');
+            entityManager.detach(paciente);
+            if (++total % FLUSH_A_CADA == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return total;
+    }
+
+    /**
+     * Escapa um valor para CSV (RFC 4180): aspas quando houver vírgula, aspas ou quebra de linha.
+     */
+    private static String csv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
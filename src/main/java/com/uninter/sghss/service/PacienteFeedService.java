@@ -0,0 +1,294 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.event.PacienteAlteradoEvent;
+import com.uninter.sghss.model.IdPaciente;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feed de alterações de pacientes (cadastro, atualização e remoção) por Server-Sent Events, para que
+ * sistemas integrados (agendamento, faturamento) não precisem varrer a listagem periodicamente.
+ *
+ * Os eventos são publicados após o commit, com um número de sequência crescente que é o id do evento SSE.
+ * Os últimos app.pacientesFeedReplay eventos ficam em memória: um cliente que reconecta com o cabeçalho
+ * Last-Event-ID recebe os que perdeu. Se o id for anterior a esse buffer (ou de uma execução anterior da
+ * aplicação: a sequência começa no instante de início, em microssegundos), o cliente recebe o evento
+ * "reset" e deve ressincronizar pela listagem antes de seguir o feed.
+ *
+ * Quem grava no banco só enfileira: cada assinante tem uma fila limitada (app.pacientesFeedFilaAssinante),
+ * esvaziada por um pool próprio de envio. Um assinante lento cuja fila enche é desconectado
+ * (métrica pacientes.feed.dropped) e pode retomar do último id recebido.
+ *
+ * Só para uma instância: os eventos vêm dos commits desta instância, e a sequência e o buffer ficam em memória.
+ * Com várias instâncias, um assinante não recebe o que foi gravado pelas outras, e um Last-Event-ID de outra
+ * instância não tem significado aqui. Nesse caso, as gravações e o feed precisam ser atendidos por uma mesma
+ * instância, ou os eventos precisam passar por um canal compartilhado (ex.: LISTEN/NOTIFY do Postgres).
+ */
+@Service
+public class PacienteFeedService {
+
+    /**
+     * Dados de um evento do feed. O paciente em si não é enviado: quem precisa dos dados o lê pela API
+     * (com If-None-Match e a versão), o que mantém o feed leve e os acessos registrados na auditoria.
+     */
+    public record EventoFeed(long seq, PacienteAlteradoEvent.Tipo tipo, @IdPaciente long id, Long versao) {}
+
+    private record Reset(long seq) {}
+
+    private static final Object HEARTBEAT = new Object();
+    private static final int LOTE_ENVIO = 256; // Eventos enviados por assinante antes de ceder a thread a outro
+
+    private final EventoFeed[] buffer;
+    private final long inicioSequencia;
+    private long ultimaSeq; // Protegido por synchronized (buffer)
+
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor envio;
+    private final Counter descartados;
+
+    @Value("${app.pacientesFeedFilaAssinante:1000}") // Eventos pendentes por assinante antes de desconectá-lo
+    private int tamanhoFila;
+
+    @Value("${app.pacientesFeedMaxAssinantes:100}") // Conexões simultâneas ao feed
+    private int maxAssinantes;
+
+    @Value("${app.pacientesFeedTimeoutMs:1800000}") // Duração máxima de uma conexão (o cliente reconecta com Last-Event-ID)
+    private long timeoutMs;
+
+    @Autowired
+    public PacienteFeedService(MeterRegistry meterRegistry,
+                               @Value("${app.pacientesFeedReplay:10000}") int tamanhoReplay,
+                               @Value("${app.pacientesFeedThreads:2}") int threads) {
+        this.buffer = new EventoFeed[tamanhoReplay];
+        this.inicioSequencia = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.ultimaSeq = inicioSequencia;
+        AtomicInteger contador = new AtomicInteger();
+        this.envio = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), // Cada assinante tem no máximo uma tarefa pendente
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pacientes-feed-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("pacientes.feed.subscribers", assinantes, Set::size)
+                .description("Conexões abertas no feed de alterações de pacientes")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("pacientes.feed.dropped")
+                .description("Assinantes do feed desconectados por não acompanharem os eventos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre uma conexão com o feed.
+     * @param ultimoId O Last-Event-ID enviado pelo cliente ao reconectar, ou null para receber só os próximos eventos.
+     * @return O emissor SSE da conexão.
+     * @throws IllegalStateException se o limite de conexões (app.pacientesFeedMaxAssinantes) foi atingido.
+     */
+    public SseEmitter assinar(Long ultimoId) {
+        if (assinantes.size() >= maxAssinantes) {
+            throw new IllegalStateException("Limite de conexões ao feed atingido.");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Assinante assinante = new Assinante(emitter);
+        emitter.onCompletion(assinante::encerrar);
+        emitter.onTimeout(assinante::encerrar);
+        emitter.onError(erro -> assinante.encerrar());
+
+        synchronized (buffer) { // Nenhum evento publicado entre o replay e o início do envio ao vivo se perde
+            if (ultimoId != null) {
+                List<EventoFeed> perdidos = eventosDepoisDe(ultimoId);
+                if (perdidos == null) {
+                    assinante.oferecer(new Reset(ultimaSeq), true);
+                } else {
+                    perdidos.forEach(evento -> assinante.oferecer(evento, true));
+                }
+            }
+            assinantes.add(assinante);
+        }
+        return emitter;
+    }
+
+    /**
+     * Publica no feed as alterações confirmadas (PacienteService e importação em massa).
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPacienteAlterado(PacienteAlteradoEvent event) {
+        Long versao = event.getDepois() != null ? event.getDepois().getVersao() : null;
+        synchronized (buffer) {
+            EventoFeed evento = new EventoFeed(++ultimaSeq, event.getTipo(), event.getId(), versao);
+            buffer[(int) (evento.seq() % buffer.length)] = evento;
+            for (Assinante assinante : assinantes) {
+                assinante.oferecer(evento, false);
+            }
+        }
+    }
+
+    /**
+     * Eventos com sequência maior que ultimoId, em ordem, ou null se algum deles já saiu do buffer
+     * (ou se o id não é desta execução).
+     */
+    List<EventoFeed> eventosDepoisDe(long ultimoId) {
+        synchronized (buffer) {
+            long maisAntigo = Math.max(inicioSequencia + 1, ultimaSeq - buffer.length + 1);
+            if (ultimoId > ultimaSeq || ultimoId < maisAntigo - 1) {
+                return null;
+            }
+            List<EventoFeed> eventos = new ArrayList<>((int) (ultimaSeq - ultimoId));
+            for (long seq = ultimoId + 1; seq <= ultimaSeq; seq++) {
+                eventos.add(buffer[(int) (seq % buffer.length)]);
+            }
+            return eventos;
+        }
+    }
+
+    long getUltimaSeq() {
+        synchronized (buffer) {
+            return ultimaSeq;
+        }
+    }
+
+    /**
+     * Comentário periódico em todas as conexões: mantém proxies sem derrubar conexões ociosas
+     * e detecta clientes que foram embora sem fechar a conexão.
+     */
+    @Scheduled(initialDelayString = "${app.pacientesFeedHeartbeatMs:15000}", fixedDelayString = "${app.pacientesFeedHeartbeatMs:15000}")
+    public void enviarHeartbeat() {
+        for (Assinante assinante : assinantes) {
+            assinante.oferecer(HEARTBEAT, false);
+        }
+    }
+
+    @PreDestroy
+    public void parar() {
+        for (Assinante assinante : assinantes) {
+            assinante.emitter.complete();
+        }
+        envio.shutdownNow();
+    }
+
+    /**
+     * Uma conexão ao feed. A fila é protegida pelo monitor do assinante; no máximo uma tarefa de envio
+     * por assinante fica no pool, então um cliente lento ocupa uma thread de envio, nunca quem publica.
+     */
+    private final class Assinante implements Runnable {
+
+        private final SseEmitter emitter;
+        private final ArrayDeque<Object> fila = new ArrayDeque<>();
+        private boolean agendado;
+        private boolean encerrado;
+
+        Assinante(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Enfileira sem bloquear. Com a fila cheia, desconecta o assinante.
+         * @param semLimite true para o replay da reconexão, que já é limitado pelo buffer.
+         */
+        void oferecer(Object item, boolean semLimite) {
+            boolean agendar;
+            synchronized (this) {
+                if (encerrado) {
+                    return;
+                }
+                if (!semLimite && fila.size() >= tamanhoFila) {
+                    // A conexão é concluída pela tarefa de envio (pendente, já que a fila está cheia),
+                    // para que quem publica nunca espere por um envio lento em andamento
+                    descartados.increment();
+                    encerrar();
+                    return;
+                }
+                fila.add(item);
+                agendar = !agendado;
+                agendado = true;
+            }
+            if (agendar) {
+                agendar();
+            }
+        }
+
+        private void agendar() {
+            try {
+                envio.execute(this);
+            } catch (RejectedExecutionException e) { // Aplicação encerrando
+                encerrar();
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < LOTE_ENVIO; i++) {
+                Object item;
+                boolean fechar;
+                synchronized (this) {
+                    fechar = encerrado;
+                    item = fechar ? null : fila.poll();
+                    if (item == null) {
+                        agendado = false;
+                    }
+                }
+                if (fechar) {
+                    emitter.complete(); // O cliente reconecta com o último id recebido
+                    return;
+                }
+                if (item == null) {
+                    return;
+                }
+                try {
+                    enviar(item);
+                } catch (IOException | IllegalStateException e) { // Cliente desconectado ou emissor já concluído
+                    encerrar();
+                    return;
+                }
+            }
+            agendar(); // Ainda há eventos: volta para o fim da fila do pool
+        }
+
+        private void enviar(Object item) throws IOException {
+            if (item == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else if (item instanceof Reset reset) {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(reset.seq()))
+                        .name("reset")
+                        .data(Map.of("seq", reset.seq()), MediaType.APPLICATION_JSON));
+            } else {
+                EventoFeed evento = (EventoFeed) item;
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(evento.seq()))
+                        .data(evento, MediaType.APPLICATION_JSON));
+            }
+        }
+
+        void encerrar() {
+            synchronized (this) {
+                encerrado = true;
+                fila.clear();
+            }
+            assinantes.remove(this);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.event.PacienteAlteradoEvent;
+import com.uninter.sghss.model.Paciente;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Gravação em lote (group commit) de cadastros e atualizações de pacientes, ligada por
+ * app.pacientesGroupCommitEnabled.
+ *
+ * Em um cadastro em massa, cada save/update com a sua própria transação paga um commit (fsync no Postgres),
+ * e é o commit que limita a vazão de escrita. Aqui a requisição valida os dados na própria thread e coloca a
+ * gravação em uma fila limitada; uma única thread gravadora junta as gravações em uma transação, até
+ * app.pacientesGroupCommitLote gravações ou app.pacientesGroupCommitJanelaMs desde a primeira, e faz um
+ * commit só. O CompletableFuture de cada gravação termina depois do commit: o cliente continua recebendo
+ * a resposta só quando o dado está gravado. Cada atualização recebe uma cópia do paciente tirada logo depois
+ * dela: duas atualizações do mesmo paciente no mesmo lote compartilham a entidade gerenciada, mas cada
+ * resposta traz os dados e a versão da sua própria gravação.
+ *
+ * Se o lote falhar no banco (ex.: violação de unicidade de duas requisições concorrentes), cada gravação
+ * é refeita na sua própria transação, para que só a gravação com problema receba o erro.
+ * Com a fila cheia, a gravação é recusada na hora (RejectedExecutionException, 503 no controller).
+ * Se o commit demorar mais que app.pacientesGroupCommitEsperaMaxMs, a gravação é cancelada se ainda estiver
+ * na fila (TimeoutException, 503: nada foi gravado). Se já estiver em uma transação, a requisição espera o
+ * resultado dela, limitada pelo timeout da transação (o mesmo tempo).
+ * Com particionamento (app.shardsEnabled), o lote é separado por partição: uma transação e um commit por partição.
+ */
+@Component
+public class PacienteGravacaoEmLote {
+
+    private static final Logger log = LoggerFactory.getLogger(PacienteGravacaoEmLote.class);
+
+    private final PacienteService pacienteService;
+    private final PacienteParticoes particoes;
+    private final TransactionTemplate transactionTemplate;
+    private final ArrayBlockingQueue<Gravacao> fila;
+    private final Timer commits;
+    private final DistributionSummary tamanhos;
+    private final Counter refeitos;
+    private final Counter recusas;
+
+    @Value("${app.pacientesGroupCommitEnabled:false}")
+    private boolean enabled;
+
+    @Value("${app.pacientesGroupCommitLote:200}") // Gravações por transação
+    private int tamanhoLote;
+
+    @Value("${app.pacientesGroupCommitJanelaMs:5}") // Espera máxima por mais gravações depois da primeira do lote
+    private long janelaMs;
+
+    @Value("${app.pacientesGroupCommitEsperaMaxMs:10000}") // Espera máxima da requisição pelo commit da sua gravação
+    private long esperaMaxMs;
+
+    private Thread gravadora;
+    private volatile boolean ativo;
+
+    @Autowired
+    public PacienteGravacaoEmLote(PacienteService pacienteService, PacienteParticoes particoes,
+                                  PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                  @Value("${app.pacientesGroupCommitFila:10000}") int capacidade) {
+        this.pacienteService = pacienteService;
+        this.particoes = particoes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        Gauge.builder("pacientes.group.commit.queue", fila, ArrayBlockingQueue::size)
+                .description("Gravações de pacientes aguardando a thread gravadora")
+                .register(meterRegistry);
+        this.commits = Timer.builder("pacientes.group.commit")
+                .description("Duração de cada transação de gravação em lote (inclui o commit)")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.tamanhos = DistributionSummary.builder("pacientes.group.commit.size")
+                .description("Gravações por transação de gravação em lote")
+                .register(meterRegistry);
+        this.refeitos = Counter.builder("pacientes.group.commit.fallback")
+                .description("Lotes que falharam no banco e tiveram as gravações refeitas uma a uma")
+                .register(meterRegistry);
+        this.recusas = Counter.builder("pacientes.group.commit.rejected")
+                .description("Gravações recusadas com a fila de gravação em lote cheia")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!enabled) {
+            return;
+        }
+        // Segundos, arredondados para cima: limita a espera de quem já não pode cancelar a sua gravação
+        transactionTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(esperaMaxMs + 999)));
+        ativo = true;
+        gravadora = new Thread(this::gravar, "pacientes-group-commit");
+        gravadora.setDaemon(true);
+        gravadora.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enfileira o cadastro de um paciente.
+     * @return Um future com o paciente salvo, concluído após o commit; ou com a mesma exceção de PacienteService.save.
+     * @throws RuntimeException se o CPF ou Email já estiverem cadastrados (verificado antes de enfileirar).
+     * @throws RejectedExecutionException se a fila estiver cheia.
+     */
+    public CompletableFuture<Paciente> salvar(Paciente paciente) {
+        pacienteService.validarNovo(paciente);
+        // Cada tentativa grava uma cópia: se o lote voltar, a entidade da tentativa anterior já tem ID e versão
+        return enfileirar(new Gravacao(() -> pacienteService.gravarNovo(PacienteAlteradoEvent.copia(paciente)),
+                particoes.particaoDoCpf(paciente.getCpf()), paciente.getCpf(), paciente.getEmail()));
+    }
+
+    /**
+     * Enfileira a atualização de um paciente.
+     * @return Um future com o paciente atualizado, concluído após o commit; ou com a mesma exceção de PacienteService.update.
+     * @throws RejectedExecutionException se a fila estiver cheia.
+     */
+    public CompletableFuture<Paciente> atualizar(Long id, Paciente pacienteDetails, Collection<Long> versoesAceitas) {
+        return enfileirar(new Gravacao(() -> pacienteService.gravarAtualizacao(id, pacienteDetails, versoesAceitas),
+                particoes.particaoDoId(id), null, null));
+    }
+
+    /**
+     * Espera o resultado de uma gravação por até app.pacientesGroupCommitEsperaMaxMs, relançando a exceção
+     * original (como na chamada direta ao serviço). Passado esse tempo, a gravação é cancelada se ainda estiver
+     * na fila; se já estiver em uma transação, espera o fim dela.
+     * @throws TimeoutException se a gravação foi cancelada por tempo (ex.: banco travado): ela não será gravada.
+     */
+    public Paciente aguardar(CompletableFuture<Paciente> gravacao) throws TimeoutException {
+        try {
+            try {
+                return gravacao.get(esperaMaxMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (gravacao.cancel(false)) {
+                    throw e;
+                }
+                return gravacao.get(); // Já em uma transação: o resultado dela é o que vale
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Espera pela gravação em lote interrompida.");
+        }
+    }
+
+    private CompletableFuture<Paciente> enfileirar(Gravacao gravacao) {
+        if (!ativo) {
+            throw new RejectedExecutionException("Gravação em lote desligada.");
+        }
+        if (!fila.offer(gravacao)) {
+            recusas.increment();
+            throw new RejectedExecutionException("Fila de gravação em lote cheia.");
+        }
+        return gravacao.resultado;
+    }
+
+    /**
+     * Laço da thread gravadora: monta um lote (por tamanho ou janela de tempo) e grava em uma transação.
+     */
+    private void gravar() {
+        List<Gravacao> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Gravacao primeira = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                lote.add(primeira);
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(janelaMs);
+                while (lote.size() < tamanhoLote) {
+                    if (fila.drainTo(lote, tamanhoLote - lote.size()) > 0) {
+                        continue;
+                    }
+                    long resta = limite - System.nanoTime();
+                    Gravacao proxima = resta > 0 ? fila.poll(resta, TimeUnit.NANOSECONDS) : null;
+                    if (proxima == null) {
+                        break;
+                    }
+                    lote.add(proxima);
+                }
+                lote.removeIf(gravacao -> !gravacao.resultado.iniciar()); // Canceladas por tempo na fila
+                if (lote.isEmpty()) {
+                    continue;
+                }
+                // Uma transação usa uma só partição
+                particoes.agrupar(lote, gravacao -> gravacao.particao)
+                        .forEach((particao, parte) -> particoes.naParticao(particao, () -> gravarLote(parte)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Erro na gravação em lote de pacientes: {}", e.getMessage());
+                lote.forEach(gravacao -> gravacao.resultado.completeExceptionally(e));
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void gravarLote(List<Gravacao> lote) {
+        tamanhos.record(lote.size());
+        long inicio = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> cpfs = new HashSet<>();
+                Set<String> emails = new HashSet<>();
+                for (Gravacao gravacao : lote) {
+                    // Dois cadastros do mesmo CPF/Email no lote: o índice em memória só vê o primeiro após o commit
+                    if (gravacao.cpf != null && !cpfs.add(gravacao.cpf)) {
+                        gravacao.erro = new RuntimeException("CPF já cadastrado.");
+                    } else if (gravacao.email != null && !emails.add(gravacao.email)) {
+                        gravacao.erro = new RuntimeException("Email já cadastrado.");
+                    } else {
+                        executar(gravacao);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // O lote inteiro voltou: cada gravação é refeita na sua própria transação
+            refeitos.increment();
+            for (Gravacao gravacao : lote) {
+                gravacao.salvo = null;
+                gravacao.erro = null;
+                try {
+                    transactionTemplate.executeWithoutResult(status -> executar(gravacao));
+                } catch (RuntimeException erroDoCommit) {
+                    if (gravacao.erro == null) {
+                        gravacao.erro = erroDoCommit;
+                    }
+                }
+            }
+        } finally {
+            commits.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+        for (Gravacao gravacao : lote) {
+            if (gravacao.erro != null) {
+                gravacao.resultado.completeExceptionally(gravacao.erro);
+            } else {
+                gravacao.resultado.complete(gravacao.salvo);
+            }
+        }
+    }
+
+    /**
+     * Executa a gravação com o usuário e a requisição de quem a enfileirou (auditoria, leitura própria nas réplicas).
+     * Recusas do serviço (CPF duplicado, versão divergente...) ficam só nesta gravação.
+     */
+    private void executar(Gravacao gravacao) {
+        SecurityContext contextoAnterior = SecurityContextHolder.getContext();
+        SecurityContextHolder.setContext(gravacao.seguranca);
+        RequestContextHolder.setRequestAttributes(gravacao.requisicao);
+        try {
+            Paciente salvo = gravacao.operacao.get();
+            // Atualizações do mesmo paciente no lote alteram a mesma entidade gerenciada: cada uma responde com a
+            // sua cópia. Um cadastro tem a sua própria entidade, que só recebe o criadoEm no flush do commit.
+            gravacao.salvo = gravacao.cpf == null ? PacienteAlteradoEvent.copia(salvo) : salvo;
+        } catch (RuntimeException e) {
+            gravacao.erro = e;
+        } finally {
+            SecurityContextHolder.setContext(contextoAnterior);
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    /**
+     * Grava o que ainda está na fila antes de encerrar.
+     */
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (gravadora == null) {
+            return;
+        }
+        ativo = false;
+        gravadora.join(TimeUnit.SECONDS.toMillis(10));
+        RejectedExecutionException encerrando = new RejectedExecutionException("Aplicação encerrando.");
+        Gravacao restante;
+        while ((restante = fila.poll()) != null) {
+            restante.resultado.completeExceptionally(encerrando);
+        }
+    }
+
+    private static final class Gravacao {
+        private final Supplier<Paciente> operacao;
+        private final int particao;
+        private final String cpf; // Só em cadastros: duplicidade dentro do mesmo lote
+        private final String email;
+        private final SecurityContext seguranca = SecurityContextHolder.getContext();
+        private final RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+        private final Resultado resultado = new Resultado();
+
+        // Usados só pela thread gravadora
+        private Paciente salvo;
+        private RuntimeException erro;
+
+        Gravacao(Supplier<Paciente> operacao, int particao, String cpf, String email) {
+            this.operacao = operacao;
+            this.particao = particao;
+            this.cpf = cpf;
+            this.email = email;
+        }
+    }
+
+    /**
+     * Resultado de uma gravação, que só pode ser cancelado enquanto ela está na fila.
+     */
+    private static final class Resultado extends CompletableFuture<Paciente> {
+        private final AtomicBoolean decidido = new AtomicBoolean(); // Iniciada pela gravadora ou cancelada
+
+        /**
+         * Marca a gravação como iniciada pela gravadora.
+         * @return false se ela já foi cancelada e não deve ser gravada.
+         */
+        boolean iniciar() {
+            return decidido.compareAndSet(false, true);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return decidido.compareAndSet(false, true) && super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
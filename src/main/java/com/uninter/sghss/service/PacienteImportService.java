@@ -0,0 +1,225 @@
+package com.uninter.sghss.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uninter.sghss.dto.ImportacaoResultadoDTO;
+import com.uninter.sghss.event.PacienteAlteradoEvent;
+import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.repository.PacienteRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço de importação em massa de pacientes (ex.: cadastro inicial de uma nova unidade hospitalar).
+ *
+ * O corpo é lido em streaming (array JSON ou NDJSON) e processado em lotes de app.pacientesImportChunkSize linhas.
+ * Para cada lote: validação das linhas, verificação de CPF/Email duplicados com uma consulta por campo
+ * (em vez de duas consultas por linha) e inserção em uma única transação com batching JDBC.
+ * Se o lote falhar no banco (ex.: um CPF inserido por outra requisição ao mesmo tempo), as linhas
+ * do lote são reprocessadas uma a uma para que apenas as conflitantes sejam rejeitadas.
+ * Com particionamento (app.shardsEnabled), cada lote é separado pela partição do CPF de cada linha.
+ */
+@Service
+public class PacienteImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PacienteImportService.class);
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private PacienteUniqueIndex uniqueIndex;
+
+    @Autowired
+    private PacienteParticoes particoes;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.pacientesImportChunkSize:500}")
+    private int chunkSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public PacienteImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Importa os pacientes contidos no corpo da requisição.
+     * @param in O corpo da requisição: um array JSON de pacientes ou um paciente JSON por linha (NDJSON).
+     * @return O relatório da importação, com o resultado de cada linha.
+     * @throws IOException se houver erro de leitura do corpo.
+     */
+    public ImportacaoResultadoDTO importar(InputStream in) throws IOException {
+        ImportacaoResultadoDTO resultado = new ImportacaoResultadoDTO();
+        Set<String> cpfsVistos = new HashSet<>(); // Duplicidades dentro do próprio arquivo
+        Set<String> emailsVistos = new HashSet<>();
+        List<Linha> lote = new ArrayList<>(chunkSize);
+        int numeroLinha = 0;
+
+        // readValues percorre tanto os elementos de um array JSON quanto uma sequência de objetos (NDJSON)
+        try (MappingIterator<Paciente> iterator = objectMapper.readerFor(Paciente.class).readValues(in)) {
+            while (true) {
+                Paciente paciente;
+                numeroLinha++;
+                try {
+                    if (!iterator.hasNextValue()) {
+                        break;
+                    }
+                    paciente = iterator.nextValue();
+                } catch (JsonParseException e) {
+                    // JSON malformado: não há como continuar a leitura com segurança
+                    resultado.rejeitado(numeroLinha, "JSON inválido: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    resultado.rejeitado(numeroLinha, "Linha inválida: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                String erro = validar(paciente, cpfsVistos, emailsVistos);
+                if (erro != null) {
+                    resultado.rejeitado(numeroLinha, erro);
+                    continue;
+                }
+                lote.add(new Linha(numeroLinha, paciente));
+                if (lote.size() >= chunkSize) {
+                    processarLote(lote, resultado);
+                    lote.clear();
+                }
+            }
+        }
+        if (!lote.isEmpty()) {
+            processarLote(lote, resultado);
+        }
+
+        resultado.getLinhas().sort(Comparator.comparingInt(ImportacaoResultadoDTO.Linha::getLinha));
+        return resultado;
+    }
+
+    /**
+     * Valida uma linha (Bean Validation e duplicidade dentro do arquivo).
+     * @return A mensagem de erro, ou null se a linha for válida.
+     */
+    private String validar(Paciente paciente, Set<String> cpfsVistos, Set<String> emailsVistos) {
+        if (paciente == null) {
+            return "Linha vazia.";
+        }
+        paciente.setId(null); // O ID é sempre gerado pelo banco
+        Set<ConstraintViolation<Paciente>> violacoes = validator.validate(paciente);
+        if (!violacoes.isEmpty()) {
+            return violacoes.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(" "));
+        }
+        if (!cpfsVistos.add(paciente.getCpf())) {
+            return "CPF repetido no arquivo.";
+        }
+        if (!emailsVistos.add(paciente.getEmail())) {
+            return "Email repetido no arquivo.";
+        }
+        return null;
+    }
+
+    private void processarLote(List<Linha> lote, ImportacaoResultadoDTO resultado) {
+        particoes.agrupar(lote, linha -> particoes.particaoDoCpf(linha.paciente.getCpf()))
+                .forEach((particao, parte) -> particoes.naParticao(particao, () -> processarParte(parte, resultado)));
+    }
+
+    private void processarParte(List<Linha> lote, ImportacaoResultadoDTO resultado) {
+        // Duplicidades com o banco: uma consulta para CPFs e uma para Emails por lote, apenas com os
+        // valores que o índice em memória não descarta (em uma carga inicial, normalmente nenhum)
+        List<String> cpfsSuspeitos = lote.stream().map(l -> l.paciente.getCpf())
+                .filter(uniqueIndex::cpfPodeExistir).toList();
+        List<String> emailsSuspeitos = lote.stream().map(l -> l.paciente.getEmail())
+                .filter(uniqueIndex::emailPodeExistir).toList();
+        Set<String> cpfsExistentes = cpfsSuspeitos.isEmpty()
+                ? Set.of() : new HashSet<>(pacienteRepository.findExistingCpfs(cpfsSuspeitos));
+        Set<String> emailsExistentes = new HashSet<>(); // O Email pode estar em qualquer partição
+        if (!emailsSuspeitos.isEmpty()) {
+            particoes.consultarTodas(() -> pacienteRepository.findExistingEmails(emailsSuspeitos))
+                    .forEach(emailsExistentes::addAll);
+        }
+
+        List<Linha> validas = new ArrayList<>(lote.size());
+        for (Linha linha : lote) {
+            if (cpfsExistentes.contains(linha.paciente.getCpf())) {
+                resultado.rejeitado(linha.numero, "CPF já cadastrado.");
+            } else if (emailsExistentes.contains(linha.paciente.getEmail())) {
+                resultado.rejeitado(linha.numero, "Email já cadastrado.");
+            } else {
+                validas.add(linha);
+            }
+        }
+        if (validas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Paciente> salvos = pacienteRepository.saveAll(validas.stream().map(l -> l.paciente).toList());
+                pacienteRepository.flush(); // Envia os inserts em lote (hibernate.jdbc.batch_size)
+                salvos.forEach(salvo -> eventPublisher.publishEvent(PacienteAlteradoEvent.criado(salvo)));
+                entityManager.clear(); // Libera as entidades do lote do contexto de persistência
+            });
+            for (Linha linha : validas) {
+                resultado.importado(linha.numero, linha.paciente.getId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Erro ao importar lote de pacientes, reprocessando linha a linha: {}", e.getMessage());
+            for (Linha linha : validas) {
+                try {
+                    linha.paciente.setId(null);
+                    resultado.importado(linha.numero, pacienteService.save(linha.paciente).getId());
+                } catch (RuntimeException ex) {
+                    resultado.rejeitado(linha.numero, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Paciente ainda não inserido e a sua posição no corpo da requisição.
+     */
+    private static class Linha {
+        private final int numero;
+        private final Paciente paciente;
+
+        Linha(int numero, Paciente paciente) {
+            this.numero = numero;
+            this.paciente = paciente;
+        }
+    }
+}
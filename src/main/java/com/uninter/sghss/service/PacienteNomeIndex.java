@@ -0,0 +1,169 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.event.PacienteAlteradoEvent;
+import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.repository.PacienteRepository;
+import com.uninter.sghss.util.IndiceTrigramas;
+import com.uninter.sghss.util.NormalizadorTexto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice em memória dos nomes de pacientes para busca sem acentos e sem diferenciar maiúsculas
+ * (ex.: "jose silva" encontra "José da Silva"), sem varrer a tabela com LIKE '%...%'.
+ *
+ * Os nomes são normalizados (NormalizadorTexto) e indexados por trigramas (IndiceTrigramas).
+ * É aquecido na inicialização e mantido pelos eventos de PacienteService (após o commit),
+ * da mesma forma que o PacienteUniqueIndex.
+ */
+@Component
+public class PacienteNomeIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PacienteNomeIndex.class);
+
+    private static final int LOTE_AQUECIMENTO = 1000;
+
+    private final IndiceTrigramas indice = new IndiceTrigramas();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean pronto;
+
+    private final PacienteRepository pacienteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PacienteParticoes particoes;
+
+    @Autowired
+    public PacienteNomeIndex(PacienteRepository pacienteRepository, PacienteParticoes particoes,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.pacienteRepository = pacienteRepository;
+        this.particoes = particoes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        Gauge.builder("pacientes.nome.index.size", this, PacienteNomeIndex::size)
+                .description("Quantidade de nomes no índice de busca")
+                .register(meterRegistry);
+        Gauge.builder("pacientes.nome.index.bytes", this, PacienteNomeIndex::estimatedBytes)
+                .description("Memória aproximada do índice de busca por nome")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carrega o índice a partir do banco. Até terminar, isPronto() retorna false.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void aquecer() {
+        long inicio = System.currentTimeMillis();
+        // Com particionamento, lê cada partição em sequência
+        particoes.emCadaParticao(() -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> nomes = pacienteRepository.streamIdAndNome()) {
+                Iterator<Object[]> iterator = nomes.iterator();
+                while (iterator.hasNext()) {
+                    // Insere em lotes para não segurar o lock de escrita durante toda a leitura
+                    lock.writeLock().lock();
+                    try {
+                        for (int i = 0; i < LOTE_AQUECIMENTO && iterator.hasNext(); i++) {
+                            Object[] linha = iterator.next();
+                            indexar((Long) linha[0], (String) linha[1]);
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+            }
+        }));
+        pronto = true;
+        log.info("Índice de nomes de pacientes carregado: {} nomes ({} KB) em {} ms.", size(),
+                estimatedBytes() / 1024, System.currentTimeMillis() - inicio);
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Busca os pacientes cujo nome contém todas as palavras informadas, ignorando acentos e maiúsculas.
+     * @param nome O texto buscado (palavras com menos de 2 letras são ignoradas).
+     * @param limite A quantidade máxima de resultados.
+     * @return Os IDs dos pacientes encontrados, do mais para o menos relevante.
+     */
+    public List<Long> buscar(String nome, int limite) {
+        String consulta = NormalizadorTexto.normalizar(nome);
+        lock.readLock().lock();
+        try {
+            return indice.search(consulta, limite).stream().map(IndiceTrigramas.Resultado::id).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return indice.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Memória aproximada ocupada pelo índice, em bytes.
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return indice.estimatedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mantém o índice atualizado após o commit de criações, atualizações e remoções.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPacienteAlterado(PacienteAlteradoEvent event) {
+        Paciente antes = event.getAntes();
+        Paciente depois = event.getDepois();
+        if (antes != null && depois != null && Objects.equals(antes.getNome(), depois.getNome())) {
+            return; // Atualização sem mudança de nome
+        }
+        lock.writeLock().lock();
+        try {
+            if (depois != null) {
+                indexar(depois.getId(), depois.getNome());
+            } else if (antes != null && antes.getId() != null) {
+                indice.remove(antes.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexar(Long id, String nome) {
+        if (id == null) {
+            return;
+        }
+        String normalizado = NormalizadorTexto.normalizar(nome);
+        if (normalizado.isEmpty()) {
+            indice.remove(id);
+        } else {
+            indice.put(id, normalizado);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.config.ParticoesDataSource;
+import com.uninter.sghss.util.MapaParticoes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Decide em qual partição cada operação com pacientes é executada (app.shardsEnabled, ver ParticoesConfig).
+ *
+ * - Operações sobre um paciente vão para uma única partição: a do CPF (cadastro, busca por CPF) ou a do
+ *   bucket guardado no ID (leitura, atualização, remoção), sem consultar nenhum banco para descobrir qual.
+ * - Consultas sobre todos os pacientes (listagem, total, exportação, Email duplicado) vão para todas as
+ *   partições em paralelo, cada uma na sua transação somente leitura; quem chama junta os resultados
+ *   (ex.: MesclaOrdenada, para manter a ordem de ID da listagem por cursor).
+ *
+ * Sem particionamento, as operações rodam direto na thread e na transação de quem chama, como antes.
+ */
+@Component
+public class PacienteParticoes {
+
+    private final MapaParticoes mapa; // null sem particionamento
+    private final TransactionTemplate leitura;
+    private final ThreadPoolExecutor executor;
+    private final Timer consultasEmTodas;
+
+    @Autowired
+    public PacienteParticoes(ObjectProvider<MapaParticoes> mapa, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.shardScatterThreads:16}") int threads) {
+        this.mapa = mapa.getIfAvailable();
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+        if (this.mapa == null) {
+            this.executor = null;
+            this.consultasEmTodas = null;
+            return;
+        }
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pacientes-particoes-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        new ExecutorServiceMetrics(executor, "pacientesParticoes", Tags.empty()).bindTo(meterRegistry);
+        this.consultasEmTodas = Timer.builder("pacientes.shards.scatter")
+                .description("Duração das consultas feitas em todas as partições (até a resposta da mais lenta)")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public boolean isAtivo() {
+        return mapa != null;
+    }
+
+    public int particaoDoCpf(String cpf) {
+        return mapa == null ? 0 : mapa.particaoDoCpf(cpf);
+    }
+
+    public int particaoDoId(Long id) {
+        return mapa == null ? 0 : mapa.particaoDoId(id);
+    }
+
+    /**
+     * Executa a operação na partição informada. Deve abrir a sua própria transação, ou ser chamada dentro de uma
+     * transação que ainda não usou o banco: uma transação não muda de partição depois do primeiro comando SQL.
+     */
+    public <T> T naParticao(int particao, Supplier<T> operacao) {
+        return mapa == null ? operacao.get() : ParticoesDataSource.naParticao(particao, operacao);
+    }
+
+    public void naParticao(int particao, Runnable operacao) {
+        naParticao(particao, () -> {
+            operacao.run();
+            return null;
+        });
+    }
+
+    /**
+     * Executa a operação uma vez em cada partição, em sequência (ex.: aquecimento dos índices em memória).
+     */
+    public void emCadaParticao(Runnable operacao) {
+        int particoes = mapa == null ? 1 : mapa.getParticoes();
+        for (int particao = 0; particao < particoes; particao++) {
+            naParticao(particao, operacao);
+        }
+    }
+
+    /**
+     * Separa os itens pela partição de cada um, em ordem de partição.
+     * Sem particionamento, devolve todos os itens na partição 0, sem chamar a função.
+     */
+    public <T> Map<Integer, List<T>> agrupar(Collection<T> itens, ToIntFunction<T> particaoDoItem) {
+        Map<Integer, List<T>> grupos = new TreeMap<>();
+        if (mapa == null) {
+            grupos.put(0, itens instanceof List<T> lista ? lista : new ArrayList<>(itens));
+            return grupos;
+        }
+        for (T item : itens) {
+            grupos.computeIfAbsent(particaoDoItem.applyAsInt(item), particao -> new ArrayList<>()).add(item);
+        }
+        return grupos;
+    }
+
+    /**
+     * Executa a consulta em todas as partições, em paralelo, cada uma na sua transação somente leitura.
+     * @return O resultado de cada partição, na ordem das partições (um único resultado sem particionamento).
+     * @throws RuntimeException a exceção da consulta, se ela falhar em alguma partição.
+     */
+    public <T> List<List<T>> consultarTodas(Supplier<List<T>> consulta) {
+        if (mapa == null) {
+            return List.of(consulta.get());
+        }
+        long inicio = System.nanoTime();
+        List<CompletableFuture<List<T>>> pendentes = new ArrayList<>(mapa.getParticoes());
+        for (int particao = 0; particao < mapa.getParticoes(); particao++) {
+            int destino = particao;
+            pendentes.add(CompletableFuture.supplyAsync(
+                    () -> ParticoesDataSource.naParticao(destino, () -> leitura.execute(status -> consulta.get())),
+                    executor));
+        }
+        try {
+            List<List<T>> resultados = new ArrayList<>(pendentes.size());
+            for (CompletableFuture<List<T>> pendente : pendentes) {
+                resultados.add(pendente.join());
+            }
+            return resultados;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        } finally {
+            consultasEmTodas.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void parar() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,12 +1,29 @@
 package com.uninter.sghss.service;
 
+import com.uninter.sghss.dto.CampoPaciente;
+import com.uninter.sghss.dto.PacienteParcialDTO;
+import com.uninter.sghss.dto.PaginaCursorDTO;
+import com.uninter.sghss.event.PacienteAlteradoEvent;
 import com.uninter.sghss.model.Paciente;
 import com.uninter.sghss.repository.PacienteRepository;
+import com.uninter.sghss.util.MesclaOrdenada;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Serviço responsável pela lógica de negócio relacionada aos Pacientes.
@@ -15,9 +32,50 @@ import java.util.Optional;
 @Service
 public class PacienteService {
 
+    private static final Comparator<Paciente> POR_ID = Comparator.comparing(Paciente::getId);
+
     @Autowired
     private PacienteRepository pacienteRepository;
 
+    @Autowired
+    private PacienteUniqueIndex uniqueIndex;
+
+    @Autowired
+    private PacienteNomeIndex nomeIndex;
+
+    @Autowired
+    private PacienteCache pacienteCache;
+
+    @Autowired
+    private PacienteParticoes particoes; // Partição de cada operação (app.shardsEnabled)
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher; // Notifica índices e caches após o commit
+
+    @Value("${app.pacientesPageSize:50}") // Tamanho de página padrão da listagem
+    private int pageSize;
+
+    @Value("${app.pacientesMaxPageSize:500}") // Tamanho máximo de página aceito do cliente
+    private int maxPageSize;
+
+    @Value("${app.pacientesCountCacheMs:5000}") // Por quanto tempo o total de pacientes é reaproveitado
+    private long countCacheMs;
+
+    @Value("${app.pacientesBuscaLimit:20}") // Quantidade padrão de resultados da busca por nome
+    private int buscaLimit;
+
+    @Value("${app.pacientesBuscaMaxLimit:100}") // Quantidade máxima de resultados da busca por nome
+    private int buscaMaxLimit;
+
+    @Value("${app.pacientesMultiGetMax:1000}") // Quantidade máxima de IDs em uma busca por vários IDs
+    private int multiGetMax;
+
+    @Value("${app.pacientesMultiGetLote:200}") // IDs por consulta IN na busca por vários IDs
+    private int multiGetLote;
+
+    private volatile long totalCache = -1;
+    private volatile long totalCacheExpiraEm;
+
     /**
      * Salva um novo paciente no banco de dados.
      * Realiza validação para garantir que CPF e Email não sejam duplicados.
@@ -25,31 +83,257 @@ public class PacienteService {
      * @return O paciente salvo com o ID gerado.
      * @throws RuntimeException se o CPF ou Email já estiverem cadastrados.
      */
+    @Transactional
     public Paciente save(Paciente paciente) {
-        if (pacienteRepository.findByCpf(paciente.getCpf()).isPresent()) {
+        return gravarNovo(paciente);
+    }
+
+    /**
+     * Verifica se o CPF e o Email de um novo paciente ainda não estão cadastrados.
+     * @param paciente O paciente a ser cadastrado.
+     * @throws RuntimeException se o CPF ou Email já estiverem cadastrados.
+     */
+    public void validarNovo(Paciente paciente) {
+        // O índice em memória evita as consultas quando o CPF/Email certamente não existem
+        String cpf = paciente.getCpf();
+        if (uniqueIndex.cpfPodeExistir(cpf)
+                && particoes.naParticao(particoes.particaoDoCpf(cpf), () -> pacienteRepository.findByCpf(cpf)).isPresent()) {
             throw new RuntimeException("CPF já cadastrado.");
         }
-        if (pacienteRepository.findByEmail(paciente.getEmail()).isPresent()) {
+        if (uniqueIndex.emailPodeExistir(paciente.getEmail()) && emailCadastrado(paciente.getEmail())) {
             throw new RuntimeException("Email já cadastrado.");
         }
-        return pacienteRepository.save(paciente);
+    }
+
+    /**
+     * Com particionamento, o Email não define a partição: a verificação consulta todas.
+     */
+    private boolean emailCadastrado(String email) {
+        return particoes.consultarTodas(() -> pacienteRepository.findByEmail(email).stream().toList())
+                .stream().anyMatch(encontrados -> !encontrados.isEmpty());
+    }
+
+    /**
+     * Corpo de save, sem @Transactional: deve ser chamado dentro de uma transação já aberta.
+     * Usado pela gravação em lote (PacienteGravacaoEmLote), em que a recusa de uma gravação
+     * (ex.: CPF duplicado) não pode marcar para rollback a transação das demais gravações do lote.
+     */
+    public Paciente gravarNovo(Paciente paciente) {
+        return particoes.naParticao(particoes.particaoDoCpf(paciente.getCpf()), () -> {
+            validarNovo(paciente);
+            Paciente salvo = pacienteRepository.save(paciente);
+            eventPublisher.publishEvent(PacienteAlteradoEvent.criado(salvo));
+            return salvo;
+        });
     }
 
     /**
      * Retorna uma lista de todos os pacientes cadastrados.
+     * Carrega a tabela inteira em memória; para a API, use findPage.
      * @return Uma lista de objetos Paciente.
      */
+    @Transactional(readOnly = true)
     public List<Paciente> findAll() {
-        return pacienteRepository.findAll();
+        return particoes.consultarTodas(pacienteRepository::findAll).stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * Retorna uma página de pacientes em ordem de ID, paginada por cursor (keyset).
+     * Diferente da paginação por offset, o custo de cada página não cresce com a profundidade.
+     * Com particionamento, cada partição devolve a sua próxima página e as páginas são mescladas em ordem de ID.
+     * @param cursor O cursor devolvido pela página anterior, ou null para a primeira página.
+     * @param size O tamanho de página solicitado (limitado a app.pacientesMaxPageSize), ou null para o padrão.
+     * @return A página de pacientes e o cursor da próxima página (null se for a última).
+     * @throws IllegalArgumentException se o cursor ou o tamanho forem inválidos.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<Paciente> findPage(String cursor, Integer size) {
+        int tamanho = tamanhoDePagina(size);
+        Long depoisDe = cursor == null || cursor.isEmpty() ? 0L : PaginaCursorDTO.decodeCursor(cursor);
+
+        // Busca um item a mais para saber se existe próxima página sem precisar de COUNT
+        List<Paciente> pacientes = MesclaOrdenada.mesclar(particoes.consultarTodas(
+                () -> pacienteRepository.findByIdGreaterThanOrderByIdAsc(depoisDe, Limit.of(tamanho + 1))), POR_ID, tamanho + 1);
+        String proximoCursor = null;
+        if (pacientes.size() > tamanho) {
+            pacientes = pacientes.subList(0, tamanho);
+            proximoCursor = PaginaCursorDTO.encodeCursor(pacientes.get(tamanho - 1).getId());
+        }
+        return new PaginaCursorDTO<>(pacientes, proximoCursor);
+    }
+
+    /**
+     * Igual a findPage, mas lê do banco só as colunas dos campos pedidos (visão resumida ou ?fields=),
+     * sem carregar entidades.
+     * @param campos Os campos de cada paciente na resposta.
+     * @throws IllegalArgumentException se o cursor ou o tamanho forem inválidos.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<PacienteParcialDTO> findPage(String cursor, Integer size, Set<CampoPaciente> campos) {
+        int tamanho = tamanhoDePagina(size);
+        Long depoisDe = cursor == null || cursor.isEmpty() ? 0L : PaginaCursorDTO.decodeCursor(cursor);
+
+        List<PacienteParcialDTO> pacientes = MesclaOrdenada.mesclar(particoes.consultarTodas(
+                () -> pacienteRepository.findCamposByIdGreaterThan(campos, depoisDe, tamanho + 1)),
+                Comparator.comparing(PacienteParcialDTO::getId), tamanho + 1);
+        String proximoCursor = null;
+        if (pacientes.size() > tamanho) {
+            pacientes = pacientes.subList(0, tamanho);
+            proximoCursor = PaginaCursorDTO.encodeCursor(pacientes.get(tamanho - 1).getId());
+        }
+        return new PaginaCursorDTO<>(pacientes, proximoCursor);
+    }
+
+    private int tamanhoDePagina(Integer size) {
+        int tamanho = size == null ? pageSize : Math.min(size, maxPageSize);
+        if (tamanho < 1) {
+            throw new IllegalArgumentException("O tamanho de página deve ser positivo.");
+        }
+        return tamanho;
+    }
+
+    /**
+     * Retorna o total de pacientes cadastrados.
+     * O valor é reaproveitado por app.pacientesCountCacheMs para que listagens frequentes não façam COUNT(*) a cada chamada.
+     * @return O total de pacientes (aproximado dentro da janela do cache).
+     */
+    @Transactional(readOnly = true)
+    public long count() {
+        long agora = System.currentTimeMillis();
+        if (totalCache < 0 || agora >= totalCacheExpiraEm) {
+            totalCache = particoes.consultarTodas(() -> List.of(pacienteRepository.count()))
+                    .stream().mapToLong(total -> total.get(0)).sum();
+            totalCacheExpiraEm = agora + countCacheMs;
+        }
+        return totalCache;
     }
 
     /**
      * Busca um paciente pelo seu ID.
+     * Quando app.pacienteCacheEnabled está ligado, a leitura passa pelo PacienteCache.
+     * Sem transação aqui, para que acertos no cache não abram uma: em caso de falta, o findById
+     * do repositório já é somente leitura (SimpleJpaRepository) e pode ir para uma réplica.
      * @param id O ID do paciente.
      * @return Um Optional contendo o paciente, se encontrado.
      */
     public Optional<Paciente> findById(Long id) {
-        return pacienteRepository.findById(id);
+        return pacienteCache.get(id, chave -> particoes.naParticao(particoes.particaoDoId(chave),
+                () -> pacienteRepository.findById(chave)));
+    }
+
+    /**
+     * Busca um paciente pelo ID lendo só as colunas dos campos pedidos (?fields=), sem passar pelo cache.
+     * @param id O ID do paciente.
+     * @param campos Os campos na resposta.
+     * @return Um Optional com o paciente parcial, se encontrado.
+     */
+    @Transactional(readOnly = true)
+    public Optional<PacienteParcialDTO> findById(Long id, Set<CampoPaciente> campos) {
+        return particoes.naParticao(particoes.particaoDoId(id), () -> pacienteRepository.findCamposById(campos, id));
+    }
+
+    /**
+     * Busca vários pacientes pelos IDs de uma vez. Os que estão no PacienteCache vêm de lá; os demais são lidos
+     * com uma consulta IN por lote de app.pacientesMultiGetLote IDs (por partição, com particionamento).
+     * Os pacientes lidos do banco não entram no cache (ver PacienteCache.getAllPresent).
+     * Sem transação aqui, como em findById: cada consulta IN do repositório já é somente leitura.
+     * @param ids Os IDs buscados (repetidos são buscados uma vez só).
+     * @return Os pacientes encontrados, por ID; IDs inexistentes ficam de fora.
+     * @throws IllegalArgumentException se não houver IDs ou se houver mais que app.pacientesMultiGetMax.
+     */
+    public Map<Long, Paciente> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty() || ids.size() > multiGetMax) {
+            throw new IllegalArgumentException("Informe de 1 a " + multiGetMax + " IDs.");
+        }
+        Set<Long> distintos = new LinkedHashSet<>(ids);
+        distintos.remove(null);
+        Map<Long, Paciente> porId = pacienteCache.getAllPresent(distintos);
+        List<Long> faltantes = distintos.stream().filter(id -> !porId.containsKey(id)).toList();
+        particoes.agrupar(faltantes, particoes::particaoDoId).forEach((particao, grupo) -> {
+            for (int inicio = 0; inicio < grupo.size(); inicio += multiGetLote) {
+                List<Long> lote = grupo.subList(inicio, Math.min(inicio + multiGetLote, grupo.size()));
+                for (Paciente paciente : particoes.naParticao(particao, () -> pacienteRepository.findAllById(lote))) {
+                    porId.put(paciente.getId(), paciente);
+                }
+            }
+        });
+        return porId;
+    }
+
+    /**
+     * Busca apenas a versão de um paciente, para responder requisições condicionais (If-None-Match)
+     * sem carregar a entidade. Usa o PacienteCache quando o paciente está em cache.
+     * @param id O ID do paciente.
+     * @return Um Optional com a versão, vazio se o paciente não existir.
+     */
+    public Optional<Long> findVersaoById(Long id) {
+        Long versao = pacienteCache.getVersao(id);
+        return versao != null ? Optional.of(versao)
+                : particoes.naParticao(particoes.particaoDoId(id), () -> pacienteRepository.findVersaoById(id));
+    }
+
+    /**
+     * Busca um paciente pelo CPF, usando o índice de unicidade em memória para resolver o ID
+     * (e o PacienteCache, se ligado). CPFs ausentes do índice são procurados no banco.
+     * @param cpf O CPF do paciente (11 dígitos).
+     * @return Um Optional contendo o paciente, se encontrado.
+     */
+    public Optional<Paciente> findByCpf(String cpf) {
+        if (uniqueIndex.isPronto()) {
+            Long id = uniqueIndex.findIdByCpf(cpf);
+            if (id != null) {
+                Optional<Paciente> paciente = findById(id).filter(encontrado -> cpf.equals(encontrado.getCpf()));
+                if (paciente.isPresent()) {
+                    return paciente;
+                }
+            }
+        }
+        // Fora do índice (ou ainda não aquecido): confirma no banco, pois o paciente pode ter sido gravado
+        // por outra instância ou sem passar pelos eventos; se existir, passa a constar do índice
+        Optional<Paciente> doBanco = particoes.naParticao(particoes.particaoDoCpf(cpf), () -> pacienteRepository.findByCpf(cpf));
+        if (uniqueIndex.isPronto()) {
+            doBanco.ifPresent(uniqueIndex::registrar);
+        }
+        return doBanco;
+    }
+
+    /**
+     * Busca pacientes pelo nome, ignorando acentos e maiúsculas (ex.: "jose silva" encontra "José da Silva").
+     * Os IDs são resolvidos pelo índice de nomes em memória e os pacientes carregados com uma única consulta
+     * (uma por partição, com particionamento; por isso sem @Transactional aqui: cada consulta tem a sua).
+     * @param nome O texto buscado; todas as palavras precisam aparecer no nome.
+     * @param limit A quantidade máxima de resultados (limitada a app.pacientesBuscaMaxLimit), ou null para o padrão.
+     * @return Os pacientes encontrados, do mais para o menos relevante.
+     * @throws IllegalStateException se o índice de nomes ainda estiver sendo carregado.
+     * @throws IllegalArgumentException se o limite for inválido.
+     */
+    public List<Paciente> buscarPorNome(String nome, Integer limit) {
+        int limite = limit == null ? buscaLimit : Math.min(limit, buscaMaxLimit);
+        if (limite < 1) {
+            throw new IllegalArgumentException("O limite deve ser positivo.");
+        }
+        if (!nomeIndex.isPronto()) {
+            throw new IllegalStateException("Índice de nomes ainda não carregado.");
+        }
+        List<Long> ids = nomeIndex.buscar(nome, limite);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // findAllById não garante a ordem: reordena pela relevância devolvida pelo índice
+        Map<Long, Paciente> porId = new HashMap<>();
+        particoes.agrupar(ids, particoes::particaoDoId).forEach((particao, grupo) -> {
+            for (Paciente paciente : particoes.naParticao(particao, () -> pacienteRepository.findAllById(grupo))) {
+                porId.put(paciente.getId(), paciente);
+            }
+        });
+        List<Paciente> pacientes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Paciente paciente = porId.get(id);
+            if (paciente != null) { // Removido após a busca no índice
+                pacientes.add(paciente);
+            }
+        }
+        return pacientes;
     }
 
     /**
@@ -59,9 +343,47 @@ public class PacienteService {
      * @return O paciente atualizado.
      * @throws RuntimeException se o paciente não for encontrado.
      */
+    @Transactional
     public Paciente update(Long id, Paciente pacienteDetails) {
+        return update(id, pacienteDetails, null);
+    }
+
+    /**
+     * Atualiza os dados de um paciente somente se ele estiver em uma das versões informadas (If-Match).
+     * Uma atualização concorrente entre a leitura e a gravação também é detectada, pelo @Version da entidade.
+     * @param id O ID do paciente a ser atualizado.
+     * @param pacienteDetails O objeto Paciente com os dados atualizados.
+     * @param versoesAceitas As versões aceitas, ou null para atualizar em qualquer versão.
+     * @return O paciente atualizado, já com a nova versão.
+     * @throws OptimisticLockingFailureException se o paciente estiver em outra versão.
+     * @throws RuntimeException se o paciente não for encontrado.
+     */
+    @Transactional
+    public Paciente update(Long id, Paciente pacienteDetails, Collection<Long> versoesAceitas) {
+        return gravarAtualizacao(id, pacienteDetails, versoesAceitas);
+    }
+
+    /**
+     * Corpo de update, sem @Transactional: deve ser chamado dentro de uma transação já aberta
+     * (ver gravarNovo).
+     */
+    public Paciente gravarAtualizacao(Long id, Paciente pacienteDetails, Collection<Long> versoesAceitas) {
+        return particoes.naParticao(particoes.particaoDoId(id), () -> atualizar(id, pacienteDetails, versoesAceitas));
+    }
+
+    private Paciente atualizar(Long id, Paciente pacienteDetails, Collection<Long> versoesAceitas) {
         Paciente paciente = pacienteRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Paciente não encontrado com o ID: " + id));
+        if (versoesAceitas != null && !versoesAceitas.contains(paciente.getVersao())) {
+            throw new OptimisticLockingFailureException("Paciente " + id + " está na versão " + paciente.getVersao() + ".");
+        }
+        Paciente antes = PacienteAlteradoEvent.copia(paciente);
+
+        String novoEmail = pacienteDetails.getEmail();
+        if (novoEmail != null && !novoEmail.equals(paciente.getEmail())
+                && uniqueIndex.emailPodeExistir(novoEmail) && emailCadastrado(novoEmail)) {
+            throw new RuntimeException("Email já cadastrado.");
+        }
 
         // Atualiza os campos permitidos. Adicione validações adicionais se necessário.
         paciente.setNome(pacienteDetails.getNome());
@@ -73,14 +395,21 @@ public class PacienteService {
         // ou deve ter um processo de validação mais rigoroso.
         // paciente.setCpf(pacienteDetails.getCpf());
 
-        return pacienteRepository.save(paciente);
+        // O flush incrementa a versão agora (para o ETag da resposta) e falha se outra transação já gravou
+        Paciente atualizado = pacienteRepository.saveAndFlush(paciente);
+        eventPublisher.publishEvent(PacienteAlteradoEvent.atualizado(antes, atualizado));
+        return atualizado;
     }
 
     /**
      * Deleta um paciente pelo seu ID.
      * @param id O ID do paciente a ser deletado.
      */
+    @Transactional
     public void deleteById(Long id) {
-        pacienteRepository.deleteById(id);
+        particoes.naParticao(particoes.particaoDoId(id), () -> pacienteRepository.findById(id).ifPresent(paciente -> {
+            pacienteRepository.delete(paciente);
+            eventPublisher.publishEvent(PacienteAlteradoEvent.removido(paciente));
+        }));
     }
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.event.PacienteAlteradoEvent;
+import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.repository.PacienteRepository;
+import com.uninter.sghss.util.Hashing;
+import com.uninter.sghss.util.LongLongHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice de unicidade em memória dos pacientes: CPF -> ID (mapa de chave long primitiva, já que o CPF
+ * tem 11 dígitos) e o hash de 64 bits de cada email com a quantidade de pacientes que o usam
+ * (o mesmo email pode aparecer em dois pacientes de partições diferentes, ou dois emails podem ter o
+ * mesmo hash: remover um deles não pode tirar o outro do índice).
+ *
+ * É aquecido na inicialização e mantido pelos eventos de PacienteService (após o commit).
+ * Uma resposta "ausente" dispensa a consulta ao banco; uma resposta "pode existir" deve ser confirmada
+ * no banco (colisão de hash, remoção concorrente ou índice ainda não aquecido).
+ * A constraint unique do banco continua sendo a autoridade final (ex.: inserções feitas por outra instância;
+ * ver PacienteService.findByCpf, que consulta o banco quando o CPF não está no índice e o acrescenta).
+ */
+@Component
+public class PacienteUniqueIndex {
+
+    private static final long AUSENTE = Long.MIN_VALUE;
+    private static final int LOTE_AQUECIMENTO = 1000;
+    private static final Logger log = LoggerFactory.getLogger(PacienteUniqueIndex.class);
+
+    private final LongLongHashMap idPorCpf = new LongLongHashMap(1024);
+    private final LongLongHashMap emails = new LongLongHashMap(1024); // hash do email -> quantidade de pacientes
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean pronto;
+
+    private final PacienteRepository pacienteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PacienteParticoes particoes;
+
+    @Autowired
+    public PacienteUniqueIndex(PacienteRepository pacienteRepository, PacienteParticoes particoes,
+                               PlatformTransactionManager transactionManager) {
+        this.pacienteRepository = pacienteRepository;
+        this.particoes = particoes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Carrega o índice a partir do banco. Até terminar, todas as consultas respondem "pode existir".
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void aquecer() {
+        long inicio = System.currentTimeMillis();
+        // Com particionamento, lê cada partição em sequência
+        particoes.emCadaParticao(() -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> chaves = pacienteRepository.streamUniqueKeys()) {
+                Iterator<Object[]> iterator = chaves.iterator();
+                while (iterator.hasNext()) {
+                    // Insere em lotes para não segurar o lock de escrita durante toda a leitura
+                    lock.writeLock().lock();
+                    try {
+                        for (int i = 0; i < LOTE_AQUECIMENTO && iterator.hasNext(); i++) {
+                            Object[] linha = iterator.next();
+                            adicionar((Long) linha[0], (String) linha[1], (String) linha[2]);
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+            }
+        }));
+        pronto = true;
+        log.info("Índice de unicidade de pacientes carregado: {} CPFs em {} ms.", size(),
+                System.currentTimeMillis() - inicio);
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * @return false apenas quando o CPF certamente não está cadastrado.
+     */
+    public boolean cpfPodeExistir(String cpf) {
+        long chave = cpfParaLong(cpf);
+        if (!pronto || chave < 0) {
+            return true;
+        }
+        lock.readLock().lock();
+        try {
+            return idPorCpf.containsKey(chave);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return false apenas quando o email certamente não está cadastrado.
+     */
+    public boolean emailPodeExistir(String email) {
+        if (!pronto || email == null) {
+            return true;
+        }
+        lock.readLock().lock();
+        try {
+            return emails.containsKey(Hashing.hash64(email));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca o ID do paciente pelo CPF. Só deve ser usado quando isPronto() for true.
+     * @return O ID, ou null se o CPF não estiver no índice.
+     */
+    public Long findIdByCpf(String cpf) {
+        long chave = cpfParaLong(cpf);
+        if (chave < 0) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            long id = idPorCpf.get(chave, AUSENTE);
+            return id == AUSENTE ? null : id;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Acrescenta um paciente encontrado no banco e ausente do índice (ex.: gravado por outra instância).
+     * Se o CPF já estiver no índice, nada muda: o paciente já foi contado pelo aquecimento ou por um evento.
+     */
+    public void registrar(Paciente paciente) {
+        lock.writeLock().lock();
+        try {
+            if (!idPorCpf.containsKey(cpfParaLong(paciente.getCpf()))) {
+                adicionar(paciente.getId(), paciente.getCpf(), paciente.getEmail());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return idPorCpf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Memória aproximada ocupada pelo índice, em bytes.
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return idPorCpf.estimatedBytes() + emails.estimatedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mantém o índice atualizado após o commit de criações, atualizações e remoções.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPacienteAlterado(PacienteAlteradoEvent event) {
+        lock.writeLock().lock();
+        try {
+            Paciente antes = event.getAntes();
+            Paciente depois = event.getDepois();
+            if (antes != null) {
+                idPorCpf.remove(cpfParaLong(antes.getCpf()));
+                removerEmail(antes.getEmail());
+            }
+            if (depois != null) {
+                adicionar(depois.getId(), depois.getCpf(), depois.getEmail());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void adicionar(Long id, String cpf, String email) {
+        long chave = cpfParaLong(cpf);
+        if (chave >= 0 && id != null) {
+            idPorCpf.put(chave, id);
+        }
+        if (email != null) {
+            long hash = Hashing.hash64(email);
+            emails.put(hash, emails.get(hash, 0) + 1);
+        }
+    }
+
+    private void removerEmail(String email) {
+        if (email == null) {
+            return;
+        }
+        long hash = Hashing.hash64(email);
+        long quantidade = emails.get(hash, 0);
+        if (quantidade <= 1) {
+            emails.remove(hash);
+        } else {
+            emails.put(hash, quantidade - 1);
+        }
+    }
+
+    /**
+     * Converte um CPF de 11 dígitos em long (zeros à esquerda não geram ambiguidade, pois o tamanho é fixo).
+     * @return O CPF como long, ou -1 se não tiver exatamente 11 dígitos.
+     */
+    static long cpfParaLong(String cpf) {
+        if (cpf == null || cpf.length() != 11) {
+            return -1;
+        }
+        long valor = 0;
+        for (int i = 0; i < 11; i++) {
+            char c = cpf.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+}
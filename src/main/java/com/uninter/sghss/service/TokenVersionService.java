@@ -0,0 +1,87 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabela em memória com a versão de token de cada usuário (id -> tokenVersion).
+ * Usada pelo modo de principal stateless do filtro JWT para recusar tokens revogados sem consultar o banco.
+ *
+ * Só ficam na tabela os usuários que já tiveram tokens revogados (versão > 0), então ela é pequena.
+ * A tabela é recarregada em segundo plano a cada app.tokenVersionRefreshMs; revogações feitas nesta
+ * instância valem logo após o commit, e as feitas em outras instâncias valem após a próxima recarga.
+ * As versões só aumentam: a recarga e o registro local ficam sempre com a maior, para que uma recarga
+ * que leu o banco antes de uma revogação não a desfaça.
+ */
+@Service
+public class TokenVersionService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionService.class);
+
+    private final UsuarioRepository usuarioRepository;
+
+    private final Map<Long, Integer> versoes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenVersionService(UsuarioRepository usuarioRepository) {
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    /**
+     * Verifica se a versão contida no token ainda é a versão atual do usuário.
+     * Usuários ausentes da tabela nunca tiveram tokens revogados (versão 0).
+     * @param userId O ID do usuário (claim "uid").
+     * @param tokenVersion A versão gravada no token (claim "ver").
+     * @return true se o token não foi revogado.
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer atual = versoes.get(userId);
+        return atual == null || tokenVersion >= atual;
+    }
+
+    /**
+     * Registra localmente uma nova versão após uma revogação, sem esperar a próxima recarga.
+     * Dentro de uma transação, o registro é feito após o commit (com rollback, a revogação não aconteceu).
+     */
+    public void registrar(Long userId, int tokenVersion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versoes.merge(userId, tokenVersion, Math::max);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versoes.merge(userId, tokenVersion, Math::max);
+            }
+        });
+    }
+
+    /**
+     * Recarrega a tabela a partir do banco. Executada na inicialização e periodicamente em segundo plano.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.tokenVersionRefreshMs:30000}", fixedDelayString = "${app.tokenVersionRefreshMs:30000}")
+    public void recarregar() {
+        try {
+            List<Object[]> linhas = usuarioRepository.findRevokedTokenVersions();
+            for (Object[] linha : linhas) {
+                versoes.merge((Long) linha[0], (Integer) linha[1], Math::max);
+            }
+        } catch (RuntimeException e) {
+            // Mantém a tabela anterior; a próxima execução tentará novamente
+            log.error("Erro ao recarregar versões de token: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.repository.UsuarioRepository;
+import com.uninter.sghss.util.Hashing;
+import com.uninter.sghss.util.LongHashSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Índice de unicidade em memória dos usuários: hash de 64 bits de cada username e de cada email.
+ * Mesmo contrato do PacienteUniqueIndex: "ausente" dispensa a consulta ao banco no registro,
+ * "pode existir" deve ser confirmado no banco, e a constraint unique continua sendo a autoridade final.
+ */
+@Component
+public class UsuarioUniqueIndex {
+
+    private final LongHashSet usernames = new LongHashSet(256);
+    private final LongHashSet emails = new LongHashSet(256);
+    private volatile boolean pronto;
+
+    private final UsuarioRepository usuarioRepository;
+
+    @Autowired
+    public UsuarioUniqueIndex(UsuarioRepository usuarioRepository) {
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aquecer() {
+        List<Object[]> linhas = usuarioRepository.findAllUsernamesAndEmails();
+        synchronized (this) {
+            for (Object[] linha : linhas) {
+                adicionar((String) linha[0], (String) linha[1]);
+            }
+        }
+        pronto = true;
+    }
+
+    /**
+     * @return false apenas quando o nome de usuário certamente não está cadastrado.
+     */
+    public synchronized boolean usernamePodeExistir(String username) {
+        return !pronto || username == null || usernames.contains(Hashing.hash64(username));
+    }
+
+    /**
+     * @return false apenas quando o email certamente não está cadastrado.
+     */
+    public synchronized boolean emailPodeExistir(String email) {
+        return !pronto || email == null || emails.contains(Hashing.hash64(email));
+    }
+
+    /**
+     * Registra um usuário recém-salvo.
+     */
+    public synchronized void adicionar(String username, String email) {
+        if (username != null) {
+            usernames.add(Hashing.hash64(username));
+        }
+        if (email != null) {
+            emails.add(Hashing.hash64(email));
+        }
+    }
+}
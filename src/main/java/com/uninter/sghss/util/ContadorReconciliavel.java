@@ -0,0 +1,104 @@
+package com.uninter.sghss.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador mantido de forma incremental e corrigido de tempos em tempos por um valor de referência
+ * (ex.: um COUNT(*) no banco), sem travar as gravações enquanto esse valor é lido.
+ *
+ * Os incrementos vão para LongAdders (células separadas por thread, sem disputa entre gravações
+ * simultâneas); a leitura soma a base e as células.
+ *
+ * Uma alteração gravada em transação é informada em duas etapas: iniciar(delta) antes do commit e
+ * concluir(delta, aplicado) depois dele. Entre as duas, não se sabe se uma consulta ao banco já a vê.
+ *
+ * Reconciliação: marca = marcar(), depois a consulta ao banco, depois reconciliar(valorDoBanco, marca).
+ * As alterações em andamento na marca e as iniciadas durante a consulta podem ou não estar no valor do banco;
+ * a diferença que elas explicam é deixada como está, e só o restante é corrigido. O que ficar de fora
+ * (ex.: um cadastro de outra instância junto com uma remoção desta durante a consulta) é corrigido na
+ * próxima reconciliação.
+ */
+public class ContadorReconciliavel {
+
+    /**
+     * Estado do contador no início da consulta.
+     */
+    public record Marca(long incrementos, long iniciadosPositivos, long iniciadosNegativos,
+                        long pendentesPositivos, long pendentesNegativos) {
+
+        public static final Marca ZERO = new Marca(0, 0, 0, 0, 0);
+    }
+
+    private final LongAdder incrementos = new LongAdder();
+    private final LongAdder iniciadosPositivos = new LongAdder(); // Só crescem: tudo o que já foi iniciado
+    private final LongAdder iniciadosNegativos = new LongAdder();
+    private final LongAdder pendentesPositivos = new LongAdder(); // Iniciados e ainda não concluídos
+    private final LongAdder pendentesNegativos = new LongAdder();
+    private volatile long base;
+
+    /**
+     * Soma uma alteração já gravada (sem transação em andamento).
+     */
+    public void somar(long delta) {
+        iniciar(delta);
+        concluir(delta, true);
+    }
+
+    /**
+     * Informa uma alteração que está para ser gravada (antes do commit).
+     */
+    public void iniciar(long delta) {
+        if (delta > 0) {
+            iniciadosPositivos.add(delta);
+            pendentesPositivos.add(delta);
+        } else if (delta < 0) {
+            iniciadosNegativos.add(-delta);
+            pendentesNegativos.add(-delta);
+        }
+    }
+
+    /**
+     * Conclui uma alteração informada em iniciar: soma o delta se o commit aconteceu.
+     */
+    public void concluir(long delta, boolean aplicado) {
+        if (aplicado) {
+            incrementos.add(delta); // Antes de deixar de ser pendente: a marca nunca perde a alteração
+        }
+        if (delta > 0) {
+            pendentesPositivos.add(-delta);
+        } else if (delta < 0) {
+            pendentesNegativos.add(delta);
+        }
+    }
+
+    public long valor() {
+        return base + incrementos.sum();
+    }
+
+    /**
+     * Marca o início da consulta ao banco. Deve ser chamado imediatamente antes dela.
+     */
+    public Marca marcar() {
+        // Nesta ordem: uma alteração que não aparece como iniciada aparece como pendente ou já somada
+        long positivos = iniciadosPositivos.sum();
+        long negativos = iniciadosNegativos.sum();
+        long pendentesMais = pendentesPositivos.sum();
+        long pendentesMenos = pendentesNegativos.sum();
+        return new Marca(incrementos.sum(), positivos, negativos, pendentesMais, pendentesMenos);
+    }
+
+    /**
+     * Corrige o contador com o valor de referência lido depois da marca.
+     * @return A correção aplicada: a parte da diferença entre o valor de referência e o contador na marca
+     *         que as alterações em andamento não explicam.
+     */
+    public synchronized long reconciliar(long valorDeReferencia, Marca marca) {
+        long podeTerSomado = marca.pendentesPositivos() + iniciadosPositivos.sum() - marca.iniciadosPositivos();
+        long podeTerSubtraido = marca.pendentesNegativos() + iniciadosNegativos.sum() - marca.iniciadosNegativos();
+        long diferenca = valorDeReferencia - (base + marca.incrementos());
+        long explicada = Math.max(-podeTerSubtraido, Math.min(podeTerSomado, diferenca));
+        long correcao = diferenca - explicada;
+        base += correcao;
+        return correcao;
+    }
+}
@@ -0,0 +1,111 @@
+package com.uninter.sghss.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Fila circular limitada, sem locks, para vários produtores e um único consumidor (MPSC).
+ *
+ * Cada posição tem um número de sequência (algoritmo de D. Vyukov): o produtor reserva uma posição
+ * com um CAS no índice de escrita e publica o elemento avançando a sequência da posição; o consumidor
+ * só lê posições já publicadas. Com a fila cheia, oferecer devolve false na hora (nunca bloqueia).
+ *
+ * consumir e drenar só podem ser chamados por uma thread.
+ */
+public class FilaAnelMpsc<T> {
+
+    private final int capacidade;
+    private final int mascara;
+    private final AtomicReferenceArray<T> elementos;
+    private final AtomicLongArray sequencias;
+    private final AtomicLong escrita = new AtomicLong();
+    private volatile long leitura; // Alterado apenas pelo consumidor
+
+    /**
+     * @param capacidade Quantidade de posições (arredondada para a próxima potência de 2).
+     */
+    public FilaAnelMpsc(int capacidade) {
+        if (capacidade < 2 || capacidade > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidade deve estar entre 2 e 2^30.");
+        }
+        this.capacidade = Integer.highestOneBit(capacidade - 1) << 1;
+        this.mascara = this.capacidade - 1;
+        this.elementos = new AtomicReferenceArray<>(this.capacidade);
+        this.sequencias = new AtomicLongArray(this.capacidade);
+        for (int i = 0; i < this.capacidade; i++) {
+            sequencias.set(i, i);
+        }
+    }
+
+    /**
+     * Insere o elemento, se houver espaço.
+     * @return false se a fila estiver cheia.
+     */
+    public boolean oferecer(T elemento) {
+        if (elemento == null) {
+            throw new NullPointerException("Elemento nulo.");
+        }
+        long posicao = escrita.get();
+        while (true) {
+            int i = (int) (posicao & mascara);
+            long diferenca = sequencias.get(i) - posicao;
+            if (diferenca == 0) {
+                if (escrita.compareAndSet(posicao, posicao + 1)) {
+                    elementos.lazySet(i, elemento);
+                    sequencias.set(i, posicao + 1); // Publica o elemento para o consumidor
+                    return true;
+                }
+                posicao = escrita.get();
+            } else if (diferenca < 0) {
+                return false; // A posição ainda guarda um elemento de uma volta anterior: fila cheia
+            } else {
+                posicao = escrita.get(); // Outro produtor reservou a posição
+            }
+        }
+    }
+
+    /**
+     * Remove o próximo elemento (somente a thread consumidora).
+     * @return O elemento, ou null se a fila estiver vazia.
+     */
+    public T consumir() {
+        long posicao = leitura;
+        int i = (int) (posicao & mascara);
+        if (sequencias.get(i) != posicao + 1) {
+            return null;
+        }
+        T elemento = elementos.get(i);
+        elementos.lazySet(i, null);
+        sequencias.set(i, posicao + capacidade); // Libera a posição para a próxima volta
+        leitura = posicao + 1;
+        return elemento;
+    }
+
+    /**
+     * Remove até max elementos, entregando cada um ao consumidor (somente a thread consumidora).
+     * @return Quantos elementos foram removidos.
+     */
+    public int drenar(Consumer<? super T> consumidor, int max) {
+        int removidos = 0;
+        T elemento;
+        while (removidos < max && (elemento = consumir()) != null) {
+            consumidor.accept(elemento);
+            removidos++;
+        }
+        return removidos;
+    }
+
+    /**
+     * Quantidade aproximada de elementos na fila (pode ser chamada de qualquer thread).
+     */
+    public int size() {
+        long tamanho = escrita.get() - leitura;
+        return (int) Math.max(0, Math.min(tamanho, capacidade));
+    }
+
+    public int capacidade() {
+        return capacidade;
+    }
+}
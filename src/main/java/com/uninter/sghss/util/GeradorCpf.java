@@ -0,0 +1,69 @@
+package com.uninter.sghss.util;
+
+/**
+ * Geração de CPFs com dígitos verificadores válidos a partir de um número sequencial,
+ * usada para dados sintéticos (seed e testes de carga). O mesmo sequencial sempre gera o mesmo CPF.
+ */
+public final class GeradorCpf {
+
+    private static final long LIMITE = 1_000_000_000L; // 9 dígitos de base
+
+    private GeradorCpf() {}
+
+    /**
+     * @param sequencial Um número entre 0 e 999.999.999 (os 9 primeiros dígitos do CPF).
+     * @return O CPF com 11 dígitos, ou null se a base tiver todos os dígitos iguais (CPFs inválidos por regra).
+     */
+    public static String gerar(long sequencial) {
+        if (sequencial < 0 || sequencial >= LIMITE) {
+            throw new IllegalArgumentException("Sequencial fora do intervalo de 9 dígitos: " + sequencial);
+        }
+        if (sequencial % 111_111_111L == 0) {
+            return null; // 000000000, 111111111, ..., 999999999
+        }
+        int[] digitos = new int[11];
+        long resto = sequencial;
+        for (int i = 8; i >= 0; i--) {
+            digitos[i] = (int) (resto % 10);
+            resto /= 10;
+        }
+        digitos[9] = digitoVerificador(digitos, 9);
+        digitos[10] = digitoVerificador(digitos, 10);
+        char[] cpf = new char[11];
+        for (int i = 0; i < 11; i++) {
+            cpf[i] = (char) ('0' + digitos[i]);
+        }
+        return new String(cpf);
+    }
+
+    /**
+     * Verifica os dígitos verificadores de um CPF com 11 dígitos.
+     */
+    public static boolean isValido(String cpf) {
+        if (cpf == null || cpf.length() != 11) {
+            return false;
+        }
+        int[] digitos = new int[11];
+        boolean todosIguais = true;
+        for (int i = 0; i < 11; i++) {
+            char c = cpf.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            digitos[i] = c - '0';
+            todosIguais &= digitos[i] == digitos[0];
+        }
+        return !todosIguais
+                && digitos[9] == digitoVerificador(digitos, 9)
+                && digitos[10] == digitoVerificador(digitos, 10);
+    }
+
+    private static int digitoVerificador(int[] digitos, int quantidade) {
+        int soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += digitos[i] * (quantidade + 1 - i);
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
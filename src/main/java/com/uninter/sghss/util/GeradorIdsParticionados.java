@@ -0,0 +1,67 @@
+package com.uninter.sghss.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Gerador de IDs de pacientes únicos entre partições, sem consulta ao banco (no estilo Snowflake).
+ *
+ * Layout do ID (63 bits, sempre positivo):
+ * 41 bits de milissegundos desde EPOCA | 4 bits de instância da aplicação | 8 bits de contador | 10 bits de bucket.
+ *
+ * O bucket (MapaParticoes.bucketDoCpf) nos bits baixos permite achar a partição de um ID sem consultar
+ * nenhum banco. Instâncias diferentes da aplicação precisam de números de instância diferentes.
+ * O relógio é lógico: se o contador de um milissegundo se esgota, ou se o relógio do sistema volta
+ * durante a execução, os IDs seguem do último milissegundo usado em diante, sem repetir e sem esperar.
+ * Os IDs crescem com o tempo, o que mantém a listagem por cursor (ordem de ID) em ordem de cadastro.
+ */
+public final class GeradorIdsParticionados {
+
+    public static final long EPOCA = 1735689600000L; // 2025-01-01T00:00:00Z
+
+    private static final int BITS_BUCKET = 10; // MapaParticoes.BUCKETS = 2^10
+    private static final int BITS_CONTADOR = 8;
+    private static final int BITS_INSTANCIA = 4;
+    public static final int MAX_INSTANCIAS = 1 << BITS_INSTANCIA;
+
+    private final long instancia;
+    private final LongSupplier relogio;
+
+    // Protegidos por synchronized (this)
+    private long ultimoMs = -1;
+    private int contador;
+
+    /**
+     * @param instancia O número desta instância da aplicação (0 a MAX_INSTANCIAS - 1).
+     * @throws IllegalArgumentException se a instância estiver fora do intervalo.
+     */
+    public GeradorIdsParticionados(int instancia) {
+        this(instancia, System::currentTimeMillis);
+    }
+
+    GeradorIdsParticionados(int instancia, LongSupplier relogio) {
+        if (instancia < 0 || instancia >= MAX_INSTANCIAS) {
+            throw new IllegalArgumentException("A instância deve estar entre 0 e " + (MAX_INSTANCIAS - 1) + ".");
+        }
+        this.instancia = instancia;
+        this.relogio = relogio;
+    }
+
+    /**
+     * @param bucket O bucket do paciente (0 a MapaParticoes.BUCKETS - 1).
+     * @return Um novo ID, maior que todos os gerados antes por este gerador.
+     */
+    public synchronized long proximo(int bucket) {
+        long agora = relogio.getAsLong() - EPOCA;
+        if (agora > ultimoMs) {
+            ultimoMs = agora;
+            contador = 0;
+        } else if (++contador == 1 << BITS_CONTADOR) {
+            ultimoMs++; // Avança o relógio lógico em vez de esperar o próximo milissegundo
+            contador = 0;
+        }
+        return ultimoMs << (BITS_BUCKET + BITS_CONTADOR + BITS_INSTANCIA)
+                | instancia << (BITS_BUCKET + BITS_CONTADOR)
+                | (long) contador << BITS_BUCKET
+                | (bucket & (MapaParticoes.BUCKETS - 1));
+    }
+}
@@ -0,0 +1,35 @@
+package com.uninter.sghss.util;
+
+/**
+ * Funções de hash usadas pelas coleções primitivas e pelos índices em memória.
+ */
+public final class Hashing {
+
+    private Hashing() {}
+
+    /**
+     * Espalha os bits de um long (finalizador do MurmurHash3), para que chaves sequenciais
+     * como CPFs e IDs não caiam em posições vizinhas da tabela.
+     */
+    public static long mix(long valor) {
+        valor ^= valor >>> 33;
+        valor *= 0xff51afd7ed558ccdL;
+        valor ^= valor >>> 33;
+        valor *= 0xc4ceb9fe1a85ec53L;
+        valor ^= valor >>> 33;
+        return valor;
+    }
+
+    /**
+     * Hash de 64 bits de uma string (FNV-1a seguido de mix). Colisões são raras,
+     * mas possíveis: quem usa o hash como chave deve confirmar um acerto na fonte de verdade.
+     */
+    public static long hash64(CharSequence texto) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < texto.length(); i++) {
+            hash ^= texto.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+}
@@ -0,0 +1,293 @@
+package com.uninter.sghss.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Índice invertido de trigramas sobre textos já normalizados (ver NormalizadorTexto), chaveado por um ID long.
+ *
+ * Cada documento recebe um "slot" (int). Para cada trigrama das palavras do texto (com um espaço
+ * antes e depois de cada palavra, para marcar o início/fim), o índice guarda a lista de slots que o contêm.
+ * Na busca, apenas a menor lista entre os trigramas da consulta é percorrida; cada candidato é
+ * confirmado comparando o texto (todas as palavras da consulta precisam aparecer) e recebe uma pontuação.
+ *
+ * Não é thread-safe: o chamador deve sincronizar os acessos.
+ */
+public class IndiceTrigramas {
+
+    private static final long AUSENTE = -1L;
+
+    // ID -> slot e dados de cada slot
+    private final LongLongHashMap slotPorId = new LongLongHashMap(1024);
+    private long[] idPorSlot = new long[1024];
+    private String[] textoPorSlot = new String[1024];
+    private int proximoSlot;
+    private int[] slotsLivres = new int[64];
+    private int quantidadeLivres;
+
+    // Trigrama -> posição da lista de slots
+    private final LongLongHashMap listaPorTrigrama = new LongLongHashMap(4096);
+    private int[][] listas = new int[4096][];
+    private int[] tamanhos = new int[4096];
+    private int quantidadeListas;
+
+    private long bytesTextos;
+
+    /**
+     * Resultado de uma busca: ID do documento e pontuação (maior é melhor).
+     */
+    public record Resultado(long id, int pontuacao, String texto) {}
+
+    private static final Comparator<Resultado> PIOR_PRIMEIRO = Comparator
+            .comparingInt(Resultado::pontuacao)
+            .thenComparing(Comparator.comparingInt((Resultado r) -> r.texto().length()).reversed())
+            .thenComparing(Comparator.comparingLong(Resultado::id).reversed());
+
+    /**
+     * Adiciona ou substitui o texto de um documento.
+     */
+    public void put(long id, String textoNormalizado) {
+        remove(id);
+        int slot = alocarSlot();
+        idPorSlot[slot] = id;
+        textoPorSlot[slot] = textoNormalizado;
+        slotPorId.put(id, slot);
+        bytesTextos += tamanhoString(textoNormalizado);
+        for (long trigrama : trigramasDocumento(textoNormalizado)) {
+            long posicao = listaPorTrigrama.get(trigrama, AUSENTE);
+            int lista = posicao == AUSENTE ? novaLista(trigrama) : (int) posicao;
+            adicionarNaLista(lista, slot);
+        }
+    }
+
+    /**
+     * Remove um documento do índice.
+     * @return true se o documento existia.
+     */
+    public boolean remove(long id) {
+        long posicao = slotPorId.get(id, AUSENTE);
+        if (posicao == AUSENTE) {
+            return false;
+        }
+        int slot = (int) posicao;
+        String texto = textoPorSlot[slot];
+        for (long trigrama : trigramasDocumento(texto)) {
+            long lista = listaPorTrigrama.get(trigrama, AUSENTE);
+            if (lista != AUSENTE) {
+                removerDaLista((int) lista, slot);
+            }
+        }
+        bytesTextos -= tamanhoString(texto);
+        textoPorSlot[slot] = null;
+        slotPorId.remove(id);
+        liberarSlot(slot);
+        return true;
+    }
+
+    /**
+     * Texto atualmente indexado para o ID, ou null.
+     */
+    public String get(long id) {
+        long posicao = slotPorId.get(id, AUSENTE);
+        return posicao == AUSENTE ? null : textoPorSlot[(int) posicao];
+    }
+
+    public int size() {
+        return slotPorId.size();
+    }
+
+    /**
+     * Busca os documentos que contêm todas as palavras da consulta (já normalizada).
+     * Palavras com menos de 2 caracteres são ignoradas; palavras com 2 caracteres só casam no início de palavra.
+     * Pontuação: 2 por palavra encontrada no início de uma palavra do texto, 1 por palavra encontrada no meio,
+     * e 1 extra se o texto começa pela primeira palavra da consulta. Empates favorecem textos mais curtos.
+     * @param consultaNormalizada A consulta normalizada.
+     * @param limite A quantidade máxima de resultados.
+     * @return Os resultados em ordem decrescente de relevância.
+     */
+    public List<Resultado> search(String consultaNormalizada, int limite) {
+        List<String> palavras = new ArrayList<>();
+        for (String palavra : consultaNormalizada.split(" ")) {
+            if (palavra.length() >= 2) {
+                palavras.add(palavra);
+            }
+        }
+        if (palavras.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Escolhe a menor lista de candidatos entre todos os trigramas da consulta
+        int menorLista = -1;
+        for (String palavra : palavras) {
+            for (long trigrama : trigramasConsulta(palavra)) {
+                long posicao = listaPorTrigrama.get(trigrama, AUSENTE);
+                if (posicao == AUSENTE || tamanhos[(int) posicao] == 0) {
+                    return Collections.emptyList(); // Algum trigrama não existe: nenhum documento casa
+                }
+                if (menorLista < 0 || tamanhos[(int) posicao] < tamanhos[menorLista]) {
+                    menorLista = (int) posicao;
+                }
+            }
+        }
+
+        String[] comEspaco = new String[palavras.size()];
+        for (int i = 0; i < comEspaco.length; i++) {
+            comEspaco[i] = " " + palavras.get(i);
+        }
+        PriorityQueue<Resultado> melhores = new PriorityQueue<>(limite + 1, PIOR_PRIMEIRO);
+        int[] candidatos = listas[menorLista];
+        for (int i = 0; i < tamanhos[menorLista]; i++) {
+            int slot = candidatos[i];
+            String texto = textoPorSlot[slot];
+            int pontuacao = pontuar(texto, palavras, comEspaco);
+            if (pontuacao > 0) {
+                melhores.add(new Resultado(idPorSlot[slot], pontuacao, texto));
+                if (melhores.size() > limite) {
+                    melhores.poll();
+                }
+            }
+        }
+
+        List<Resultado> resultados = new ArrayList<>(melhores);
+        resultados.sort(PIOR_PRIMEIRO.reversed());
+        return resultados;
+    }
+
+    /**
+     * Memória aproximada ocupada pelo índice, em bytes (arrays internos e textos).
+     */
+    public long estimatedBytes() {
+        long bytes = slotPorId.estimatedBytes() + listaPorTrigrama.estimatedBytes();
+        bytes += (long) idPorSlot.length * Long.BYTES + (long) textoPorSlot.length * 4 + (long) slotsLivres.length * 4;
+        bytes += (long) listas.length * 4 + (long) tamanhos.length * 4;
+        for (int i = 0; i < quantidadeListas; i++) {
+            bytes += 16 + (long) listas[i].length * Integer.BYTES;
+        }
+        return bytes + bytesTextos;
+    }
+
+    private static int pontuar(String texto, List<String> palavras, String[] comEspaco) {
+        int pontuacao = 0;
+        for (int i = 0; i < comEspaco.length; i++) {
+            String palavra = palavras.get(i);
+            boolean inicioDePalavra = texto.startsWith(palavra) || texto.contains(comEspaco[i]);
+            if (inicioDePalavra) {
+                pontuacao += 2;
+            } else if (palavra.length() > 2 && texto.contains(palavra)) {
+                pontuacao += 1;
+            } else {
+                return 0;
+            }
+        }
+        if (texto.startsWith(palavras.get(0))) {
+            pontuacao += 1;
+        }
+        return pontuacao;
+    }
+
+    /**
+     * Trigramas distintos de um documento: cada palavra recebe um espaço antes e depois.
+     */
+    static long[] trigramasDocumento(String texto) {
+        long[] trigramas = new long[texto.length() + 2];
+        int quantidade = 0;
+        for (String palavra : texto.split(" ")) {
+            if (palavra.isEmpty()) {
+                continue;
+            }
+            String comBordas = " " + palavra + " ";
+            for (int i = 0; i + 3 <= comBordas.length(); i++) {
+                if (quantidade == trigramas.length) {
+                    trigramas = Arrays.copyOf(trigramas, quantidade * 2);
+                }
+                trigramas[quantidade++] = trigrama(comBordas.charAt(i), comBordas.charAt(i + 1), comBordas.charAt(i + 2));
+            }
+        }
+        trigramas = Arrays.copyOf(trigramas, quantidade);
+        Arrays.sort(trigramas);
+        int distintos = 0;
+        for (int i = 0; i < trigramas.length; i++) {
+            if (i == 0 || trigramas[i] != trigramas[i - 1]) {
+                trigramas[distintos++] = trigramas[i];
+            }
+        }
+        return Arrays.copyOf(trigramas, distintos);
+    }
+
+    /**
+     * Trigramas de uma palavra da consulta: os trigramas internos (busca por trecho) ou,
+     * para palavras de 2 caracteres, o trigrama de início de palavra.
+     */
+    static long[] trigramasConsulta(String palavra) {
+        if (palavra.length() == 2) {
+            return new long[] { trigrama(' ', palavra.charAt(0), palavra.charAt(1)) };
+        }
+        long[] trigramas = new long[palavra.length() - 2];
+        for (int i = 0; i < trigramas.length; i++) {
+            trigramas[i] = trigrama(palavra.charAt(i), palavra.charAt(i + 1), palavra.charAt(i + 2));
+        }
+        return trigramas;
+    }
+
+    private static long trigrama(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private int novaLista(long trigrama) {
+        if (quantidadeListas == listas.length) {
+            listas = Arrays.copyOf(listas, quantidadeListas * 2);
+            tamanhos = Arrays.copyOf(tamanhos, quantidadeListas * 2);
+        }
+        int lista = quantidadeListas++;
+        listas[lista] = new int[4];
+        listaPorTrigrama.put(trigrama, lista);
+        return lista;
+    }
+
+    private void adicionarNaLista(int lista, int slot) {
+        int[] slots = listas[lista];
+        if (tamanhos[lista] == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length + (slots.length >> 1) + 1);
+            listas[lista] = slots;
+        }
+        slots[tamanhos[lista]++] = slot;
+    }
+
+    private void removerDaLista(int lista, int slot) {
+        int[] slots = listas[lista];
+        int tamanho = tamanhos[lista];
+        for (int i = 0; i < tamanho; i++) {
+            if (slots[i] == slot) {
+                slots[i] = slots[tamanho - 1]; // A ordem dentro da lista não importa
+                tamanhos[lista] = tamanho - 1;
+                return;
+            }
+        }
+    }
+
+    private int alocarSlot() {
+        if (quantidadeLivres > 0) {
+            return slotsLivres[--quantidadeLivres];
+        }
+        if (proximoSlot == idPorSlot.length) {
+            idPorSlot = Arrays.copyOf(idPorSlot, proximoSlot * 2);
+            textoPorSlot = Arrays.copyOf(textoPorSlot, proximoSlot * 2);
+        }
+        return proximoSlot++;
+    }
+
+    private void liberarSlot(int slot) {
+        if (quantidadeLivres == slotsLivres.length) {
+            slotsLivres = Arrays.copyOf(slotsLivres, quantidadeLivres * 2);
+        }
+        slotsLivres[quantidadeLivres++] = slot;
+    }
+
+    private static long tamanhoString(String texto) {
+        return 40 + texto.length(); // Cabeçalho aproximado de String + array de bytes (textos normalizados são ASCII)
+    }
+}
@@ -0,0 +1,81 @@
+package com.uninter.sghss.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitador de taxa por chave (usuário, IP...) no modelo de token bucket, implementado como GCRA
+ * (Generic Cell Rate Algorithm): cada chave guarda só o "horário teórico de chegada" (TAT) em um AtomicLong,
+ * atualizado por CAS, sem locks e sem thread de reabastecimento.
+ *
+ * Com taxa r por segundo e rajada b, o intervalo de emissão é T = 1/r e a tolerância é T * (b - 1):
+ * uma requisição em t é aceita se TAT - tolerância &lt;= t, e então TAT = max(TAT, t) + T.
+ * Isso equivale a um balde de capacidade b reabastecido com r fichas por segundo.
+ *
+ * Os tempos são em nanossegundos de um relógio monotônico (System.nanoTime), passados pelo chamador.
+ */
+public class LimitadorTaxa {
+
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final ConcurrentHashMap<String, AtomicLong> baldes = new ConcurrentHashMap<>();
+
+    /**
+     * @param taxaPorSegundo Fichas repostas por segundo (pode ser fracionária, ex.: 0.5 = uma a cada 2 s).
+     * @param rajada         Capacidade do balde: requisições aceitas de uma vez com o balde cheio.
+     */
+    public LimitadorTaxa(double taxaPorSegundo, int rajada) {
+        if (taxaPorSegundo <= 0 || rajada < 1) {
+            throw new IllegalArgumentException("Taxa deve ser positiva e rajada no mínimo 1.");
+        }
+        this.intervaloNanos = Math.max(1L, (long) (1_000_000_000d / taxaPorSegundo));
+        this.toleranciaNanos = intervaloNanos * (rajada - 1);
+    }
+
+    /**
+     * Tenta consumir uma ficha do balde da chave.
+     * @return 0 se a requisição foi aceita; senão, quantos nanossegundos faltam para a próxima ficha.
+     */
+    public long tentarConsumir(String chave, long agoraNanos) {
+        AtomicLong tat = baldes.get(chave);
+        if (tat == null) {
+            // Balde novo (cheio): a primeira requisição é sempre aceita
+            tat = baldes.putIfAbsent(chave, new AtomicLong(agoraNanos + intervaloNanos));
+            if (tat == null) {
+                return 0L;
+            }
+        }
+        while (true) {
+            long atual = tat.get();
+            long base = atual - agoraNanos > 0 ? atual : agoraNanos; // max(TAT, agora) sem overflow
+            long espera = base - toleranciaNanos - agoraNanos;
+            if (espera > 0) {
+                return espera;
+            }
+            if (tat.compareAndSet(atual, base + intervaloNanos)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Remove os baldes que já estão cheios de novo (TAT no passado): recriá-los depois dá o mesmo resultado.
+     * Uma requisição concorrente com a remoção pode atualizar um balde já removido; no pior caso,
+     * a chave ganha uma ficha a mais.
+     * @return Quantos baldes foram removidos.
+     */
+    public int removerOciosos(long agoraNanos) {
+        int removidos = 0;
+        for (var entrada : baldes.entrySet()) {
+            AtomicLong tat = entrada.getValue();
+            if (tat.get() - agoraNanos <= 0 && baldes.remove(entrada.getKey(), tat)) {
+                removidos++;
+            }
+        }
+        return removidos;
+    }
+
+    public int size() {
+        return baldes.size();
+    }
+}
@@ -0,0 +1,155 @@
+package com.uninter.sghss.util;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de longs com endereçamento aberto (sondagem linear), sem objetos por entrada.
+ * A chave 0 é usada como marcador de posição vazia e por isso é tratada à parte.
+ * Não é thread-safe: o chamador deve sincronizar os acessos.
+ */
+public class LongHashSet {
+
+    private static final long VAZIO = 0L;
+    private static final float FATOR_CARGA = 0.6f;
+
+    private long[] chaves;
+    private int mascara;
+    private int tamanho;
+    private int limite;
+    private boolean temZero;
+
+    public LongHashSet(int capacidadeInicial) {
+        alocar(LongLongHashMap.capacidadePara(capacidadeInicial));
+    }
+
+    public boolean contains(long chave) {
+        if (chave == VAZIO) {
+            return temZero;
+        }
+        int i = indice(chave);
+        while (true) {
+            long atual = chaves[i];
+            if (atual == VAZIO) {
+                return false;
+            }
+            if (atual == chave) {
+                return true;
+            }
+            i = (i + 1) & mascara;
+        }
+    }
+
+    /**
+     * @return true se a chave não existia.
+     */
+    public boolean add(long chave) {
+        if (chave == VAZIO) {
+            if (temZero) {
+                return false;
+            }
+            temZero = true;
+            tamanho++;
+            return true;
+        }
+        int i = indice(chave);
+        while (true) {
+            long atual = chaves[i];
+            if (atual == VAZIO) {
+                chaves[i] = chave;
+                if (++tamanho > limite) {
+                    redimensionar();
+                }
+                return true;
+            }
+            if (atual == chave) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+    }
+
+    /**
+     * @return true se a chave existia.
+     */
+    public boolean remove(long chave) {
+        if (chave == VAZIO) {
+            if (!temZero) {
+                return false;
+            }
+            temZero = false;
+            tamanho--;
+            return true;
+        }
+        int i = indice(chave);
+        while (true) {
+            long atual = chaves[i];
+            if (atual == VAZIO) {
+                return false;
+            }
+            if (atual == chave) {
+                deslocarParaTras(i);
+                tamanho--;
+                return true;
+            }
+            i = (i + 1) & mascara;
+        }
+    }
+
+    public int size() {
+        return tamanho;
+    }
+
+    public void clear() {
+        Arrays.fill(chaves, VAZIO);
+        temZero = false;
+        tamanho = 0;
+    }
+
+    /**
+     * Memória aproximada ocupada pelo array interno, em bytes.
+     */
+    public long estimatedBytes() {
+        return (long) chaves.length * Long.BYTES;
+    }
+
+    private void deslocarParaTras(int livre) {
+        int i = livre;
+        while (true) {
+            i = (i + 1) & mascara;
+            long atual = chaves[i];
+            if (atual == VAZIO) {
+                break;
+            }
+            int ideal = indice(atual);
+            if (((i - ideal) & mascara) >= ((i - livre) & mascara)) {
+                chaves[livre] = atual;
+                livre = i;
+            }
+        }
+        chaves[livre] = VAZIO;
+    }
+
+    private void redimensionar() {
+        long[] antigas = chaves;
+        alocar(antigas.length * 2);
+        for (long chave : antigas) {
+            if (chave != VAZIO) {
+                int j = indice(chave);
+                while (chaves[j] != VAZIO) {
+                    j = (j + 1) & mascara;
+                }
+                chaves[j] = chave;
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new long[capacidade];
+        mascara = capacidade - 1;
+        limite = (int) (capacidade * FATOR_CARGA);
+    }
+
+    private int indice(long chave) {
+        return (int) Hashing.mix(chave) & mascara;
+    }
+}
@@ -0,0 +1,198 @@
+package com.uninter.sghss.util;
+
+import java.util.Arrays;
+
+/**
+ * Mapa long -> long com endereçamento aberto (sondagem linear), sem objetos por entrada.
+ * Guarda chave e valor em arrays primitivos, o que ocupa uma fração da memória de um HashMap&lt;Long, Long&gt;.
+ *
+ * A chave 0 é usada como marcador de posição vazia e por isso é tratada à parte.
+ * Não é thread-safe: o chamador deve sincronizar os acessos.
+ */
+public class LongLongHashMap {
+
+    private static final long VAZIO = 0L;
+    private static final float FATOR_CARGA = 0.6f;
+
+    private long[] chaves;
+    private long[] valores;
+    private int mascara;
+    private int tamanho;
+    private int limite;
+
+    private boolean temChaveZero;
+    private long valorChaveZero;
+
+    public LongLongHashMap(int capacidadeInicial) {
+        alocar(capacidadePara(capacidadeInicial));
+    }
+
+    /**
+     * @return O valor associado à chave, ou valorAusente se a chave não existir.
+     */
+    public long get(long chave, long valorAusente) {
+        if (chave == VAZIO) {
+            return temChaveZero ? valorChaveZero : valorAusente;
+        }
+        int i = indice(chave);
+        while (true) {
+            long atual = chaves[i];
+            if (atual == VAZIO) {
+                return valorAusente;
+            }
+            if (atual == chave) {
+                return valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+    }
+
+    public boolean containsKey(long chave) {
+        if (chave == VAZIO) {
+            return temChaveZero;
+        }
+        int i = indice(chave);
+        while (true) {
+            long atual = chaves[i];
+            if (atual == VAZIO) {
+                return false;
+            }
+            if (atual == chave) {
+                return true;
+            }
+            i = (i + 1) & mascara;
+        }
+    }
+
+    /**
+     * Associa o valor à chave, substituindo um valor anterior.
+     */
+    public void put(long chave, long valor) {
+        if (chave == VAZIO) {
+            if (!temChaveZero) {
+                temChaveZero = true;
+                tamanho++;
+            }
+            valorChaveZero = valor;
+            return;
+        }
+        int i = indice(chave);
+        while (true) {
+            long atual = chaves[i];
+            if (atual == VAZIO) {
+                chaves[i] = chave;
+                valores[i] = valor;
+                if (++tamanho > limite) {
+                    redimensionar();
+                }
+                return;
+            }
+            if (atual == chave) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+    }
+
+    /**
+     * Remove a chave. Usa remoção com deslocamento para trás (sem marcadores de remoção),
+     * de modo que a tabela não degrada após muitas remoções.
+     * @return true se a chave existia.
+     */
+    public boolean remove(long chave) {
+        if (chave == VAZIO) {
+            if (!temChaveZero) {
+                return false;
+            }
+            temChaveZero = false;
+            tamanho--;
+            return true;
+        }
+        int i = indice(chave);
+        while (true) {
+            long atual = chaves[i];
+            if (atual == VAZIO) {
+                return false;
+            }
+            if (atual == chave) {
+                deslocarParaTras(i);
+                tamanho--;
+                return true;
+            }
+            i = (i + 1) & mascara;
+        }
+    }
+
+    public int size() {
+        return tamanho;
+    }
+
+    public void clear() {
+        Arrays.fill(chaves, VAZIO);
+        temChaveZero = false;
+        tamanho = 0;
+    }
+
+    /**
+     * Memória aproximada ocupada pelos arrays internos, em bytes.
+     */
+    public long estimatedBytes() {
+        return (long) chaves.length * Long.BYTES * 2;
+    }
+
+    private void deslocarParaTras(int livre) {
+        int i = livre;
+        while (true) {
+            i = (i + 1) & mascara;
+            long atual = chaves[i];
+            if (atual == VAZIO) {
+                break;
+            }
+            int ideal = indice(atual);
+            // Move a entrada para a posição livre se ela não ficar "antes" da sua posição ideal
+            if (((i - ideal) & mascara) >= ((i - livre) & mascara)) {
+                chaves[livre] = atual;
+                valores[livre] = valores[i];
+                livre = i;
+            }
+        }
+        chaves[livre] = VAZIO;
+    }
+
+    private void redimensionar() {
+        long[] chavesAntigas = chaves;
+        long[] valoresAntigos = valores;
+        alocar(chavesAntigas.length * 2);
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            long chave = chavesAntigas[i];
+            if (chave != VAZIO) {
+                int j = indice(chave);
+                while (chaves[j] != VAZIO) {
+                    j = (j + 1) & mascara;
+                }
+                chaves[j] = chave;
+                valores[j] = valoresAntigos[i];
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new long[capacidade];
+        valores = new long[capacidade];
+        mascara = capacidade - 1;
+        limite = (int) (capacidade * FATOR_CARGA);
+    }
+
+    private int indice(long chave) {
+        return (int) Hashing.mix(chave) & mascara;
+    }
+
+    static int capacidadePara(int elementos) {
+        int capacidade = 16;
+        while (capacidade * FATOR_CARGA < elementos) {
+            capacidade <<= 1;
+        }
+        return capacidade;
+    }
+}
@@ -0,0 +1,186 @@
+package com.uninter.sghss.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mapa de particionamento dos pacientes: o hash do CPF escolhe um de BUCKETS buckets virtuais,
+ * e cada bucket pertence a uma partição (um banco).
+ *
+ * A quantidade de buckets é fixa; a de partições, não. Ao adicionar partições, rebalancear move só os
+ * buckets necessários para equilibrar a carga, e o resto dos dados fica onde está. O ID do paciente
+ * carrega o bucket nos bits baixos (ver GeradorIdsParticionados), então a partição de um ID também
+ * é encontrada sem consulta, inclusive depois de um rebalanceamento.
+ *
+ * Imutável: um rebalanceamento produz um novo mapa.
+ */
+public final class MapaParticoes {
+
+    public static final int BUCKETS = 1024; // Potência de 2: o bucket são os bits baixos do hash (ou do ID)
+
+    private final int[] particaoPorBucket;
+    private final int particoes;
+
+    private MapaParticoes(int[] particaoPorBucket) {
+        int maior = -1;
+        for (int particao : particaoPorBucket) {
+            if (particao < 0) {
+                throw new IllegalArgumentException("Partição negativa no mapa: " + particao);
+            }
+            maior = Math.max(maior, particao);
+        }
+        this.particaoPorBucket = particaoPorBucket;
+        this.particoes = maior + 1;
+    }
+
+    /**
+     * Mapa com os buckets distribuídos em rodízio entre as partições.
+     * @throws IllegalArgumentException se a quantidade de partições estiver fora de 1..BUCKETS.
+     */
+    public static MapaParticoes uniforme(int particoes) {
+        validarQuantidade(particoes);
+        int[] mapa = new int[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            mapa[bucket] = bucket % particoes;
+        }
+        return new MapaParticoes(mapa);
+    }
+
+    public static int bucketDoCpf(String cpf) {
+        return (int) (Hashing.hash64(cpf) & (BUCKETS - 1));
+    }
+
+    public static int bucketDoId(long id) {
+        return (int) (id & (BUCKETS - 1));
+    }
+
+    public int particaoDoBucket(int bucket) {
+        return particaoPorBucket[bucket];
+    }
+
+    public int particaoDoCpf(String cpf) {
+        return particaoPorBucket[bucketDoCpf(cpf)];
+    }
+
+    public int particaoDoId(long id) {
+        return particaoPorBucket[bucketDoId(id)];
+    }
+
+    public int getParticoes() {
+        return particoes;
+    }
+
+    /**
+     * Novo mapa para outra quantidade de partições, com os buckets igualmente divididos entre elas.
+     * Um bucket só muda de partição se a sua partição deixou de existir ou está acima da sua cota.
+     * @throws IllegalArgumentException se a quantidade de partições estiver fora de 1..BUCKETS.
+     */
+    public MapaParticoes rebalancear(int novasParticoes) {
+        validarQuantidade(novasParticoes);
+        int[] cota = new int[novasParticoes];
+        for (int particao = 0; particao < novasParticoes; particao++) {
+            cota[particao] = BUCKETS / novasParticoes + (particao < BUCKETS % novasParticoes ? 1 : 0);
+        }
+        int[] novo = new int[BUCKETS];
+        List<Integer> semParticao = new ArrayList<>();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            int particao = particaoPorBucket[bucket];
+            if (particao < novasParticoes && cota[particao] > 0) {
+                novo[bucket] = particao;
+                cota[particao]--;
+            } else {
+                semParticao.add(bucket);
+            }
+        }
+        int particao = 0;
+        for (int bucket : semParticao) {
+            while (cota[particao] == 0) {
+                particao++;
+            }
+            novo[bucket] = particao;
+            cota[particao]--;
+        }
+        return new MapaParticoes(novo);
+    }
+
+    /**
+     * @return Os buckets que estão em partições diferentes neste mapa e no outro, em ordem.
+     */
+    public List<Integer> bucketsMovidos(MapaParticoes outro) {
+        List<Integer> movidos = new ArrayList<>();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (particaoPorBucket[bucket] != outro.particaoPorBucket[bucket]) {
+                movidos.add(bucket);
+            }
+        }
+        return movidos;
+    }
+
+    /**
+     * Lê um mapa gravado por escrever: uma linha "bucket=partição" para cada bucket; linhas
+     * em branco e iniciadas por # são ignoradas.
+     * @throws IllegalArgumentException se o arquivo não tiver exatamente uma partição para cada bucket.
+     */
+    public static MapaParticoes ler(Path arquivo) {
+        int[] mapa = new int[BUCKETS];
+        Arrays.fill(mapa, -1);
+        List<String> linhas;
+        try {
+            linhas = Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (String linha : linhas) {
+            linha = linha.trim();
+            if (linha.isEmpty() || linha.startsWith("#")) {
+                continue;
+            }
+            int igual = linha.indexOf('=');
+            if (igual < 0) {
+                throw new IllegalArgumentException("Linha inválida no mapa de partições: " + linha);
+            }
+            int bucket = Integer.parseInt(linha.substring(0, igual).trim());
+            if (bucket < 0 || bucket >= BUCKETS || mapa[bucket] >= 0) {
+                throw new IllegalArgumentException("Bucket inválido ou repetido no mapa de partições: " + bucket);
+            }
+            mapa[bucket] = Integer.parseInt(linha.substring(igual + 1).trim());
+        }
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (mapa[bucket] < 0) {
+                throw new IllegalArgumentException("Bucket sem partição no mapa de partições: " + bucket);
+            }
+        }
+        return new MapaParticoes(mapa);
+    }
+
+    /**
+     * Grava o mapa em um arquivo temporário e o move para o destino, para que uma falha no meio
+     * da gravação não deixe um mapa incompleto.
+     */
+    public void escrever(Path arquivo) {
+        StringBuilder texto = new StringBuilder("# bucket=partição (").append(particoes).append(" partições)\n");
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            texto.append(bucket).append('=').append(particaoPorBucket[bucket]).append('\n');
+        }
+        try {
+            Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+            Files.writeString(temporario, texto, StandardCharsets.UTF_8);
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void validarQuantidade(int particoes) {
+        if (particoes < 1 || particoes > BUCKETS) {
+            throw new IllegalArgumentException("A quantidade de partições deve estar entre 1 e " + BUCKETS + ".");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.uninter.sghss.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Mescla de listas já ordenadas (k-way merge), usada para juntar as páginas lidas de cada partição
+ * em uma única página em ordem.
+ */
+public final class MesclaOrdenada {
+
+    private MesclaOrdenada() {}
+
+    /**
+     * @param listas Listas, cada uma já em ordem.
+     * @param ordem A ordem das listas.
+     * @param limite A quantidade máxima de itens no resultado.
+     * @return Os primeiros itens (até o limite) da união das listas, em ordem.
+     */
+    public static <T> List<T> mesclar(List<List<T>> listas, Comparator<? super T> ordem, int limite) {
+        if (listas.size() == 1) {
+            List<T> unica = listas.get(0);
+            return unica.size() > limite ? unica.subList(0, limite) : unica;
+        }
+        // Uma posição por lista, ordenadas pelo item atual de cada uma
+        PriorityQueue<int[]> posicoes = new PriorityQueue<>(Math.max(1, listas.size()),
+                (a, b) -> ordem.compare(listas.get(a[0]).get(a[1]), listas.get(b[0]).get(b[1])));
+        int total = 0;
+        for (int i = 0; i < listas.size(); i++) {
+            if (!listas.get(i).isEmpty()) {
+                posicoes.add(new int[] {i, 0});
+                total += listas.get(i).size();
+            }
+        }
+        List<T> resultado = new ArrayList<>(Math.min(total, limite));
+        while (resultado.size() < limite && !posicoes.isEmpty()) {
+            int[] posicao = posicoes.poll();
+            List<T> lista = listas.get(posicao[0]);
+            resultado.add(lista.get(posicao[1]));
+            if (++posicao[1] < lista.size()) {
+                posicoes.add(posicao);
+            }
+        }
+        return resultado;
+    }
+}
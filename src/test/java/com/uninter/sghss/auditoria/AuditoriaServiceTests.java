@@ -0,0 +1,160 @@
+package com.uninter.sghss.auditoria;
+
+import com.uninter.sghss.auditoria.AuditoriaService.PoliticaFilaCheia;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditoriaServiceTests {
+
+	private static final int SEGMENTO = 4 * 1024 * 1024;
+
+	@TempDir
+	Path diretorio;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void acessoAcimaDoLimiteDeIdsViraVariosRegistros() throws Exception {
+		AuditoriaService auditoria = novaAuditoria(65536, PoliticaFilaCheia.BLOQUEAR);
+		auditoria.iniciar();
+		long[] ids = LongStream.rangeClosed(1, 2L * FormatoAuditoria.MAX_IDS + 5).toArray();
+		auditoria.registrar(EventoAuditoria.Acao.LISTAGEM, ids, "cursor");
+		auditoria.parar();
+
+		List<EventoAuditoria> lidos = lidos();
+		assertEquals(3, lidos.size());
+		assertEquals(List.of("cursor [parte 1/3]", "cursor [parte 2/3]", "cursor [parte 3/3]"),
+				lidos.stream().map(EventoAuditoria::detalhe).toList());
+		assertArrayEquals(ids, lidos.stream().flatMapToLong(evento -> LongStream.of(evento.pacienteIds())).toArray());
+		assertEquals(1, lidos.stream().map(EventoAuditoria::instante).distinct().count());
+	}
+
+	@Test
+	void bloquearEsperaPelaGravadoraSemDescartar() throws Exception {
+		AuditoriaService auditoria = novaAuditoria(2, PoliticaFilaCheia.BLOQUEAR);
+		auditoria.iniciar();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			long base = t * 1000L;
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < 500; i++) {
+					auditoria.registrar(EventoAuditoria.Acao.LEITURA, base + i, null);
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		auditoria.parar();
+
+		assertEquals(2000, lidos().size());
+		assertEquals(0, meterRegistry.get("auditoria.descartados").counter().count());
+	}
+
+	@Test
+	void descartesSaoContados() throws Exception {
+		// Sem a gravadora, a fila (2 posições) não esvazia: DESCARTAR recusa na hora, e BLOQUEAR não espera para sempre
+		AuditoriaService descartar = novaAuditoria(2, PoliticaFilaCheia.DESCARTAR);
+		for (int i = 0; i < 5; i++) {
+			descartar.registrar(EventoAuditoria.Acao.LEITURA, i, null);
+		}
+		assertEquals(3, meterRegistry.get("auditoria.descartados").counter().count());
+
+		AuditoriaService bloquear = novaAuditoria(2, PoliticaFilaCheia.BLOQUEAR);
+		for (int i = 0; i < 5; i++) {
+			bloquear.registrar(EventoAuditoria.Acao.LEITURA, i, null);
+		}
+		assertEquals(6, meterRegistry.get("auditoria.descartados").counter().count());
+	}
+
+	@Test
+	void aguardarEsperaNoMaximoOTempoConfigurado() {
+		// A gravadora fica presa no primeiro evento: a fila (2 posições) enche, e AGUARDAR espera 50 ms e descarta
+		AuditoriaService auditoria = new AuditoriaService(meterRegistry, true, diretorio.toString(), 2, SEGMENTO, 200,
+				PoliticaFilaCheia.AGUARDAR, 50) {
+			@Override
+			void gravarEvento(EventoAuditoria evento) {
+				LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(30));
+			}
+		};
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			auditoria.iniciar();
+			for (int i = 0; i < 10; i++) {
+				auditoria.registrar(EventoAuditoria.Acao.LEITURA, i, null);
+			}
+		});
+		assertTrue(meterRegistry.get("auditoria.descartados").counter().count() >= 7);
+	}
+
+	@Test
+	void gravadoraQueParaPorErroNaoPrendeAsRequisicoes() {
+		AuditoriaService auditoria = new AuditoriaService(meterRegistry, true, diretorio.toString(), 2, SEGMENTO, 200,
+				PoliticaFilaCheia.BLOQUEAR, 50) {
+			@Override
+			void gravarEvento(EventoAuditoria evento) {
+				throw new OutOfMemoryError("erro simulado");
+			}
+		};
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			auditoria.iniciar();
+			auditoria.registrar(EventoAuditoria.Acao.LEITURA, 1, null);
+			// Até a gravadora parar, o evento ainda pode entrar na fila; depois, é descartado na hora
+			while (meterRegistry.get("auditoria.descartados").counter().count() == 0) {
+				auditoria.registrar(EventoAuditoria.Acao.LEITURA, 2, null);
+				Thread.sleep(1);
+			}
+			double antes = meterRegistry.get("auditoria.descartados").counter().count();
+			for (int i = 0; i < 10; i++) {
+				auditoria.registrar(EventoAuditoria.Acao.LEITURA, i, null);
+			}
+			assertEquals(antes + 10, meterRegistry.get("auditoria.descartados").counter().count());
+		});
+	}
+
+	@Test
+	void registroAoFinalGuardaOInstanteDoInicio() throws Exception {
+		AuditoriaService auditoria = novaAuditoria(65536, PoliticaFilaCheia.BLOQUEAR);
+		auditoria.iniciar();
+		Consumer<String> registrarExportacao = auditoria.registrarAoFinal(EventoAuditoria.Acao.EXPORTACAO);
+		Thread.sleep(20);
+		long depois = System.currentTimeMillis();
+		Thread outraThread = new Thread(() -> registrarExportacao.accept("formato=CSV filtro=todos pacientes=7"));
+		outraThread.start();
+		outraThread.join();
+		auditoria.parar();
+
+		List<EventoAuditoria> lidos = lidos();
+		assertEquals(1, lidos.size());
+		assertEquals("formato=CSV filtro=todos pacientes=7", lidos.get(0).detalhe());
+		assertEquals(0, lidos.get(0).pacienteIds().length);
+		assertTrue(lidos.get(0).instante() < depois);
+	}
+
+	private AuditoriaService novaAuditoria(int capacidade, PoliticaFilaCheia politica) {
+		return new AuditoriaService(meterRegistry, true, diretorio.toString(), capacidade, SEGMENTO, 200, politica, 50);
+	}
+
+	private List<EventoAuditoria> lidos() throws IOException {
+		List<EventoAuditoria> lidos = new ArrayList<>();
+		LeitorAuditoria.ler(diretorio, evento -> true, lidos::add);
+		return lidos;
+	}
+}
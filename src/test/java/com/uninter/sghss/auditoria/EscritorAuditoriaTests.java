@@ -0,0 +1,80 @@
+package com.uninter.sghss.auditoria;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EscritorAuditoriaTests {
+
+	private static final int SEGMENTO = 1024 * 1024;
+
+	@TempDir
+	Path diretorio;
+
+	@Test
+	void gravaELeEventosRotacionandoSegmentos() throws IOException {
+		try (EscritorAuditoria escritor = new EscritorAuditoria(diretorio, SEGMENTO)) {
+			for (int i = 0; i < 20_000; i++) {
+				escritor.escrever(evento(i, new long[] {i, i + 1}));
+			}
+		}
+		assertTrue(LeitorAuditoria.segmentos(diretorio).size() > 1);
+
+		List<EventoAuditoria> lidos = new ArrayList<>();
+		assertEquals(0, LeitorAuditoria.ler(diretorio, evento -> evento.envolve(5), lidos::add));
+		assertEquals(2, lidos.size());
+		assertEquals(4, lidos.get(0).instante());
+		assertArrayEquals(new long[] {5, 6}, lidos.get(1).pacienteIds());
+		assertEquals("usuário", lidos.get(1).usuario());
+	}
+
+	@Test
+	void novaInstanciaNaoAlteraSegmentosAnteriores() throws IOException {
+		try (EscritorAuditoria escritor = new EscritorAuditoria(diretorio, SEGMENTO)) {
+			escritor.escrever(evento(1, new long[] {1}));
+		}
+		try (EscritorAuditoria escritor = new EscritorAuditoria(diretorio, SEGMENTO)) {
+			escritor.escrever(evento(2, new long[] {2}));
+			assertTrue(escritor.getSegmentoAtual().endsWith(EscritorAuditoria.nomeDoSegmento(2)));
+		}
+		List<EventoAuditoria> lidos = new ArrayList<>();
+		LeitorAuditoria.ler(diretorio, evento -> true, lidos::add);
+		assertEquals(List.of(1L, 2L), lidos.stream().map(EventoAuditoria::instante).toList());
+	}
+
+	@Test
+	void leituraParaNoRegistroCorrompido() throws IOException {
+		Path segmento;
+		try (EscritorAuditoria escritor = new EscritorAuditoria(diretorio, SEGMENTO)) {
+			escritor.escrever(evento(1, new long[] {1}));
+			escritor.escrever(evento(2, new long[] {2}));
+			segmento = escritor.getSegmentoAtual();
+		}
+		try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			int primeiro = FormatoAuditoria.MAGICO.length;
+			ByteBuffer tamanho = ByteBuffer.allocate(4);
+			canal.read(tamanho, primeiro);
+			long segundo = primeiro + FormatoAuditoria.CABECALHO_REGISTRO + tamanho.flip().getInt();
+			canal.write(ByteBuffer.wrap(new byte[] {0x7f}), segundo + FormatoAuditoria.CABECALHO_REGISTRO + 1);
+		}
+		List<EventoAuditoria> lidos = new ArrayList<>();
+		int corrompidos = LeitorAuditoria.ler(diretorio, evento -> true, lidos::add);
+		assertEquals(1, corrompidos);
+		assertEquals(1, lidos.size());
+	}
+
+	private static EventoAuditoria evento(long instante, long[] ids) {
+		return new EventoAuditoria(instante, EventoAuditoria.Acao.LEITURA, "usuário", "127.0.0.1", ids, "");
+	}
+}
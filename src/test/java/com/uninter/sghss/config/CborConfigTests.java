@@ -0,0 +1,70 @@
+package com.uninter.sghss.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.uninter.sghss.util.GeradorCpf;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:cborconfigtests;DB_CLOSE_DELAY=-1",
+		"app.rateLimitEnabled=false",
+		"app.auditoriaEnabled=false"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+class CborConfigTests {
+
+	private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+	private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void pacienteEnviadoERecebidoEmCbor() throws Exception {
+		String cpf = GeradorCpf.gerar(7001);
+		byte[] corpo = cbor.writeValueAsBytes(Map.of("nome", "Paciente Cbor", "cpf", cpf, "email", "cbor@exemplo.com"));
+
+		byte[] criado = mvc.perform(post("/api/pacientes").contentType(CBOR).content(corpo).accept(CBOR))
+				.andExpect(status().isCreated())
+				.andExpect(content().contentType(CBOR))
+				.andReturn().getResponse().getContentAsByteArray();
+		JsonNode paciente = cbor.readTree(criado);
+		assertEquals("Paciente Cbor", paciente.get("nome").asText());
+		assertEquals(cpf, paciente.get("cpf").asText());
+
+		byte[] lido = mvc.perform(get("/api/pacientes/{id}", paciente.get("id").asLong()).accept(CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(CBOR))
+				.andReturn().getResponse().getContentAsByteArray();
+		assertEquals(paciente, cbor.readTree(lido));
+	}
+
+	@Test
+	void semAcceptCborARespostaContinuaEmJson() throws Exception {
+		byte[] corpo = cbor.writeValueAsBytes(Map.of("nome", "Paciente Json", "cpf", GeradorCpf.gerar(7002),
+				"email", "json@exemplo.com"));
+
+		mvc.perform(post("/api/pacientes").contentType(CBOR).content(corpo))
+				.andExpect(status().isCreated())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.nome").value("Paciente Json"));
+	}
+}
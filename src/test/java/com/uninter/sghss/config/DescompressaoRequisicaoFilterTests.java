@@ -0,0 +1,86 @@
+package com.uninter.sghss.config;
+
+import com.uninter.sghss.util.GeradorCpf;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:descompressaorequisicaotests;DB_CLOSE_DELAY=-1",
+		"app.rateLimitEnabled=false",
+		"app.auditoriaEnabled=false",
+		"app.requestGzipMaxBytes=4096"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+class DescompressaoRequisicaoFilterTests {
+
+	private static final AtomicLong SEQUENCIAL = new AtomicLong(1);
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void importacaoComCorpoGzip() throws Exception {
+		mvc.perform(post("/api/pacientes/bulk")
+						.contentType("application/x-ndjson")
+						.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+						.content(gzip(ndjson(2))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.total").value(2))
+				.andExpect(jsonPath("$.importados").value(2));
+	}
+
+	@Test
+	void corpoDescomprimidoAcimaDoLimiteResponde413() throws Exception {
+		byte[] corpo = ndjson(100); // ~75 bytes por linha, acima dos 4096 configurados
+		mvc.perform(post("/api/pacientes/bulk")
+						.contentType("application/x-ndjson")
+						.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+						.content(gzip(corpo)))
+				.andExpect(status().isPayloadTooLarge());
+	}
+
+	@Test
+	void gzipInvalidoResponde400() throws Exception {
+		mvc.perform(post("/api/pacientes/bulk")
+						.contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+						.content("[{\"nome\":\"Sem compressão\"}]".getBytes(StandardCharsets.UTF_8)))
+				.andExpect(status().isBadRequest());
+	}
+
+	private static byte[] ndjson(int linhas) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < linhas; i++) {
+			long n = SEQUENCIAL.getAndIncrement();
+			sb.append("{\"nome\":\"Paciente Gzip ").append(n)
+					.append("\",\"cpf\":\"").append(GeradorCpf.gerar(n))
+					.append("\",\"email\":\"gzip").append(n).append("@exemplo.com\"}\n");
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] gzip(byte[] dados) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(dados);
+		}
+		return out.toByteArray();
+	}
+}
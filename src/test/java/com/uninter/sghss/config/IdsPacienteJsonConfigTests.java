@@ -0,0 +1,51 @@
+package com.uninter.sghss.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.uninter.sghss.dto.PacienteParcialDTO;
+import com.uninter.sghss.dto.PacientePorIdDTO;
+import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.service.PacienteFeedService;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdsPacienteJsonConfigTests {
+
+	private static final long ID_PARTICIONADO = (1L << 60) + 7; // Passa de 2^53
+
+	@Test
+	void semParticionamentoOIdEhNumero() throws Exception {
+		ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+		assertTrue(mapper.writeValueAsString(paciente()).startsWith("{\"id\":" + ID_PARTICIONADO + ","));
+		assertEquals("{\"id\":" + ID_PARTICIONADO + ",\"nome\":\"Ana\"}",
+				mapper.writeValueAsString(new PacienteParcialDTO(ID_PARTICIONADO, 0L, Map.of("nome", "Ana"))));
+	}
+
+	@Test
+	void comParticionamentoOIdEhTexto() throws Exception {
+		ObjectMapper mapper = JsonMapper.builder().findAndAddModules()
+				.addModule(new IdsPacienteJsonConfig().idsPacienteEmTexto()).build();
+		String id = "\"" + ID_PARTICIONADO + "\"";
+
+		assertTrue(mapper.writeValueAsString(paciente()).startsWith("{\"id\":" + id + ","));
+		assertEquals("{\"id\":" + id + ",\"nome\":\"Ana\"}",
+				mapper.writeValueAsString(new PacienteParcialDTO(ID_PARTICIONADO, 0L, Map.of("nome", "Ana"))));
+		assertTrue(mapper.writeValueAsString(PacientePorIdDTO.de(ID_PARTICIONADO, null)).startsWith("{\"id\":" + id + ","));
+		assertTrue(mapper.writeValueAsString(new PacienteFeedService.EventoFeed(1, null, ID_PARTICIONADO, 0L))
+				.contains("\"id\":" + id));
+		// Outros números não mudam, e a leitura aceita o ID em texto
+		assertTrue(mapper.writeValueAsString(paciente()).contains("\"versao\":0"));
+		assertEquals(ID_PARTICIONADO, mapper.readValue("{\"id\":" + id + "}", Paciente.class).getId());
+	}
+
+	private static Paciente paciente() {
+		Paciente paciente = new Paciente("Ana", "52998224725", "ana@exemplo.com");
+		paciente.setId(ID_PARTICIONADO);
+		paciente.setVersao(0L);
+		return paciente;
+	}
+}
@@ -0,0 +1,56 @@
+package com.uninter.sghss.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:limitetaxafiltertests;DB_CLOSE_DELAY=-1",
+		"app.auditoriaEnabled=false",
+		"app.rateLimitAuthUsuarioPorSegundo=0.01",
+		"app.rateLimitAuthUsuarioRajada=2"
+})
+@AutoConfigureMockMvc
+class LimiteTaxaFilterTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void tentativasDeUmUsuarioNaoLimitamOsColegasNoMesmoIp() throws Exception {
+		String ipDoHospital = "10.20.30.40";
+		login("enfermeira", ipDoHospital).andExpect(status().isUnauthorized());
+		login("enfermeira", ipDoHospital).andExpect(status().isUnauthorized());
+		login("enfermeira", ipDoHospital)
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+		// Mesmo IP (NAT), outro usuário; e o mesmo usuário em outro IP
+		login("medico", ipDoHospital).andExpect(status().isUnauthorized());
+		login("Enfermeira", ipDoHospital).andExpect(status().isTooManyRequests());
+		login("enfermeira", "10.20.30.41").andExpect(status().isUnauthorized());
+	}
+
+	private ResultActions login(String username, String ip) throws Exception {
+		MvcResult resultado = mvc.perform(post("/api/auth/login")
+						.with(request -> {
+							request.setRemoteAddr(ip);
+							return request;
+						})
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\":\"" + username + "\",\"password\":\"senha-errada\"}"))
+				.andReturn();
+		return mvc.perform(asyncDispatch(resultado));
+	}
+}
@@ -0,0 +1,42 @@
+package com.uninter.sghss.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParticoesDataSourceTests {
+
+	@Test
+	void conexaoVemDaParticaoDaThreadOuDaParticaoZero() {
+		ParticoesDataSource particoes = new ParticoesDataSource(List.of(h2("p0"), h2("p1"), h2("p2")));
+
+		assertEquals("P0", catalogo(particoes));
+		assertEquals("P2", ParticoesDataSource.naParticao(2, () -> catalogo(particoes)));
+		assertEquals("P1", ParticoesDataSource.naParticao(1, () -> {
+			// Uma partição aninhada vale só dentro da operação
+			assertEquals("P2", ParticoesDataSource.naParticao(2, () -> catalogo(particoes)));
+			return catalogo(particoes);
+		}));
+		assertEquals("P0", catalogo(particoes));
+	}
+
+	private static JdbcDataSource h2(String nome) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1");
+		return dataSource;
+	}
+
+	private static String catalogo(DataSource dataSource) {
+		try (Connection connection = dataSource.getConnection()) {
+			return connection.getCatalog();
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
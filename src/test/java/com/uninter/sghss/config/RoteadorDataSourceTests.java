@@ -0,0 +1,108 @@
+package com.uninter.sghss.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoteadorDataSourceTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void limparContexto() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void leituraVaiParaAsReplicasEmRodizioEEscritaParaOPrimario() throws SQLException {
+		RoteadorDataSource roteador = roteador(ordenado("replica-1", h2("r1"), "replica-2", h2("r2")), 2000);
+
+		assertEquals("PRIMARIO", catalogo(roteador));
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertEquals("R1", catalogo(roteador));
+		assertEquals("R2", catalogo(roteador));
+		assertEquals("R1", catalogo(roteador));
+	}
+
+	@Test
+	void replicaForaDoArSaiDoRodizio() throws SQLException {
+		JdbcDataSource inexistente = new JdbcDataSource();
+		inexistente.setURL("jdbc:h2:mem:inexistente;IFEXISTS=TRUE");
+		RoteadorDataSource roteador = roteador(ordenado("replica-1", inexistente, "replica-2", h2("r2")), 2000);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertEquals("PRIMARIO", catalogo(roteador)); // A falha na réplica é refeita no primário
+		for (int i = 0; i < 4; i++) {
+			assertEquals("R2", catalogo(roteador));
+		}
+		roteador.verificarSaude();
+		assertEquals("R2", catalogo(roteador));
+		assertEquals(1.0, meterRegistry.get("datasource.replica.failures").counter().count());
+	}
+
+	@Test
+	void leituraDoMesmoUsuarioAposEscritaVaiParaOPrimario() throws SQLException {
+		RoteadorDataSource roteador = roteador(Map.of("replica-1", h2("r1")), 60_000);
+		autenticar("maria");
+
+		TransactionSynchronizationManager.initSynchronization();
+		assertEquals("PRIMARIO", catalogo(roteador));
+		List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertEquals("R1", catalogo(roteador)); // Antes do commit, a escrita ainda não conta
+		sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+		assertEquals("PRIMARIO", catalogo(roteador));
+
+		autenticar("joao");
+		assertEquals("R1", catalogo(roteador));
+	}
+
+	private RoteadorDataSource roteador(Map<String, DataSource> replicas, long janelaLeituraPropriaMs) {
+		return new RoteadorDataSource(h2("primario"), replicas, janelaLeituraPropriaMs, 1, meterRegistry);
+	}
+
+	private static Map<String, DataSource> ordenado(String nome1, DataSource replica1, String nome2, DataSource replica2) {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		replicas.put(nome1, replica1);
+		replicas.put(nome2, replica2);
+		return replicas;
+	}
+
+	private static JdbcDataSource h2(String nome) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1");
+		return dataSource;
+	}
+
+	private static String catalogo(DataSource dataSource) throws SQLException {
+		try (Connection connection = dataSource.getConnection()) {
+			return connection.getCatalog();
+		}
+	}
+
+	private static void autenticar(String usuario) {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(usuario, null, List.of()));
+	}
+}
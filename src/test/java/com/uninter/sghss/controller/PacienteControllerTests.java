@@ -0,0 +1,211 @@
+package com.uninter.sghss.controller;
+
+import com.uninter.sghss.dto.CampoPaciente;
+import com.uninter.sghss.dto.PacienteParcialDTO;
+import com.uninter.sghss.dto.PaginaCursorDTO;
+import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.service.PacienteService;
+import com.uninter.sghss.util.GeradorCpf;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:pacientecontrollertests;DB_CLOSE_DELAY=-1",
+		"app.rateLimitEnabled=false",
+		"app.auditoriaEnabled=false"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+class PacienteControllerTests {
+
+	private static final AtomicLong SEQUENCIAL = new AtomicLong(1);
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private PacienteService pacienteService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void ifNoneMatchIgualAoEtagResponde304() throws Exception {
+		Paciente paciente = novoPaciente();
+		String etag = PacienteController.etag(paciente);
+
+		mvc.perform(get("/api/pacientes/{id}", paciente.getId()))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+		mvc.perform(get("/api/pacientes/{id}", paciente.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		mvc.perform(get("/api/pacientes/{id}", paciente.getId())
+						.header(HttpHeaders.IF_NONE_MATCH, "\"outro\", " + etag))
+				.andExpect(status().isNotModified());
+		mvc.perform(get("/api/pacientes/{id}", paciente.getId())
+						.header(HttpHeaders.IF_NONE_MATCH, PacienteController.etag(paciente.getId(), paciente.getVersao() + 1)))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void ifMatchDesatualizadoResponde412() throws Exception {
+		Paciente paciente = novoPaciente();
+		String versaoInicial = PacienteController.etag(paciente);
+		mvc.perform(atualizar(paciente, "Nome Atualizado Um").header(HttpHeaders.IF_MATCH, versaoInicial))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, PacienteController.etag(paciente.getId(), paciente.getVersao() + 1)));
+
+		mvc.perform(atualizar(paciente, "Nome Atualizado Dois").header(HttpHeaders.IF_MATCH, versaoInicial))
+				.andExpect(status().isPreconditionFailed());
+		mvc.perform(atualizar(paciente, "Nome Atualizado Dois").header(HttpHeaders.IF_MATCH, "W/" + versaoInicial))
+				.andExpect(status().isPreconditionFailed());
+		mvc.perform(atualizar(paciente, "Nome Atualizado Dois").header(HttpHeaders.IF_MATCH, "*"))
+				.andExpect(status().isOk());
+		assertEquals("Nome Atualizado Dois", pacienteService.findById(paciente.getId()).orElseThrow().getNome());
+	}
+
+	@Test
+	void cpfForaDoIndiceEhProcuradoNoBanco() throws Exception {
+		// Gravado sem passar pelo PacienteService (como por outra instância): o índice em memória não o conhece
+		long n = SEQUENCIAL.getAndIncrement();
+		String cpf = GeradorCpf.gerar(n);
+		jdbcTemplate.update("insert into pacientes (id, nome, cpf, email, versao) values (?, ?, ?, ?, 0)",
+				900_000 + n, "Paciente Externo " + n, cpf, "externo" + n + "@exemplo.com");
+
+		mvc.perform(get("/api/pacientes/cpf/{cpf}", cpf)).andExpect(status().isOk());
+		assertEquals(900_000 + n, pacienteService.findByCpf(cpf).orElseThrow().getId());
+		mvc.perform(get("/api/pacientes/cpf/{cpf}", GeradorCpf.gerar(SEQUENCIAL.getAndIncrement())))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void buscaPorVariosIdsRespondeNaOrdemPedida() throws Exception {
+		Paciente primeiro = novoPaciente();
+		Paciente segundo = novoPaciente();
+		String inexistente = "999999999999";
+		String ids = segundo.getId() + "," + inexistente + "," + primeiro.getId() + "," + segundo.getId();
+
+		for (MockHttpServletRequestBuilder requisicao : List.of(
+				get("/api/pacientes").param("ids", ids),
+				post("/api/pacientes/batch-get").contentType(MediaType.APPLICATION_JSON)
+						.content("[\"" + ids.replace(",", "\",\"") + "\"]"))) {
+			// Um item por ID pedido, na ordem do pedido: o repetido aparece duas vezes e o inexistente fica no lugar
+			mvc.perform(requisicao)
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.length()").value(4))
+					.andExpect(jsonPath("$[0].id").value(segundo.getId()))
+					.andExpect(jsonPath("$[0].status").value("ENCONTRADO"))
+					.andExpect(jsonPath("$[0].paciente.cpf").value(segundo.getCpf()))
+					.andExpect(jsonPath("$[1].id").value(Long.parseLong(inexistente)))
+					.andExpect(jsonPath("$[1].status").value("NAO_ENCONTRADO"))
+					.andExpect(jsonPath("$[1].paciente").isEmpty())
+					.andExpect(jsonPath("$[2].paciente.cpf").value(primeiro.getCpf()))
+					.andExpect(jsonPath("$[3].paciente.cpf").value(segundo.getCpf()));
+		}
+	}
+
+	@Test
+	void buscaPorVariosIdsForaDoLimiteResponde400() throws Exception {
+		String acimaDoLimite = LongStream.rangeClosed(1, 1001).mapToObj(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+		mvc.perform(post("/api/pacientes/batch-get").contentType(MediaType.APPLICATION_JSON).content(acimaDoLimite))
+				.andExpect(status().isBadRequest());
+		mvc.perform(post("/api/pacientes/batch-get").contentType(MediaType.APPLICATION_JSON).content("[]"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(post("/api/pacientes/batch-get").contentType(MediaType.APPLICATION_JSON).content("[\"1\", \"x\"]"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void camposPedidosTrazemSempreOId() throws Exception {
+		Paciente paciente = novoPaciente();
+		mvc.perform(get("/api/pacientes/{id}", paciente.getId()).param("fields", "email"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(paciente.getId()))
+				.andExpect(jsonPath("$.email").value(paciente.getEmail()))
+				.andExpect(jsonPath("$.nome").doesNotExist());
+		mvc.perform(get("/api/pacientes").param("fields", "cpf"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id").exists())
+				.andExpect(jsonPath("$[0].cpf").exists());
+
+		mvc.perform(get("/api/pacientes/{id}", paciente.getId()).param("fields", "nome,senha"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/api/pacientes").param("fields", ","))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void versoesDoIfMatch() {
+		assertNull(PacienteController.versoesDoIfMatch(null, 5L));
+		assertNull(PacienteController.versoesDoIfMatch(" * ", 5L));
+		assertEquals(List.of(0L, 2L), PacienteController.versoesDoIfMatch("\"5-0\", \"6-1\" ,\"5-2\"", 5L));
+		// Comparação forte: ETags fracas, de campos (?fields=) e mal formadas não correspondem a nenhuma versão
+		assertTrue(PacienteController.versoesDoIfMatch("W/\"5-0\"", 5L).isEmpty());
+		assertTrue(PacienteController.versoesDoIfMatch("\"5-2-f3\"", 5L).isEmpty());
+		assertTrue(PacienteController.versoesDoIfMatch("\"5-\", 5-1, \"55-1\"", 5L).isEmpty());
+	}
+
+	@Test
+	void etagDaPaginaMudaComVersaoCamposECursor() {
+		PaginaCursorDTO<PacienteParcialDTO> pagina = pagina(null, 1L, 0L, 2L, 0L);
+		String etag = PacienteController.etagDaPagina(pagina, CampoPaciente.RESUMO, null);
+
+		assertEquals(etag, PacienteController.etagDaPagina(pagina(null, 1L, 0L, 2L, 0L), CampoPaciente.RESUMO, null));
+		assertNotEquals(etag, PacienteController.etagDaPagina(pagina(null, 1L, 0L, 2L, 1L), CampoPaciente.RESUMO, null));
+		assertNotEquals(etag, PacienteController.etagDaPagina(pagina(null, 2L, 0L, 1L, 0L), CampoPaciente.RESUMO, null));
+		assertNotEquals(etag, PacienteController.etagDaPagina(pagina, EnumSet.allOf(CampoPaciente.class), null));
+		assertNotEquals(etag, PacienteController.etagDaPagina(pagina("c", 1L, 0L, 2L, 0L), CampoPaciente.RESUMO, null));
+		assertNotEquals(etag, PacienteController.etagDaPagina(pagina, CampoPaciente.RESUMO, 2L));
+		assertNotEquals(PacienteController.etagDaPagina(pagina, CampoPaciente.RESUMO, 2L),
+				PacienteController.etagDaPagina(pagina, CampoPaciente.RESUMO, 3L));
+	}
+
+	private Paciente novoPaciente() {
+		long n = SEQUENCIAL.getAndIncrement();
+		return pacienteService.save(new Paciente("Paciente Teste " + n, GeradorCpf.gerar(n), "teste" + n + "@exemplo.com"));
+	}
+
+	private static MockHttpServletRequestBuilder atualizar(Paciente paciente, String nome) {
+		return put("/api/pacientes/{id}", paciente.getId())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"nome\":\"" + nome + "\",\"cpf\":\"" + paciente.getCpf() + "\",\"email\":\"" + paciente.getEmail() + "\"}");
+	}
+
+	/**
+	 * Página com pares (id, versão).
+	 */
+	private static PaginaCursorDTO<PacienteParcialDTO> pagina(String proximoCursor, long... idsEVersoes) {
+		List<PacienteParcialDTO> itens = new ArrayList<>();
+		for (int i = 0; i < idsEVersoes.length; i += 2) {
+			itens.add(new PacienteParcialDTO(idsEVersoes[i], idsEVersoes[i + 1], Map.of()));
+		}
+		return new PaginaCursorDTO<>(itens, proximoCursor);
+	}
+}
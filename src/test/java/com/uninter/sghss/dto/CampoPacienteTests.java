@@ -0,0 +1,46 @@
+package com.uninter.sghss.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static com.uninter.sghss.dto.CampoPaciente.CPF;
+import static com.uninter.sghss.dto.CampoPaciente.EMAIL;
+import static com.uninter.sghss.dto.CampoPaciente.ID;
+import static com.uninter.sghss.dto.CampoPaciente.NOME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CampoPacienteTests {
+
+	@Test
+	void semParametroUsaOPadraoDoEndpoint() {
+		assertNull(CampoPaciente.parse(null));
+		assertNull(CampoPaciente.parse(""));
+		assertNull(CampoPaciente.parse("  "));
+		assertEquals(CampoPaciente.TODOS, CampoPaciente.parse(" * "));
+	}
+
+	@Test
+	void idVemSempre() {
+		assertEquals(EnumSet.of(ID, NOME), CampoPaciente.parse("nome"));
+		assertEquals(EnumSet.of(ID, CPF, EMAIL), CampoPaciente.parse("email,cpf"));
+		assertEquals(EnumSet.of(ID), CampoPaciente.parse("id"));
+	}
+
+	@Test
+	void entradasVaziasERepetidasSaoIgnoradas() {
+		assertEquals(EnumSet.of(ID, NOME, EMAIL), CampoPaciente.parse(" nome ,, email,nome,"));
+		assertThrows(IllegalArgumentException.class, () -> CampoPaciente.parse(","));
+		assertThrows(IllegalArgumentException.class, () -> CampoPaciente.parse(" , ,"));
+	}
+
+	@Test
+	void campoDesconhecidoOuComOutraCaixaEhRecusado() {
+		assertThrows(IllegalArgumentException.class, () -> CampoPaciente.parse("nome,senha"));
+		assertThrows(IllegalArgumentException.class, () -> CampoPaciente.parse("Nome"));
+		assertThrows(IllegalArgumentException.class, () -> CampoPaciente.parse("CPF"));
+		assertThrows(IllegalArgumentException.class, () -> CampoPaciente.parse("nome,*"));
+	}
+}
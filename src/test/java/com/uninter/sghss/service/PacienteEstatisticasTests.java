@@ -0,0 +1,65 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.util.GeradorCpf;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:pacienteestatisticastests;DB_CLOSE_DELAY=-1",
+		"app.auditoriaEnabled=false"
+})
+class PacienteEstatisticasTests {
+
+	@Autowired
+	private PacienteEstatisticas estatisticas;
+
+	@Autowired
+	private PacienteService pacienteService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void reconciliacaoLogoAposUmCommitNaoContaOPacienteDuasVezes() throws Exception {
+		estatisticas.reconciliar();
+		long antes = estatisticas.getEstatisticas().getTotal();
+
+		AtomicReference<Thread> reconciliacao = new AtomicReference<>();
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			pacienteService.gravarNovo(new Paciente("Paciente Estatisticas", GeradorCpf.gerar(1), "estatisticas@exemplo.com"));
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					// O paciente já está no banco, mas ainda não foi somado aos contadores (só depois do commit).
+					// Em outra thread, fora desta transação; a reconciliação não espera pelo commit.
+					Thread thread = new Thread(estatisticas::reconciliar);
+					thread.start();
+					reconciliacao.set(thread);
+					try {
+						thread.join(TimeUnit.SECONDS.toMillis(10));
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					assertFalse(thread.isAlive());
+				}
+			});
+		});
+		reconciliacao.get().join();
+
+		assertEquals(antes + 1, estatisticas.getEstatisticas().getTotal());
+		estatisticas.reconciliar();
+		assertEquals(antes + 1, estatisticas.getEstatisticas().getTotal());
+	}
+}
@@ -0,0 +1,52 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.event.PacienteAlteradoEvent;
+import com.uninter.sghss.model.Paciente;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacienteFeedServiceTests {
+
+	@Test
+	void sequenciaCrescenteEReplayAPartirDoUltimoId() {
+		PacienteFeedService feed = new PacienteFeedService(new SimpleMeterRegistry(), 4, 1);
+		long inicio = feed.getUltimaSeq();
+		for (long id = 1; id <= 3; id++) {
+			feed.onPacienteAlterado(PacienteAlteradoEvent.criado(paciente(id)));
+		}
+		assertEquals(inicio + 3, feed.getUltimaSeq());
+
+		List<PacienteFeedService.EventoFeed> perdidos = feed.eventosDepoisDe(inicio + 1);
+		assertEquals(List.of(2L, 3L), perdidos.stream().map(PacienteFeedService.EventoFeed::id).toList());
+		assertEquals(inicio + 2, perdidos.get(0).seq());
+		assertTrue(feed.eventosDepoisDe(inicio + 3).isEmpty());
+	}
+
+	@Test
+	void idForaDoBufferOuDeOutraExecucaoPedeReset() {
+		PacienteFeedService feed = new PacienteFeedService(new SimpleMeterRegistry(), 4, 1);
+		long inicio = feed.getUltimaSeq();
+		assertNull(feed.eventosDepoisDe(inicio - 1)); // Execução anterior
+		assertEquals(0, feed.eventosDepoisDe(inicio).size());
+
+		for (long id = 1; id <= 6; id++) {
+			feed.onPacienteAlterado(PacienteAlteradoEvent.removido(paciente(id)));
+		}
+		assertNull(feed.eventosDepoisDe(inicio + 1)); // Os eventos 2 e 3 já saíram do buffer de 4
+		assertEquals(4, feed.eventosDepoisDe(inicio + 2).size());
+		assertNull(feed.eventosDepoisDe(inicio + 7)); // Ainda não publicado
+	}
+
+	private static Paciente paciente(long id) {
+		Paciente paciente = new Paciente("Paciente " + id, String.format("%011d", id), id + "@exemplo.com");
+		paciente.setId(id);
+		paciente.setVersao(0L);
+		return paciente;
+	}
+}
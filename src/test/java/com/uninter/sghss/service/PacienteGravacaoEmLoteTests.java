@@ -0,0 +1,190 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.model.Paciente;
+import com.uninter.sghss.util.GeradorCpf;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:gravacaoemlotetests;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+		"app.auditoriaEnabled=false",
+		"app.pacientesGroupCommitEnabled=true",
+		"app.pacientesGroupCommitEsperaMaxMs=3000",
+		"app.pacientesGroupCommitJanelaMs=300" // Janela longa: as gravações enfileiradas juntas caem no mesmo lote
+})
+class PacienteGravacaoEmLoteTests {
+
+	private static final AtomicLong SEQUENCIAL = new AtomicLong(1);
+
+	@Autowired
+	private PacienteGravacaoEmLote gravacaoEmLote;
+
+	@Autowired
+	private PacienteService pacienteService;
+
+	@Autowired
+	private PacienteParticoes particoes;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void gravacoesEnfileiradasJuntasVaoEmUmaTransacao() throws Exception {
+		DistributionSummary tamanhos = meterRegistry.get("pacientes.group.commit.size").summary();
+		long lotesAntes = tamanhos.count();
+		double gravacoesAntes = tamanhos.totalAmount();
+
+		List<CompletableFuture<Paciente>> gravacoes = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			gravacoes.add(gravacaoEmLote.salvar(novoPaciente()));
+		}
+		for (CompletableFuture<Paciente> gravacao : gravacoes) {
+			Paciente salvo = gravacaoEmLote.aguardar(gravacao);
+			assertNotNull(salvo.getId());
+			assertEquals(0L, salvo.getVersao());
+			assertNotNull(salvo.getCriadoEm());
+		}
+		assertEquals(1, tamanhos.count() - lotesAntes);
+		assertEquals(20, tamanhos.totalAmount() - gravacoesAntes);
+	}
+
+	@Test
+	void recusaDeUmaGravacaoNaoAfetaAsOutrasDoLote() throws Exception {
+		Paciente primeiro = novoPaciente();
+		Paciente mesmoCpf = new Paciente("Outro Nome", primeiro.getCpf(), "outro" + SEQUENCIAL.getAndIncrement() + "@exemplo.com");
+		Paciente segundo = novoPaciente();
+
+		CompletableFuture<Paciente> gravacaoPrimeiro = gravacaoEmLote.salvar(primeiro);
+		CompletableFuture<Paciente> gravacaoMesmoCpf = gravacaoEmLote.salvar(mesmoCpf);
+		CompletableFuture<Paciente> atualizacaoInexistente = gravacaoEmLote.atualizar(-1L, novoPaciente(), null);
+		CompletableFuture<Paciente> gravacaoSegundo = gravacaoEmLote.salvar(segundo);
+
+		assertEquals(primeiro.getCpf(), gravacaoEmLote.aguardar(gravacaoPrimeiro).getCpf());
+		assertEquals(segundo.getCpf(), gravacaoEmLote.aguardar(gravacaoSegundo).getCpf());
+		assertThrows(RuntimeException.class, () -> gravacaoEmLote.aguardar(gravacaoMesmoCpf));
+		assertThrows(RuntimeException.class, () -> gravacaoEmLote.aguardar(atualizacaoInexistente));
+	}
+
+	@Test
+	void loteQueFalhaNoCommitEhRefeitoUmAUm() throws Exception {
+		// CPF gravado sem passar pelo serviço: o índice em memória não o conhece, e só o banco recusa a gravação
+		long n = SEQUENCIAL.getAndIncrement();
+		String cpf = GeradorCpf.gerar(n);
+		jdbcTemplate.update("insert into pacientes (id, nome, cpf, email, versao) values (?, ?, ?, ?, 0)",
+				800_000 + n, "Paciente Externo " + n, cpf, "externo" + n + "@exemplo.com");
+		double refeitosAntes = meterRegistry.get("pacientes.group.commit.fallback").counter().count();
+
+		Paciente valido = novoPaciente();
+		CompletableFuture<Paciente> gravacaoValida = gravacaoEmLote.salvar(valido);
+		CompletableFuture<Paciente> gravacaoDuplicada = gravacaoEmLote.salvar(
+				new Paciente("Paciente Duplicado", cpf, "duplicado" + n + "@exemplo.com"));
+
+		assertThrows(RuntimeException.class, () -> gravacaoEmLote.aguardar(gravacaoDuplicada));
+		Paciente salvo = gravacaoEmLote.aguardar(gravacaoValida);
+		assertTrue(pacienteService.findById(salvo.getId()).isPresent());
+		assertEquals(1, meterRegistry.get("pacientes.group.commit.fallback").counter().count() - refeitosAntes);
+	}
+
+	@Test
+	void atualizacoesDoMesmoPacienteNoLoteRespondemComOsPropriosDados() throws Exception {
+		Paciente paciente = pacienteService.save(novoPaciente());
+
+		CompletableFuture<Paciente> primeira = gravacaoEmLote.atualizar(paciente.getId(), comNome(paciente, "Nome Da Primeira"), null);
+		CompletableFuture<Paciente> segunda = gravacaoEmLote.atualizar(paciente.getId(), comNome(paciente, "Nome Da Segunda"), null);
+
+		Paciente resultadoPrimeira = gravacaoEmLote.aguardar(primeira);
+		Paciente resultadoSegunda = gravacaoEmLote.aguardar(segunda);
+		assertEquals("Nome Da Primeira", resultadoPrimeira.getNome());
+		assertEquals(paciente.getVersao() + 1, resultadoPrimeira.getVersao());
+		assertEquals("Nome Da Segunda", resultadoSegunda.getNome());
+		assertEquals(paciente.getVersao() + 2, resultadoSegunda.getVersao());
+		assertEquals("Nome Da Segunda", pacienteService.findById(paciente.getId()).orElseThrow().getNome());
+	}
+
+	@Test
+	void gravacaoCanceladaPorTempoNaFilaNaoEhGravada() throws Exception {
+		Paciente paciente = pacienteService.save(novoPaciente());
+		CountDownLatch travado = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		// Outra transação segura a linha do paciente: a gravadora fica parada no commit da atualização
+		Thread trava = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			jdbcTemplate.update("update pacientes set nome = nome where id = ?", paciente.getId());
+			travado.countDown();
+			try {
+				liberar.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			status.setRollbackOnly();
+		}));
+		trava.start();
+		assertTrue(travado.await(10, TimeUnit.SECONDS));
+
+		CompletableFuture<Paciente> atualizacao = gravacaoEmLote.atualizar(paciente.getId(), comNome(paciente, "Nome Travado"), null);
+		Thread.sleep(1000); // Passa a janela do lote: a atualização já está na transação travada
+		Paciente naFila = novoPaciente();
+		CompletableFuture<Paciente> cadastro = gravacaoEmLote.salvar(naFila);
+
+		assertThrows(TimeoutException.class, () -> gravacaoEmLote.aguardar(cadastro));
+		assertTrue(cadastro.isCancelled());
+		liberar.countDown();
+		trava.join(10_000);
+
+		// Já estava em uma transação: não é cancelada, a requisição recebe o resultado dela
+		try {
+			gravacaoEmLote.aguardar(atualizacao);
+		} catch (RuntimeException e) {
+			// Timeout da transação: desfeita, e a requisição recebe o erro
+		}
+		// A gravadora já passou pela gravação cancelada quando grava a seguinte
+		assertNotNull(gravacaoEmLote.aguardar(gravacaoEmLote.salvar(novoPaciente())).getId());
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from pacientes where cpf = ?", Integer.class, naFila.getCpf()));
+	}
+
+	@Test
+	void desligadaRecusaAsGravacoes() {
+		// Sem app.pacientesGroupCommitEnabled, o controller não usa a gravação em lote e chama o serviço direto
+		PacienteGravacaoEmLote desligada = new PacienteGravacaoEmLote(pacienteService, particoes, transactionManager,
+				new SimpleMeterRegistry(), 10);
+		desligada.iniciar();
+		assertFalse(desligada.isEnabled());
+		assertThrows(RejectedExecutionException.class, () -> desligada.salvar(novoPaciente()));
+	}
+
+	private static Paciente novoPaciente() {
+		long n = SEQUENCIAL.getAndIncrement();
+		return new Paciente("Paciente Lote " + n, GeradorCpf.gerar(n), "lote" + n + "@exemplo.com");
+	}
+
+	private static Paciente comNome(Paciente paciente, String nome) {
+		return new Paciente(nome, paciente.getCpf(), paciente.getEmail());
+	}
+}
@@ -0,0 +1,66 @@
+package com.uninter.sghss.service;
+
+import com.uninter.sghss.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenVersionServiceTests {
+
+	private static final Long USUARIO = 7L;
+
+	@AfterEach
+	void limparTransacao() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void revogacaoSoValeDepoisDoCommit() {
+		TokenVersionService service = new TokenVersionService(repositorio(List::of));
+		TransactionSynchronizationManager.initSynchronization();
+		service.registrar(USUARIO, 1);
+		assertTrue(service.isCurrent(USUARIO, 0)); // Transação em andamento: ainda pode haver rollback
+
+		List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+		sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+		assertFalse(service.isCurrent(USUARIO, 0));
+		assertTrue(service.isCurrent(USUARIO, 1));
+	}
+
+	@Test
+	void recargaComVersaoAntigaNaoDesfazARevogacao() {
+		List<TokenVersionService> referencia = new ArrayList<>();
+		TokenVersionService service = new TokenVersionService(repositorio(() -> {
+			// A recarga lê o banco (versão 1) e, antes de aplicar, uma revogação desta instância passa a versão a 2
+			List<Object[]> lidas = List.<Object[]>of(new Object[] {USUARIO, 1});
+			referencia.get(0).registrar(USUARIO, 2);
+			return lidas;
+		}));
+		referencia.add(service);
+
+		service.recarregar();
+		assertFalse(service.isCurrent(USUARIO, 1));
+		assertTrue(service.isCurrent(USUARIO, 2));
+	}
+
+	private static UsuarioRepository repositorio(Supplier<List<Object[]>> versoesRevogadas) {
+		return (UsuarioRepository) Proxy.newProxyInstance(UsuarioRepository.class.getClassLoader(),
+				new Class<?>[] {UsuarioRepository.class}, (proxy, metodo, argumentos) -> {
+					if (metodo.getName().equals("findRevokedTokenVersions")) {
+						return versoesRevogadas.get();
+					}
+					throw new UnsupportedOperationException(metodo.getName());
+				});
+	}
+}
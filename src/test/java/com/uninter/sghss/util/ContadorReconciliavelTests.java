@@ -0,0 +1,77 @@
+package com.uninter.sghss.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContadorReconciliavelTests {
+
+	@Test
+	void somaIncrementosDeVariasThreads() throws Exception {
+		ContadorReconciliavel contador = new ContadorReconciliavel();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					contador.somar(1);
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		contador.somar(-5);
+		assertEquals(39_995, contador.valor());
+	}
+
+	@Test
+	void reconciliarMantemIncrementosFeitosDepoisDaMarca() {
+		ContadorReconciliavel contador = new ContadorReconciliavel();
+		contador.somar(10);
+		ContadorReconciliavel.Marca marca = contador.marcar();
+		assertEquals(2, contador.reconciliar(12, marca)); // O banco tinha 2 a mais (ex.: outra instância)
+		assertEquals(12, contador.valor());
+
+		marca = contador.marcar();
+		contador.somar(3); // Gravado durante a consulta: o banco pode ou não ter visto
+		assertEquals(0, contador.reconciliar(12, marca));
+		assertEquals(15, contador.valor());
+		assertEquals(0, contador.reconciliar(15, contador.marcar()));
+		assertEquals(15, contador.valor());
+	}
+
+	@Test
+	void alteracaoEmAndamentoNaoEhContadaDuasVezes() {
+		ContadorReconciliavel contador = new ContadorReconciliavel();
+		contador.somar(10);
+		contador.iniciar(1); // Commit em andamento: o banco já pode vê-lo
+		ContadorReconciliavel.Marca marca = contador.marcar();
+		assertEquals(0, contador.reconciliar(11, marca));
+		contador.concluir(1, true);
+		assertEquals(11, contador.valor());
+
+		contador.iniciar(-1); // Remoção desfeita pelo rollback
+		assertEquals(0, contador.reconciliar(11, contador.marcar()));
+		contador.concluir(-1, false);
+		assertEquals(11, contador.valor());
+	}
+
+	@Test
+	void divergenciaQueAsAlteracoesEmAndamentoNaoExplicamEhCorrigida() {
+		ContadorReconciliavel contador = new ContadorReconciliavel();
+		contador.somar(10);
+		ContadorReconciliavel.Marca marca = contador.marcar();
+		contador.somar(3);
+		// Até 3 dos 10 a mais podem ser a gravação feita durante a consulta; os outros 7 são corrigidos agora
+		assertEquals(7, contador.reconciliar(20, marca));
+		assertEquals(20, contador.valor());
+		// Se o banco não tinha visto a gravação, a próxima reconciliação corrige o resto
+		assertEquals(3, contador.reconciliar(23, contador.marcar()));
+		assertEquals(23, contador.valor());
+	}
+}
@@ -0,0 +1,73 @@
+package com.uninter.sghss.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilaAnelMpscTests {
+
+	@Test
+	void arredondaCapacidadeERecusaComAFilaCheia() {
+		FilaAnelMpsc<Integer> fila = new FilaAnelMpsc<>(5);
+		assertEquals(8, fila.capacidade());
+		for (int i = 0; i < 8; i++) {
+			assertTrue(fila.oferecer(i));
+		}
+		assertFalse(fila.oferecer(8));
+		assertEquals(8, fila.size());
+
+		assertEquals(0, fila.consumir());
+		assertTrue(fila.oferecer(8)); // A posição liberada é reaproveitada na próxima volta
+	}
+
+	@Test
+	void entregaEmOrdemDeInsercao() {
+		FilaAnelMpsc<Integer> fila = new FilaAnelMpsc<>(4);
+		List<Integer> recebidos = new ArrayList<>();
+		for (int volta = 0; volta < 10; volta++) {
+			fila.oferecer(volta * 2);
+			fila.oferecer(volta * 2 + 1);
+			assertEquals(2, fila.drenar(recebidos::add, 10));
+		}
+		assertNull(fila.consumir());
+		for (int i = 0; i < recebidos.size(); i++) {
+			assertEquals(i, recebidos.get(i));
+		}
+	}
+
+	@Test
+	void variosProdutoresNaoPerdemNemDuplicamElementos() throws InterruptedException {
+		FilaAnelMpsc<Long> fila = new FilaAnelMpsc<>(1024);
+		int produtores = 4;
+		long porProdutor = 100_000;
+		Thread[] threads = new Thread[produtores];
+		for (int p = 0; p < produtores; p++) {
+			threads[p] = new Thread(() -> {
+				for (long i = 1; i <= porProdutor; i++) {
+					while (!fila.oferecer(i)) {
+						Thread.onSpinWait();
+					}
+				}
+			});
+			threads[p].start();
+		}
+
+		AtomicLong soma = new AtomicLong();
+		long recebidos = 0;
+		while (recebidos < produtores * porProdutor) {
+			recebidos += fila.drenar(soma::addAndGet, 256);
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(produtores * porProdutor * (porProdutor + 1) / 2, soma.get());
+		assertNull(fila.consumir());
+	}
+}
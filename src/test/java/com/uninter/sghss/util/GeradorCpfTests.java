@@ -0,0 +1,41 @@
+package com.uninter.sghss.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeradorCpfTests {
+
+	@Test
+	void calculaDigitosVerificadores() {
+		assertEquals("52998224725", GeradorCpf.gerar(529982247));
+		assertEquals("00000000191", GeradorCpf.gerar(1));
+	}
+
+	@Test
+	void cpfsGeradosSaoValidosEDistintos() {
+		Set<String> cpfs = new HashSet<>();
+		for (long i = 0; i < 100_000; i++) {
+			String cpf = GeradorCpf.gerar(i * 9_973);
+			if (cpf != null) {
+				assertTrue(GeradorCpf.isValido(cpf), cpf);
+				assertTrue(cpfs.add(cpf), cpf);
+			}
+		}
+	}
+
+	@Test
+	void rejeitaDigitosRepetidosEForaDaFaixa() {
+		assertNull(GeradorCpf.gerar(111_111_111));
+		assertFalse(GeradorCpf.isValido("11111111111"));
+		assertFalse(GeradorCpf.isValido("52998224724"));
+		assertThrows(IllegalArgumentException.class, () -> GeradorCpf.gerar(1_000_000_000L));
+	}
+}
@@ -0,0 +1,42 @@
+package com.uninter.sghss.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeradorIdsParticionadosTests {
+
+	@Test
+	void idsCrescentesComOBucketNosBitsBaixos() {
+		AtomicLong agora = new AtomicLong(GeradorIdsParticionados.EPOCA + 1000);
+		GeradorIdsParticionados gerador = new GeradorIdsParticionados(3, agora::get);
+		long anterior = 0;
+		for (int i = 0; i < 2000; i++) { // Mais que o contador de um milissegundo: o relógio lógico avança
+			long id = gerador.proximo(i % MapaParticoes.BUCKETS);
+			assertTrue(id > anterior);
+			assertEquals(i % MapaParticoes.BUCKETS, MapaParticoes.bucketDoId(id));
+			anterior = id;
+		}
+	}
+
+	@Test
+	void relogioVoltandoNaoRepeteIds() {
+		AtomicLong agora = new AtomicLong(GeradorIdsParticionados.EPOCA + 5000);
+		GeradorIdsParticionados gerador = new GeradorIdsParticionados(0, agora::get);
+		long antes = gerador.proximo(7);
+		agora.addAndGet(-3000);
+		assertTrue(gerador.proximo(7) > antes);
+	}
+
+	@Test
+	void instanciasDiferentesNaoColidem() {
+		AtomicLong agora = new AtomicLong(GeradorIdsParticionados.EPOCA + 1);
+		GeradorIdsParticionados a = new GeradorIdsParticionados(0, agora::get);
+		GeradorIdsParticionados b = new GeradorIdsParticionados(1, agora::get);
+		assertNotEquals(a.proximo(42), b.proximo(42));
+	}
+}
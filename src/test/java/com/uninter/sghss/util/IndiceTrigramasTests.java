@@ -0,0 +1,50 @@
+package com.uninter.sghss.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceTrigramasTests {
+
+	private static List<Long> ids(IndiceTrigramas indice, String consulta) {
+		return indice.search(NormalizadorTexto.normalizar(consulta), 10).stream()
+				.map(IndiceTrigramas.Resultado::id).toList();
+	}
+
+	@Test
+	void normalizaAcentosMaiusculasEPontuacao() {
+		assertEquals("jose d avila", NormalizadorTexto.normalizar("  José D'Ávila "));
+		assertEquals("conceicao", NormalizadorTexto.normalizar("CONCEIÇÃO"));
+	}
+
+	@Test
+	void buscaIgnoraAcentosEOrdenaPorRelevancia() {
+		IndiceTrigramas indice = new IndiceTrigramas();
+		indice.put(1, NormalizadorTexto.normalizar("Maria José Souza"));
+		indice.put(2, NormalizadorTexto.normalizar("José da Silva"));
+		indice.put(3, NormalizadorTexto.normalizar("Ana Clara"));
+
+		assertEquals(List.of(2L, 1L), ids(indice, "JOSE"));
+		assertEquals(List.of(2L), ids(indice, "jose silv"));
+		assertEquals(List.of(2L), ids(indice, "da"));
+		assertTrue(ids(indice, "xyz").isEmpty());
+	}
+
+	@Test
+	void atualizacaoERemocaoRefletemNaBusca() {
+		IndiceTrigramas indice = new IndiceTrigramas();
+		indice.put(1, "jose da silva");
+		indice.put(1, "joao pereira");
+		indice.put(2, "jose souza");
+
+		assertEquals(List.of(2L), ids(indice, "jose"));
+		assertEquals(List.of(1L), ids(indice, "pereira"));
+
+		assertTrue(indice.remove(2));
+		assertTrue(ids(indice, "jose").isEmpty());
+		assertEquals(1, indice.size());
+	}
+}
@@ -0,0 +1,58 @@
+package com.uninter.sghss.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitadorTaxaTests {
+
+	private static final long SEGUNDO = 1_000_000_000L;
+
+	@Test
+	void aceitaARajadaERecusaAteReporFicha() {
+		LimitadorTaxa limitador = new LimitadorTaxa(10, 5); // Uma ficha a cada 100 ms
+		long t = 1_000 * SEGUNDO;
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0L, limitador.tentarConsumir("a", t));
+		}
+		long espera = limitador.tentarConsumir("a", t);
+		assertEquals(SEGUNDO / 10, espera);
+		assertTrue(limitador.tentarConsumir("a", t + espera - 1) > 0);
+		assertEquals(0L, limitador.tentarConsumir("a", t + espera));
+	}
+
+	@Test
+	void chavesTemBaldesIndependentes() {
+		LimitadorTaxa limitador = new LimitadorTaxa(1, 1);
+		assertEquals(0L, limitador.tentarConsumir("a", 0));
+		assertTrue(limitador.tentarConsumir("a", 0) > 0);
+		assertEquals(0L, limitador.tentarConsumir("b", 0));
+	}
+
+	@Test
+	void taxaSustentadaNaoPassaDoConfigurado() {
+		LimitadorTaxa limitador = new LimitadorTaxa(100, 10);
+		int aceitas = 0;
+		for (long t = 0; t < 10 * SEGUNDO; t += SEGUNDO / 1000) { // 1000 req/s durante 10 s
+			if (limitador.tentarConsumir("a", t) == 0L) {
+				aceitas++;
+			}
+		}
+		assertTrue(aceitas >= 1000 && aceitas <= 1010, "aceitas=" + aceitas);
+	}
+
+	@Test
+	void removeApenasBaldesCheios() {
+		LimitadorTaxa limitador = new LimitadorTaxa(1, 3);
+		limitador.tentarConsumir("ocioso", 0);
+		limitador.tentarConsumir("ativo", 0);
+		limitador.tentarConsumir("ativo", 0);
+		limitador.tentarConsumir("ativo", 0);
+
+		assertEquals(1, limitador.removerOciosos(SEGUNDO + SEGUNDO / 2));
+		assertEquals(1, limitador.size());
+		assertEquals(1, limitador.removerOciosos(3 * SEGUNDO));
+		assertEquals(0, limitador.size());
+	}
+}
@@ -0,0 +1,62 @@
+package com.uninter.sghss.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongLongHashMapTests {
+
+	@Test
+	void putGetRemoveIncludingZeroKey() {
+		LongLongHashMap map = new LongLongHashMap(4);
+		map.put(0L, 7L);
+		map.put(12345678901L, 42L);
+		assertEquals(7L, map.get(0L, -1L));
+		assertEquals(42L, map.get(12345678901L, -1L));
+		assertEquals(2, map.size());
+
+		assertTrue(map.remove(0L));
+		assertFalse(map.containsKey(0L));
+		assertEquals(-1L, map.get(99L, -1L));
+		assertEquals(1, map.size());
+	}
+
+	@Test
+	void matchesHashMapUnderRandomOperations() {
+		Random random = new Random(1);
+		LongLongHashMap map = new LongLongHashMap(4);
+		LongHashSet set = new LongHashSet(4);
+		Map<Long, Long> referenciaMapa = new HashMap<>();
+		Set<Long> referenciaConjunto = new HashSet<>();
+
+		for (int i = 0; i < 200_000; i++) {
+			long chave = random.nextInt(2_000) - 10;
+			switch (random.nextInt(3)) {
+				case 0 -> {
+					map.put(chave, i);
+					referenciaMapa.put(chave, (long) i);
+					assertEquals(referenciaConjunto.add(chave), set.add(chave));
+				}
+				case 1 -> {
+					assertEquals(referenciaMapa.remove(chave) != null, map.remove(chave));
+					assertEquals(referenciaConjunto.remove(chave), set.remove(chave));
+				}
+				default -> {
+					assertEquals(referenciaMapa.getOrDefault(chave, -1L), map.get(chave, -1L));
+					assertEquals(referenciaConjunto.contains(chave), set.contains(chave));
+				}
+			}
+			assertEquals(referenciaMapa.size(), map.size());
+			assertEquals(referenciaConjunto.size(), set.size());
+		}
+	}
+
+}
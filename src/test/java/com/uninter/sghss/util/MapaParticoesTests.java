@@ -0,0 +1,57 @@
+package com.uninter.sghss.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapaParticoesTests {
+
+	@TempDir
+	Path diretorio;
+
+	@Test
+	void cpfEIdDoMesmoPacienteCaemNaMesmaParticao() {
+		MapaParticoes mapa = MapaParticoes.uniforme(3);
+		GeradorIdsParticionados gerador = new GeradorIdsParticionados(5);
+		for (int i = 1; i <= 1000; i++) {
+			String cpf = GeradorCpf.gerar(i);
+			long id = gerador.proximo(MapaParticoes.bucketDoCpf(cpf));
+			assertEquals(mapa.particaoDoCpf(cpf), mapa.particaoDoId(id));
+		}
+	}
+
+	@Test
+	void rebalancearMoveSoOsBucketsNecessarios() {
+		MapaParticoes duas = MapaParticoes.uniforme(2);
+		assertTrue(duas.bucketsMovidos(duas.rebalancear(2)).isEmpty());
+
+		MapaParticoes tres = duas.rebalancear(3);
+		int[] porParticao = new int[3];
+		for (int bucket = 0; bucket < MapaParticoes.BUCKETS; bucket++) {
+			porParticao[tres.particaoDoBucket(bucket)]++;
+		}
+		assertEquals(342, porParticao[0]);
+		assertEquals(341, porParticao[1]);
+		assertEquals(341, porParticao[2]);
+		// Só os buckets que foram para a partição nova mudam de lugar
+		assertEquals(341, duas.bucketsMovidos(tres).size());
+		for (int bucket : duas.bucketsMovidos(tres)) {
+			assertEquals(2, tres.particaoDoBucket(bucket));
+		}
+	}
+
+	@Test
+	void gravaELeOMapa() {
+		MapaParticoes mapa = MapaParticoes.uniforme(2).rebalancear(5);
+		Path arquivo = diretorio.resolve("particoes.map");
+		mapa.escrever(arquivo);
+
+		MapaParticoes lido = MapaParticoes.ler(arquivo);
+		assertEquals(5, lido.getParticoes());
+		assertTrue(mapa.bucketsMovidos(lido).isEmpty());
+	}
+}
@@ -0,0 +1,23 @@
+package com.uninter.sghss.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MesclaOrdenadaTests {
+
+	@Test
+	void mesclaEmOrdemAteOLimite() {
+		List<List<Integer>> listas = List.of(List.of(1, 4, 9), List.of(), List.of(2, 3, 10, 11), List.of(5));
+		assertEquals(List.of(1, 2, 3, 4, 5, 9), MesclaOrdenada.mesclar(listas, Comparator.naturalOrder(), 6));
+		assertEquals(List.of(1, 2, 3, 4, 5, 9, 10, 11), MesclaOrdenada.mesclar(listas, Comparator.naturalOrder(), 100));
+	}
+
+	@Test
+	void umaListaSoVoltaCortada() {
+		assertEquals(List.of(1, 2), MesclaOrdenada.mesclar(List.of(List.of(1, 2, 3)), Comparator.naturalOrder(), 2));
+	}
+}